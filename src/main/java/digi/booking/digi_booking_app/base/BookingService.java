@@ -1,6 +1,16 @@
 package digi.booking.digi_booking_app.base;
 
+import digi.booking.digi_booking_app.base.booking.BookingBatchMode;
+import digi.booking.digi_booking_app.base.booking.BookingBatchResult;
 import digi.booking.digi_booking_app.base.booking.BookingDTO;
+import digi.booking.digi_booking_app.base.booking.BookingExpansion;
+import digi.booking.digi_booking_app.base.booking.BookingFilter;
+import digi.booking.digi_booking_app.base.booking.RoomHoldDTO;
+import digi.booking.digi_booking_app.base.model.CountMode;
+import digi.booking.digi_booking_app.base.model.CursorPage;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,16 +18,58 @@ import org.springframework.data.domain.Pageable;
 
 public interface BookingService {
 
-    Page<BookingDTO> findAll(String filter, Pageable pageable);
+    default Page<BookingDTO> findAll(String filter, Pageable pageable) {
+        return findAll(filter, pageable, null);
+    }
 
-    BookingDTO get(UUID id);
+    default Page<BookingDTO> findAll(String filter, Pageable pageable, CountMode countMode) {
+        return findAll(filter, pageable, countMode, Set.of());
+    }
+
+    /**
+     * @param countMode how to obtain the total, or null for the configured mode
+     * @param expand the associations to fetch with the bookings and embed in the DTOs
+     */
+    Page<BookingDTO> findAll(String filter, Pageable pageable, CountMode countMode, Set<BookingExpansion> expand);
+
+    default Page<BookingDTO> search(BookingFilter bookingFilter, Pageable pageable) {
+        return search(bookingFilter, pageable, Set.of());
+    }
+
+    Page<BookingDTO> search(BookingFilter bookingFilter, Pageable pageable, Set<BookingExpansion> expand);
+
+    CursorPage<BookingDTO> scroll(String after, String before, int size);
+
+    default BookingDTO get(UUID id) {
+        return get(id, Set.of());
+    }
+
+    BookingDTO get(UUID id, Set<BookingExpansion> expand);
 
     UUID create(BookingDTO bookingDTO);
 
-    void update(UUID id, BookingDTO bookingDTO);
+    List<BookingBatchResult> createAll(List<BookingDTO> bookingDTOs, BookingBatchMode mode);
+
+    default void update(UUID id, BookingDTO bookingDTO) {
+        update(id, bookingDTO, null);
+    }
+
+    /**
+     * @param ifMatch the If-Match header of the request, null to skip the version check
+     */
+    void update(UUID id, BookingDTO bookingDTO, String ifMatch);
+
+    /**
+     * Reads only the version of a booking, to answer conditional requests.
+     */
+    OffsetDateTime getLastUpdated(UUID id);
 
     void cancel(UUID id);
 
     void delete(UUID id);
 
+    RoomHoldDTO hold(RoomHoldDTO roomHoldDTO);
+
+    void releaseHold(UUID token);
+
 }
@@ -1,7 +1,13 @@
 package digi.booking.digi_booking_app.base;
 
+import digi.booking.digi_booking_app.base.model.CountMode;
+import digi.booking.digi_booking_app.base.model.CursorPage;
+import digi.booking.digi_booking_app.base.model.ImportError;
+import digi.booking.digi_booking_app.base.model.ValuesSnapshot;
 import digi.booking.digi_booking_app.base.room.RoomDTO;
-import java.util.Map;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,16 +15,47 @@ import org.springframework.data.domain.Pageable;
 
 public interface RoomService {
 
-    Page<RoomDTO> findAll(String filter, Pageable pageable);
+    default Page<RoomDTO> findAll(String filter, Pageable pageable) {
+        return findAll(filter, pageable, null);
+    }
+
+    /**
+     * @param countMode how to obtain the total, or null for the configured mode
+     */
+    Page<RoomDTO> findAll(String filter, Pageable pageable, CountMode countMode);
+
+    CursorPage<RoomDTO> scroll(String after, String before, int size);
 
     RoomDTO get(UUID id);
 
     UUID create(RoomDTO roomDTO);
 
-    void update(UUID id, RoomDTO roomDTO);
+    /**
+     * Creates the rooms in one transaction, skipping those whose room number is taken.
+     *
+     * @return the skipped rooms, each with its position in the list as line
+     */
+    List<ImportError> createAll(List<RoomDTO> roomDTOs);
+
+    default void update(UUID id, RoomDTO roomDTO) {
+        update(id, roomDTO, null);
+    }
+
+    /**
+     * @param ifMatch the If-Match header of the request, null to skip the version check
+     */
+    void update(UUID id, RoomDTO roomDTO, String ifMatch);
+
+    /**
+     * Reads only the version of a room, to answer conditional requests.
+     */
+    OffsetDateTime getLastUpdated(UUID id);
 
     void delete(UUID id);
 
-    Map<UUID, String> getRoomValues();
+    Page<RoomDTO> findAvailable(LocalDate checkin, LocalDate checkout, Integer capacity, String roomType,
+            Pageable pageable);
+
+    ValuesSnapshot<UUID> getRoomValues();
 
 }
@@ -1,10 +1,10 @@
 package digi.booking.digi_booking_app.base;
 
-import java.util.Map;
+import digi.booking.digi_booking_app.base.model.ValuesSnapshot;
 
 
 public interface UserService {
 
-    Map<Long, String> getUserValues();
+    ValuesSnapshot<Long> getUserValues();
 
 }
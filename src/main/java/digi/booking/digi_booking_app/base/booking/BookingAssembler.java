@@ -16,21 +16,41 @@ import org.springframework.stereotype.Component;
 @Component
 public class BookingAssembler implements SimpleRepresentationModelAssembler<BookingDTO> {
 
+    /**
+     * Embeds the room and user summaries of an expanded booking; the room keeps its self link.
+     */
+    @Override
+    public EntityModel<BookingDTO> toModel(final BookingDTO bookingDTO) {
+        if (bookingDTO.getRoomSummary() == null && bookingDTO.getUserSummary() == null) {
+            return SimpleRepresentationModelAssembler.super.toModel(bookingDTO);
+        }
+        final BookingModel bookingModel = new BookingModel(bookingDTO);
+        if (bookingDTO.getRoomSummary() != null) {
+            bookingModel.embed("room", EntityModel.of(bookingDTO.getRoomSummary(),
+                    linkTo(methodOn(RoomResource.class).getRoom(bookingDTO.getRoom(), null)).withSelfRel()));
+        }
+        if (bookingDTO.getUserSummary() != null) {
+            bookingModel.embed("user", bookingDTO.getUserSummary());
+        }
+        addLinks(bookingModel);
+        return bookingModel;
+    }
+
     @Override
     public void addLinks(final EntityModel<BookingDTO> entityModel) {
-        entityModel.add(linkTo(methodOn(BookingResource.class).getBooking(entityModel.getContent().getId())).withSelfRel());
-        entityModel.add(linkTo(methodOn(BookingResource.class).getAllBookings(null, null)).withRel(IanaLinkRelations.COLLECTION));
-        entityModel.add(linkTo(methodOn(RoomResource.class).getRoom(entityModel.getContent().getRoom())).withRel("room"));
+        entityModel.add(linkTo(methodOn(BookingResource.class).getBooking(entityModel.getContent().getId(), null, null)).withSelfRel());
+        entityModel.add(linkTo(methodOn(BookingResource.class).getAllBookings(null, null, null, null, null)).withRel(IanaLinkRelations.COLLECTION));
+        entityModel.add(linkTo(methodOn(RoomResource.class).getRoom(entityModel.getContent().getRoom(), null)).withRel("room"));
     }
 
     @Override
     public void addLinks(final CollectionModel<EntityModel<BookingDTO>> collectionModel) {
-        collectionModel.add(linkTo(methodOn(BookingResource.class).getAllBookings(null, null)).withSelfRel());
+        collectionModel.add(linkTo(methodOn(BookingResource.class).getAllBookings(null, null, null, null, null)).withSelfRel());
     }
 
     public EntityModel<SimpleValue<UUID>> toSimpleModel(final UUID id) {
         final EntityModel<SimpleValue<UUID>> simpleModel = SimpleValue.entityModelOf(id);
-        simpleModel.add(linkTo(methodOn(BookingResource.class).getBooking(id)).withSelfRel());
+        simpleModel.add(linkTo(methodOn(BookingResource.class).getBooking(id, null, null)).withSelfRel());
         return simpleModel;
     }
 
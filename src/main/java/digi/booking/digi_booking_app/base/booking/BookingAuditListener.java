@@ -0,0 +1,65 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import digi.booking.digi_booking_app.base.events.BookingCancelled;
+import digi.booking.digi_booking_app.base.events.BookingCreated;
+import digi.booking.digi_booking_app.base.events.BookingUpdated;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.actuate.audit.AuditEventRepository;
+import org.springframework.modulith.events.ApplicationModuleListener;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Records booking changes as audit events, shown by the auditevents actuator endpoint. Runs
+ * asynchronously once the booking transaction has committed, so the request does not wait for
+ * it; how long each event waited for this listener is recorded as booking.events.lag.
+ */
+@Component
+public class BookingAuditListener {
+
+    private final AuditEventRepository auditEventRepository;
+    private final MeterRegistry meterRegistry;
+
+    public BookingAuditListener(final AuditEventRepository auditEventRepository,
+            final MeterRegistry meterRegistry) {
+        this.auditEventRepository = auditEventRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ApplicationModuleListener
+    public void onCreated(final BookingCreated event) {
+        record("BOOKING_CREATED", event.getOccurredAt(), event.getUserId(), Map.of("booking", event.getId(),
+                "room", event.getRoomId(), "checkinDate", event.getCheckinDate(),
+                "checkoutDate", event.getCheckoutDate(), "status", event.getStatus()));
+    }
+
+    @ApplicationModuleListener
+    public void onUpdated(final BookingUpdated event) {
+        record("BOOKING_UPDATED", event.getOccurredAt(), event.getUserId(), Map.of("booking", event.getId(),
+                "room", event.getRoomId(), "checkinDate", event.getCheckinDate(),
+                "checkoutDate", event.getCheckoutDate(), "status", event.getStatus()));
+    }
+
+    @ApplicationModuleListener
+    public void onCancelled(final BookingCancelled event) {
+        record("BOOKING_CANCELLED", event.getOccurredAt(), event.getUserId(), Map.of("booking", event.getId(),
+                "room", event.getRoomId()));
+    }
+
+    private void record(final String type, final Instant occurredAt, final Long userId,
+            final Map<String, Object> data) {
+        auditEventRepository.add(new AuditEvent(occurredAt, String.valueOf(userId), type, data));
+        Timer.builder("booking.events.lag")
+                .description("Time from publishing a booking event until a listener handled it")
+                .tag("listener", "audit")
+                .tag("event", type)
+                .register(meterRegistry)
+                .record(Duration.between(occurredAt, Instant.now()));
+    }
+
+}
@@ -0,0 +1,295 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import digi.booking.digi_booking_app.base.room.Room;
+import digi.booking.digi_booking_app.base.user.User;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+
+/**
+ * In-memory state of one batch create. Every item starts as pending and either fails with a
+ * reported status or ends up as a booking to insert. All lookups are handed in as sets loaded by
+ * the caller, so the checks here never touch the database.
+ */
+final class BookingBatch {
+
+    private final List<BookingDTO> items;
+    private final BookingBatchResult[] results;
+    private final Booking[] bookings;
+    private final UUID[] convertedHolds;
+    private final List<String> conflictedRoomTypes = new ArrayList<>();
+
+    BookingBatch(final List<BookingDTO> items) {
+        this.items = items;
+        this.results = new BookingBatchResult[items.size()];
+        this.bookings = new Booking[items.size()];
+        this.convertedHolds = new UUID[items.size()];
+        for (int index = 0; index < items.size(); index++) {
+            final String problem = validate(items.get(index));
+            if (problem != null) {
+                fail(index, BookingBatchStatus.INVALID, problem);
+            }
+        }
+    }
+
+    static Set<UUID> roomIds(final Collection<BookingDTO> items) {
+        return items.stream()
+                .filter(Objects::nonNull)
+                .map(BookingDTO::getRoom)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    Set<Long> pendingUserIds() {
+        return pending().stream()
+                .map(index -> items.get(index).getUser())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    Set<UUID> pendingRoomIds() {
+        return pending().stream()
+                .map(index -> items.get(index).getRoom())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Builds the bookings of all pending items from the loaded users and rooms.
+     */
+    void resolve(final Collection<User> users, final Collection<Room> rooms) {
+        final Map<Long, User> usersById = users.stream()
+                .collect(Collectors.toMap(User::getKeycloakId, Function.identity()));
+        final Map<UUID, Room> roomsById = rooms.stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+        for (final int index : pending()) {
+            final BookingDTO item = items.get(index);
+            final User user = usersById.get(item.getUser());
+            final Room room = roomsById.get(item.getRoom());
+            if (user == null) {
+                fail(index, BookingBatchStatus.NOT_FOUND, "User not found: " + item.getUser());
+            } else if (room == null) {
+                fail(index, BookingBatchStatus.NOT_FOUND, "Room not found: " + item.getRoom());
+            } else if (Boolean.FALSE.equals(user.getActive())) {
+                fail(index, BookingBatchStatus.INVALID, "User is inactive");
+            } else if (Boolean.FALSE.equals(room.getActive())) {
+                fail(index, BookingBatchStatus.CONFLICT, "Room " + room.getRoomNumber() + " is inactive");
+            } else {
+                final Booking booking = new Booking();
+                booking.setUser(user);
+                booking.setRoom(room);
+                booking.setCheckinDate(item.getCheckinDate());
+                booking.setCheckoutDate(item.getCheckoutDate());
+                booking.setStatus(item.getStatus());
+                bookings[index] = booking;
+            }
+        }
+    }
+
+    /**
+     * @return true if at least one pending item would be an ACTIVE stay and needs an overlap check
+     */
+    boolean hasActiveStays() {
+        return !activeStays().isEmpty();
+    }
+
+    LocalDate earliestCheckin() {
+        return activeStays().stream()
+                .map(index -> bookings[index].getCheckinDate())
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+    }
+
+    LocalDate latestCheckout() {
+        return activeStays().stream()
+                .map(index -> bookings[index].getCheckoutDate())
+                .max(Comparator.naturalOrder())
+                .orElseThrow();
+    }
+
+    /**
+     * Rejects pending ACTIVE items that overlap a stored stay or an earlier item of the same
+     * room. Items of a room are swept in check-in order, so when two items of the batch collide
+     * the one starting first is kept. Both checks follow {@link BookingStay#overlaps}, so a stay
+     * without nights is accepted here exactly when a single create would accept it.
+     */
+    void checkOverlaps(final List<BookingStay> storedStays) {
+        final Map<UUID, List<BookingStay>> storedByRoom = storedStays.stream()
+                .collect(Collectors.groupingBy(BookingStay::roomId));
+        final Map<UUID, List<Integer>> candidatesByRoom = new HashMap<>();
+        for (final int index : activeStays()) {
+            final Booking booking = bookings[index];
+            final UUID roomId = booking.getRoom().getId();
+            final boolean stored = storedByRoom.getOrDefault(roomId, List.of()).stream()
+                    .anyMatch(stay -> stay.overlaps(booking.getCheckinDate(), booking.getCheckoutDate()));
+            if (stored) {
+                conflict(index);
+            } else {
+                candidatesByRoom.computeIfAbsent(roomId, id -> new ArrayList<>()).add(index);
+            }
+        }
+        final Comparator<Integer> byCheckin = Comparator
+                .comparing((Integer index) -> bookings[index].getCheckinDate())
+                .thenComparing(Comparator.naturalOrder());
+        candidatesByRoom.values().forEach(candidates -> {
+            candidates.sort(byCheckin);
+            LocalDate bookedUntil = LocalDate.MIN;
+            for (final int index : candidates) {
+                final Booking booking = bookings[index];
+                if (BookingStay.isEmpty(booking.getCheckinDate(), booking.getCheckoutDate())) {
+                    continue;
+                }
+                if (bookedUntil.isAfter(booking.getCheckinDate())) {
+                    conflict(index);
+                } else {
+                    bookedUntil = booking.getCheckoutDate();
+                }
+            }
+        });
+    }
+
+    /**
+     * Rejects pending ACTIVE items that overlap a room hold other than the one they convert. A
+     * hold counts as converted only if it covers the item's room, user and dates, as on the
+     * single-booking path; an item naming a hold that does not is invalid, and an expired hold
+     * is ignored.
+     */
+    void checkHolds(final RoomHoldRegistry roomHoldRegistry) {
+        for (final int index : activeStays()) {
+            final Booking booking = bookings[index];
+            final UUID token = items.get(index).getHoldToken();
+            final RoomHold hold = token == null ? null : roomHoldRegistry.get(token).orElse(null);
+            if (hold != null && !hold.covers(booking.getRoom().getId(), booking.getUser().getKeycloakId(),
+                    booking.getCheckinDate(), booking.getCheckoutDate())) {
+                fail(index, BookingBatchStatus.INVALID, "Hold does not cover this booking");
+                continue;
+            }
+            convertedHolds[index] = hold == null ? null : token;
+            if (roomHoldRegistry.hasConflict(booking.getRoom().getId(), booking.getCheckinDate(),
+                    booking.getCheckoutDate(), convertedHolds[index])) {
+                conflictedRoomTypes.add(booking.getRoom().getRoomType());
+                fail(index, BookingBatchStatus.CONFLICT, "Room " + booking.getRoom().getRoomNumber()
+                        + " is held for the selected dates");
+            }
+        }
+    }
+
+    boolean hasFailures() {
+        for (final BookingBatchResult result : results) {
+            if (result != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks every pending item as not created, for an all-or-nothing batch that failed.
+     */
+    void abandon() {
+        for (final int index : pending()) {
+            fail(index, BookingBatchStatus.NOT_CREATED, "Batch rejected because other items failed");
+        }
+    }
+
+    /**
+     * @return the bookings of all pending items, in request order
+     */
+    List<Booking> getBookings() {
+        return pending().stream()
+                .map(index -> bookings[index])
+                .toList();
+    }
+
+    /**
+     * @return the requests of all pending items, in the order of {@link #getBookings()}
+     */
+    List<BookingDTO> getRequests() {
+        return pending().stream()
+                .map(items::get)
+                .toList();
+    }
+
+    /**
+     * @return one result per item in request order; pending items are reported as created
+     */
+    List<BookingBatchResult> getResults() {
+        final List<BookingBatchResult> reported = new ArrayList<>(results.length);
+        for (int index = 0; index < results.length; index++) {
+            reported.add(results[index] != null ? results[index]
+                    : new BookingBatchResult(index, BookingBatchStatus.CREATED, bookings[index].getId(), null));
+        }
+        return reported;
+    }
+
+    /**
+     * @return the checked hold tokens of all pending items, to release once their bookings are
+     *         committed
+     */
+    List<UUID> getConvertedHolds() {
+        return pending().stream()
+                .map(index -> convertedHolds[index])
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * @return the room type of every item rejected because its room is booked or held for the dates
+     */
+    List<String> getConflictedRoomTypes() {
+        return conflictedRoomTypes;
+    }
+
+    private List<Integer> pending() {
+        final List<Integer> pending = new ArrayList<>();
+        for (int index = 0; index < results.length; index++) {
+            if (results[index] == null) {
+                pending.add(index);
+            }
+        }
+        return pending;
+    }
+
+    private List<Integer> activeStays() {
+        return pending().stream()
+                .filter(index -> bookings[index] != null && bookings[index].getStatus() == BookingStatus.ACTIVE)
+                .toList();
+    }
+
+    private void conflict(final int index) {
+        conflictedRoomTypes.add(bookings[index].getRoom().getRoomType());
+        fail(index, BookingBatchStatus.CONFLICT, "Room " + bookings[index].getRoom().getRoomNumber()
+                + " is not available for the selected dates");
+    }
+
+    private void fail(final int index, final BookingBatchStatus status, final String message) {
+        bookings[index] = null;
+        results[index] = new BookingBatchResult(index, status, null, message);
+    }
+
+    static String validate(final BookingDTO item) {
+        if (item == null) {
+            return "Booking required";
+        }
+        if (item.getUser() == null || item.getRoom() == null || item.getStatus() == null) {
+            return "User, room and status required";
+        }
+        if (item.getCheckinDate() == null || item.getCheckoutDate() == null) {
+            return "Both dates required";
+        }
+        if (item.getCheckoutDate().isBefore(item.getCheckinDate())) {
+            return "Checkout must be on or after checkin";
+        }
+        return null;
+    }
+
+}
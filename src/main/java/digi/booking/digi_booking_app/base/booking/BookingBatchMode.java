@@ -0,0 +1,16 @@
+package digi.booking.digi_booking_app.base.booking;
+
+
+public enum BookingBatchMode {
+
+    /**
+     * Nothing is written unless every item of the batch can be booked.
+     */
+    ALL_OR_NOTHING,
+
+    /**
+     * Items that can be booked are written, the others are reported and skipped.
+     */
+    BEST_EFFORT
+
+}
@@ -0,0 +1,23 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+
+/**
+ * Outcome of one item of a batch request, reported at the item's position in the request.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingBatchResult {
+
+    private int index;
+
+    private BookingBatchStatus status;
+
+    private UUID id;
+
+    private String message;
+
+}
@@ -0,0 +1,12 @@
+package digi.booking.digi_booking_app.base.booking;
+
+
+public enum BookingBatchStatus {
+
+    CREATED,
+    CONFLICT,
+    INVALID,
+    NOT_FOUND,
+    NOT_CREATED
+
+}
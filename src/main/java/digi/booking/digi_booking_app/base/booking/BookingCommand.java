@@ -0,0 +1,24 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import digi.booking.digi_booking_app.base.room.Room;
+import digi.booking.digi_booking_app.base.user.User;
+
+
+/**
+ * A create or update request together with the user and room it refers to, each loaded once.
+ */
+record BookingCommand(BookingDTO request, User user, Room room) {
+
+    boolean isActiveStay() {
+        return request.getStatus() == BookingStatus.ACTIVE;
+    }
+
+    void applyTo(final Booking booking) {
+        booking.setUser(user);
+        booking.setRoom(room);
+        booking.setCheckinDate(request.getCheckinDate());
+        booking.setCheckoutDate(request.getCheckoutDate());
+        booking.setStatus(request.getStatus());
+    }
+
+}
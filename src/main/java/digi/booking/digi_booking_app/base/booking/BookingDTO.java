@@ -1,14 +1,19 @@
 package digi.booking.digi_booking_app.base.booking;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.UUID;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 
 @Getter
 @Setter
+@NoArgsConstructor
 public class BookingDTO {
 
     private UUID id;
@@ -28,4 +33,36 @@ public class BookingDTO {
     @NotNull
     private UUID room;
 
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private UUID holdToken;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private OffsetDateTime lastUpdated;
+
+    /** set by {@link BookingResource} for a write with an Idempotency-Key */
+    @JsonIgnore
+    private IdempotencyStore.Claim idempotencyClaim;
+
+    /** set with expand=room and sent in _embedded by {@link BookingAssembler} */
+    @JsonIgnore
+    private RoomSummary roomSummary;
+
+    /** set with expand=user and sent in _embedded by {@link BookingAssembler} */
+    @JsonIgnore
+    private UserSummary userSummary;
+
+    /**
+     * Used by the projection queries of {@link BookingRepository}.
+     */
+    public BookingDTO(final UUID id, final LocalDate checkinDate, final LocalDate checkoutDate,
+            final BookingStatus status, final Long user, final UUID room, final OffsetDateTime lastUpdated) {
+        this.id = id;
+        this.checkinDate = checkinDate;
+        this.checkoutDate = checkoutDate;
+        this.status = status;
+        this.user = user;
+        this.room = room;
+        this.lastUpdated = lastUpdated;
+    }
+
 }
@@ -0,0 +1,54 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+
+/**
+ * Associations that can be embedded in booking responses with expand=room,user. Each names the
+ * attribute that is fetched together with the bookings.
+ */
+public enum BookingExpansion {
+
+    ROOM("room"),
+    USER("user");
+
+    private final String attribute;
+
+    BookingExpansion(final String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * @param values the expand parameter, split at commas, or null
+     */
+    public static Set<BookingExpansion> parse(final Collection<String> values) {
+        final Set<BookingExpansion> expansions = EnumSet.noneOf(BookingExpansion.class);
+        if (values == null) {
+            return expansions;
+        }
+        for (final String value : values) {
+            if (value.isBlank()) {
+                continue;
+            }
+            try {
+                expansions.add(valueOf(value.trim().toUpperCase(Locale.ROOT)));
+            } catch (final IllegalArgumentException illegalArgumentException) {
+                throw new IllegalArgumentException("Cannot expand " + value + ", use room or user");
+            }
+        }
+        return expansions;
+    }
+
+    static List<String> attributes(final Set<BookingExpansion> expansions) {
+        return expansions.stream().map(BookingExpansion::getAttribute).toList();
+    }
+
+}
@@ -0,0 +1,39 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import digi.booking.digi_booking_app.base.util.ExportFormat;
+import digi.booking.digi_booking_app.base.util.StreamingExport;
+import java.io.OutputStream;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * All bookings matching a {@link BookingFilter}, streamed in check-in order. The conditions come
+ * from {@link BookingSpecifications#conditions}, the same definitions the search uses, in their
+ * SQL form for the JDBC cursor.
+ */
+@Component
+public class BookingExport {
+
+    static final List<String> COLUMNS = List.of("id", "checkinDate", "checkoutDate", "status", "user", "room",
+            "lastUpdated");
+
+    private static final String EXPORT_QUERY = """
+            SELECT b.id, b.checkin_date, b.checkout_date, b.status, b.user_id, b.room_id, b.last_updated
+            FROM bookings b
+            """;
+
+    private final StreamingExport streamingExport;
+
+    public BookingExport(final StreamingExport streamingExport) {
+        this.streamingExport = streamingExport;
+    }
+
+    public void write(final BookingFilter filter, final ExportFormat format, final OutputStream outputStream) {
+        final StreamingExport.Conditions conditions = new StreamingExport.Conditions();
+        BookingSpecifications.conditions(filter).forEach(condition -> conditions.add(condition.sql(), condition.arg()));
+        streamingExport.write(EXPORT_QUERY + conditions.where() + " ORDER BY b.checkin_date, b.id",
+                conditions.args(), COLUMNS, format, outputStream);
+    }
+
+}
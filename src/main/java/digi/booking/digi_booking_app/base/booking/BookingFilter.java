@@ -0,0 +1,46 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+
+/**
+ * Structured search of the booking listing. Every criterion is optional and all given ones must
+ * match; date bounds are inclusive.
+ */
+@Getter
+@Setter
+public class BookingFilter {
+
+    private BookingStatus status;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkinFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkinTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkoutFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkoutTo;
+
+    private UUID room;
+
+    private Integer roomNumber;
+
+    private Long user;
+
+    private Boolean arrivingToday;
+
+    public boolean isEmpty() {
+        return status == null && checkinFrom == null && checkinTo == null && checkoutFrom == null
+                && checkoutTo == null && room == null && roomNumber == null && user == null
+                && !Boolean.TRUE.equals(arrivingToday);
+    }
+
+}
@@ -33,6 +33,7 @@ public interface BookingMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "user", ignore = true)
     @Mapping(target = "room", ignore = true)
+    @Mapping(target = "lastUpdated", ignore = true)
     Booking updateBooking(BookingDTO bookingDTO, @MappingTarget Booking booking,
             @Context UserRepository userRepository, @Context RoomRepository roomRepository);
 
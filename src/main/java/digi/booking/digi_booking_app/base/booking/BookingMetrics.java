@@ -0,0 +1,115 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import digi.booking.digi_booking_app.base.exception.PreconditionFailedException;
+import digi.booking.digi_booking_app.base.exception.RoomBusyException;
+import digi.booking.digi_booking_app.base.exception.RoomNotAvailableException;
+import digi.booking.digi_booking_app.base.util.NotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Meters of the booking writes: the booking.writes timer per operation and outcome, the
+ * booking.overlap.query timer of the database overlap checks and the booking.conflicts counter
+ * per room type. Percentile histograms are switched on per meter in application.properties.
+ */
+@Component
+public class BookingMetrics {
+
+    static final String WRITES = "booking.writes";
+    static final String OVERLAP_QUERY = "booking.overlap.query";
+    static final String CONFLICTS = "booking.conflicts";
+
+    private final MeterRegistry meterRegistry;
+
+    public BookingMetrics(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times a write from before its room locks are taken until it has committed or failed.
+     *
+     * @param success the outcome reported when the write returns normally
+     */
+    public <T> T timeWrite(final String operation, final String success, final Supplier<T> write) {
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = success;
+        try {
+            return write.get();
+        } catch (final RuntimeException exception) {
+            outcome = outcome(exception);
+            throw exception;
+        } finally {
+            sample.stop(writes(operation, outcome));
+        }
+    }
+
+    public void timeWrite(final String operation, final String success, final Runnable write) {
+        timeWrite(operation, success, () -> {
+            write.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records a write that was applied as part of a batch, with the time the whole batch took.
+     */
+    public void recordWrite(final String operation, final String outcome, final Duration duration) {
+        writes(operation, outcome).record(duration);
+    }
+
+    public <T> T timeOverlapQuery(final String query, final Supplier<T> overlapQuery) {
+        return Timer.builder(OVERLAP_QUERY)
+                .description("Database queries for stays overlapping a requested one")
+                .tag("query", query)
+                .register(meterRegistry)
+                .record(overlapQuery);
+    }
+
+    /**
+     * Counts a request rejected because its room is booked or held for the dates.
+     *
+     * @param reason which check found the conflict
+     */
+    public void conflict(final String roomType, final String reason) {
+        Counter.builder(CONFLICTS)
+                .description("Bookings rejected because the room is taken for the selected dates")
+                .tag("room_type", roomType == null ? "unknown" : roomType)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Timer writes(final String operation, final String outcome) {
+        return Timer.builder(WRITES)
+                .description("Booking writes by operation and outcome, including the wait for room locks")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    static String outcome(final RuntimeException exception) {
+        if (exception instanceof RoomNotAvailableException) {
+            return "conflict";
+        }
+        if (exception instanceof NotFoundException) {
+            return "not_found";
+        }
+        if (exception instanceof PreconditionFailedException) {
+            return "precondition_failed";
+        }
+        if (exception instanceof RoomBusyException) {
+            // BookingWriteRetry gives up with the last serialization failure or deadlock as the cause
+            return BookingWriteRetry.classify(exception.getCause()) != null ? "retry_exhausted" : "lock_rejected";
+        }
+        if (exception instanceof IllegalArgumentException || exception instanceof IllegalStateException) {
+            return "invalid";
+        }
+        return "error";
+    }
+
+}
@@ -0,0 +1,43 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.hateoas.EntityModel;
+
+
+/**
+ * A booking with its expanded associations in the HAL _embedded section, keyed by relation.
+ */
+public class BookingModel extends EntityModel<BookingDTO> {
+
+    @JsonProperty("_embedded")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private final Map<String, Object> embedded = new LinkedHashMap<>();
+
+    BookingModel(final BookingDTO bookingDTO) {
+        super(bookingDTO);
+    }
+
+    BookingModel embed(final String relation, final Object resource) {
+        embedded.put(relation, resource);
+        return this;
+    }
+
+    public Map<String, Object> getEmbedded() {
+        return embedded;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return super.equals(other) && embedded.equals(((BookingModel) other).embedded);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), embedded);
+    }
+
+}
@@ -1,39 +1,105 @@
 package digi.booking.digi_booking_app.base.booking;
 
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-import digi.booking.digi_booking_app.base.room.Room;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 
-public interface BookingRepository extends JpaRepository<Booking, UUID> {
+public interface BookingRepository extends JpaRepository<Booking, UUID>, JpaSpecificationExecutor<Booking> {
 
-    Page<Booking> findAllById(UUID id, Pageable pageable);
+    /**
+     * Selects the columns of {@link BookingDTO} straight into DTOs. No entity is hydrated or
+     * put in the persistence context, and the user and room ids come from the foreign keys.
+     */
+    String DTO_QUERY = "SELECT new digi.booking.digi_booking_app.base.booking.BookingDTO(b.id, b.checkinDate, "
+            + "b.checkoutDate, b.status, b.user.keycloakId, b.room.id, b.lastUpdated) FROM Booking b";
+
+    @Query(value = DTO_QUERY + " WHERE b.id = :id", countQuery = "SELECT count(b) FROM Booking b WHERE b.id = :id")
+    Page<BookingDTO> findDTOsById(@Param("id") UUID id, Pageable pageable);
+
+    @Query(value = DTO_QUERY, countQuery = "SELECT count(b) FROM Booking b")
+    Page<BookingDTO> findDTOs(Pageable pageable);
+
+    /**
+     * Read a page without counting all rows.
+     */
+    @Query(DTO_QUERY)
+    Slice<BookingDTO> findDTOSlice(Pageable pageable);
+
+    /**
+     * Read one window of all bookings, for keyset pagination.
+     *
+     * @param position where the window starts; the keys must match the sort properties
+     */
+    Window<Booking> findAllBy(ScrollPosition position, Limit limit, Sort sort);
 
     Booking findFirstByRoomId(UUID id);
 
+    @Query("SELECT b.lastUpdated FROM Booking b WHERE b.id = :id")
+    Optional<OffsetDateTime> findLastUpdatedById(@Param("id") UUID id);
+
+    @Query("SELECT b.room.id FROM Booking b WHERE b.id = :id")
+    Optional<UUID> findRoomIdById(@Param("id") UUID id);
+
     /**
-     * Find overlapping active bookings for a room.
+     * Find the stays that end after the given day.
      *
-     * @param room the room to check
+     * @param from the first day of interest
+     * @param status the booking status
+     * @return the stays still occupying a room on or after that day
+     */
+    @Query("SELECT new digi.booking.digi_booking_app.base.booking.BookingStay(b.id, b.room.id, b.checkinDate, b.checkoutDate) FROM Booking b WHERE b.status = :status AND b.checkoutDate > :from")
+    List<BookingStay> findStaysEndingAfter(@Param("from") LocalDate from, @Param("status") BookingStatus status);
+
+    /**
+     * Find the stays of several rooms that overlap a date range, in one query.
+     *
+     * @param roomIds the rooms to check
+     * @param checkin the start of the range
+     * @param checkout the end of the range
+     * @param status the booking status
+     * @return the overlapping stays ordered by room and check-in date
+     */
+    @Query("SELECT new digi.booking.digi_booking_app.base.booking.BookingStay(b.id, b.room.id, b.checkinDate, b.checkoutDate) FROM Booking b WHERE b.room.id IN :roomIds AND b.status = :status AND (b.checkinDate < :checkout AND b.checkoutDate > :checkin) ORDER BY b.room.id, b.checkinDate")
+    List<BookingStay> findStaysOverlapping(
+            @Param("roomIds") Collection<UUID> roomIds,
+            @Param("checkin") LocalDate checkin,
+            @Param("checkout") LocalDate checkout,
+            @Param("status") BookingStatus status
+    );
+
+    /**
+     * Check a room for active bookings overlapping a stay. EXISTS stops at the first match, and
+     * the literal ACTIVE status and the range overlap on the stay column let the planner use the
+     * gist index of the ex_bookings_room_stay exclusion constraint, so the check and the
+     * constraint apply the same rule.
+     *
+     * @param roomId the room to check
      * @param checkin the check-in date
      * @param checkout the check-out date
-     * @param status the booking status
-     * @param excludeId the booking ID to exclude from the search
-     * @return a list of overlapping active bookings
+     * @param excludeId the booking ID to exclude from the search, or null
+     * @return true if at least one overlapping active booking exists
      */
-    @Query("SELECT b FROM Booking b WHERE b.room = :room AND b.status = :status AND (b.checkinDate < :checkout AND b.checkoutDate > :checkin) AND (:excludeId IS NULL OR b.id <> :excludeId)")
-    List<Booking> findOverlappingActiveBookings(
-            @Param("room") Room room,
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM bookings b WHERE b.room_id = :roomId AND b.status = 'ACTIVE' AND b.stay && daterange(CAST(:checkin AS date), CAST(:checkout AS date), '[)') AND b.id IS DISTINCT FROM CAST(:excludeId AS uuid))", nativeQuery = true)
+    boolean existsActiveOverlap(
+            @Param("roomId") UUID roomId,
             @Param("checkin") LocalDate checkin,
             @Param("checkout") LocalDate checkout,
-            @Param("status") BookingStatus status,
             @Param("excludeId") UUID excludeId
     );
 
@@ -1,10 +1,23 @@
 package digi.booking.digi_booking_app.base.booking;
 
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
 import digi.booking.digi_booking_app.base.BookingService;
 import digi.booking.digi_booking_app.base.RoomService;
 import digi.booking.digi_booking_app.base.UserService;
+import digi.booking.digi_booking_app.base.model.CountMode;
+import digi.booking.digi_booking_app.base.model.CountedPage;
+import digi.booking.digi_booking_app.base.model.CursorPage;
+import digi.booking.digi_booking_app.base.model.ImportError;
+import digi.booking.digi_booking_app.base.model.ImportResult;
 import digi.booking.digi_booking_app.base.model.SimpleValue;
+import digi.booking.digi_booking_app.base.model.ValuesSnapshot;
 import digi.booking.digi_booking_app.base.security.UserRoles;
+import digi.booking.digi_booking_app.base.util.BulkImport;
+import digi.booking.digi_booking_app.base.util.EntityTags;
+import digi.booking.digi_booking_app.base.util.ExportFormat;
+import digi.booking.digi_booking_app.base.util.StreamingExport;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -12,20 +25,36 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.data.web.SortDefault;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
@@ -33,23 +62,40 @@ import org.springframework.web.bind.annotation.*;
 @SecurityRequirement(name = "bearer-jwt")
 public class BookingResource {
 
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final BookingService bookingService;
     private final BookingAssembler bookingAssembler;
     private final PagedResourcesAssembler<BookingDTO> pagedResourcesAssembler;
     private final UserService userService;
     private final RoomService roomService;
+    private final IdempotencyStore idempotencyStore;
+    private final BookingWriteQueue bookingWriteQueue;
+    private final BookingExport bookingExport;
+    private final BulkImport bulkImport;
 
     public BookingResource(final BookingService bookingService,
             final BookingAssembler bookingAssembler,
             final PagedResourcesAssembler<BookingDTO> pagedResourcesAssembler,
-            final UserService userService, final RoomService roomService) {
+            final UserService userService, final RoomService roomService,
+            final IdempotencyStore idempotencyStore, final BookingWriteQueue bookingWriteQueue,
+            final BookingExport bookingExport, final BulkImport bulkImport) {
         this.bookingService = bookingService;
         this.bookingAssembler = bookingAssembler;
         this.pagedResourcesAssembler = pagedResourcesAssembler;
         this.userService = userService;
         this.roomService = roomService;
+        this.idempotencyStore = idempotencyStore;
+        this.bookingWriteQueue = bookingWriteQueue;
+        this.bookingExport = bookingExport;
+        this.bulkImport = bulkImport;
     }
 
+    /**
+     * With expand=room,user the rooms and users of the page are fetched in the same query and
+     * embedded in every booking, so a list screen needs no request per row. Guest names and
+     * email addresses are admin-only, so expand=user is denied to other roles.
+     */
     @Operation(
             parameters = {
                     @Parameter(
@@ -73,43 +119,175 @@ public class BookingResource {
     @PreAuthorize("hasAnyAuthority('" + UserRoles.ADMIN + "', '" + UserRoles.USER + "')")
     public ResponseEntity<PagedModel<EntityModel<BookingDTO>>> getAllBookings(
             @RequestParam(name = "filter", required = false) final String filter,
+            @RequestParam(name = "count", required = false) final CountMode count,
+            @RequestParam(name = "expand", required = false) final List<String> expand,
+            @ParameterObject final BookingFilter bookingFilter,
             @Parameter(hidden = true) @SortDefault(sort = "id") @PageableDefault(size = 20) final Pageable pageable) {
-        final Page<BookingDTO> bookingDTOs = bookingService.findAll(filter, pageable);
-        return ResponseEntity.ok(pagedResourcesAssembler.toModel(bookingDTOs, bookingAssembler));
+        final Set<BookingExpansion> expansions = BookingExpansion.parse(expand);
+        if (expansions.contains(BookingExpansion.USER) && !isAdmin()) {
+            throw new AuthorizationDeniedException("Only admins can expand bookings with their users");
+        }
+        final Page<BookingDTO> bookingDTOs = filter == null && bookingFilter != null && !bookingFilter.isEmpty()
+                ? bookingService.search(bookingFilter, pageable, expansions)
+                : bookingService.findAll(filter, pageable, count, expansions);
+        final PagedModel<EntityModel<BookingDTO>> pagedModel =
+                pagedResourcesAssembler.toModel(bookingDTOs, bookingAssembler);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(EntityTags.of(bookingDTOs.getContent(), BookingDTO::getId, BookingDTO::getLastUpdated,
+                        bookingDTOs.getTotalElements(), embedded(bookingDTOs.getContent())))
+                .body(bookingDTOs instanceof CountedPage<?> countedPage
+                        ? CountedPage.withCountMode(pagedModel, countedPage) : pagedModel);
+    }
+
+    /**
+     * Lists bookings ordered by check-in date with cursor links instead of page numbers, so deep
+     * positions cost the same as the first window.
+     */
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAnyAuthority('" + UserRoles.ADMIN + "', '" + UserRoles.USER + "')")
+    public ResponseEntity<CollectionModel<EntityModel<BookingDTO>>> scrollBookings(
+            @RequestParam(name = "after", required = false) final String after,
+            @RequestParam(name = "before", required = false) final String before,
+            @RequestParam(name = "size", defaultValue = "20") final int size) {
+        final CursorPage<BookingDTO> page = bookingService.scroll(after, before, size);
+        final CollectionModel<EntityModel<BookingDTO>> collectionModel = CollectionModel.of(
+                page.getContent().stream().map(bookingAssembler::toModel).toList());
+        collectionModel.add(linkTo(methodOn(BookingResource.class).scrollBookings(after, before, size)).withSelfRel());
+        if (page.getNext() != null) {
+            collectionModel.add(linkTo(methodOn(BookingResource.class).scrollBookings(page.getNext(), null, size))
+                    .withRel(IanaLinkRelations.NEXT));
+        }
+        if (page.getPrevious() != null) {
+            collectionModel.add(linkTo(methodOn(BookingResource.class).scrollBookings(null, page.getPrevious(), size))
+                    .withRel(IanaLinkRelations.PREV));
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(EntityTags.of(page.getContent(), BookingDTO::getId, BookingDTO::getLastUpdated,
+                        page.getNext(), page.getPrevious()))
+                .body(collectionModel);
+    }
+
+    /**
+     * Every booking matching the filter as NDJSON or CSV, in check-in order. Rows are written while
+     * they are read and gzipped on the fly when the client accepts it, so the export has no size
+     * limit.
+     */
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @PreAuthorize("hasAuthority('" + UserRoles.ADMIN + "')")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam(name = "format", required = false) final String format,
+            @ParameterObject final BookingFilter bookingFilter,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding) {
+        final ExportFormat exportFormat = ExportFormat.parse(format);
+        return StreamingExport.response("bookings", exportFormat, acceptEncoding,
+                outputStream -> bookingExport.write(bookingFilter, exportFormat, outputStream));
     }
 
+    /**
+     * Answers If-None-Match and If-Modified-Since from the lastUpdated column alone; the booking
+     * is loaded and assembled only when it changed. An expanded booking also depends on its room
+     * and user, so its tag is computed from the loaded response instead.
+     */
     @GetMapping("/{id}")
     @PreAuthorize("hasAuthority('" + UserRoles.ADMIN + "')")
     public ResponseEntity<EntityModel<BookingDTO>> getBooking(
-            @PathVariable(name = "id") final UUID id) {
+            @PathVariable(name = "id") final UUID id,
+            @RequestParam(name = "expand", required = false) final List<String> expand,
+            final WebRequest webRequest) {
+        final Set<BookingExpansion> expansions = BookingExpansion.parse(expand);
+        if (!expansions.isEmpty()) {
+            final BookingDTO bookingDTO = bookingService.get(id, expansions);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(EntityTags.of(List.of(bookingDTO), BookingDTO::getId, BookingDTO::getLastUpdated,
+                            embedded(List.of(bookingDTO))))
+                    .body(bookingAssembler.toModel(bookingDTO));
+        }
+        final OffsetDateTime lastUpdated = bookingService.getLastUpdated(id);
+        if (webRequest.checkNotModified(EntityTags.of(lastUpdated), lastUpdated.toInstant().toEpochMilli())) {
+            return null;
+        }
         final BookingDTO bookingDTO = bookingService.get(id);
-        return ResponseEntity.ok(bookingAssembler.toModel(bookingDTO));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(bookingAssembler.toModel(bookingDTO));
     }
 
     @PostMapping
     @PreAuthorize("hasAuthority('" + UserRoles.ADMIN + "')")
     @ApiResponse(responseCode = "201")
-    public ResponseEntity<EntityModel<SimpleValue<UUID>>> createBooking(
+    public CompletableFuture<ResponseEntity<EntityModel<SimpleValue<UUID>>>> createBooking(
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) final String idempotencyKey,
             @RequestBody @Valid final BookingDTO bookingDTO) {
-        final UUID createdId = bookingService.create(bookingDTO);
-        return new ResponseEntity<>(bookingAssembler.toSimpleModel(createdId), HttpStatus.CREATED);
+        // an idempotent write must finish while its key is claimed, so it waits for the mailbox
+        final CompletableFuture<UUID> created = idempotencyKey == null ? bookingWriteQueue.create(bookingDTO)
+                : CompletableFuture.completedFuture(idempotencyStore.execute(idempotencyKey, "create", claim -> {
+                    bookingDTO.setIdempotencyClaim(claim);
+                    return BookingWriteQueue.await(bookingWriteQueue.create(bookingDTO));
+                }, bookingDTO));
+        return created.thenApply(createdId ->
+                new ResponseEntity<>(bookingAssembler.toSimpleModel(createdId), HttpStatus.CREATED));
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasAuthority('" + UserRoles.ADMIN + "')")
+    @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "409", description = "An all-or-nothing batch was rejected")
+    public ResponseEntity<List<BookingBatchResult>> createBookings(
+            @RequestParam(name = "mode", defaultValue = "ALL_OR_NOTHING") final BookingBatchMode mode,
+            @RequestBody final List<BookingDTO> bookingDTOs) {
+        final List<BookingBatchResult> results = bookingService.createAll(bookingDTOs, mode);
+        final boolean rejected = mode == BookingBatchMode.ALL_OR_NOTHING && results.stream()
+                .anyMatch(result -> result.getStatus() != BookingBatchStatus.CREATED);
+        return ResponseEntity.status(rejected ? HttpStatus.CONFLICT : HttpStatus.OK).body(results);
+    }
+
+    /**
+     * Loads bookings from an NDJSON or CSV body of any size, for example the history of a new
+     * property. The records are created in best-effort batches with the checks of /batch, and
+     * every rejected line is reported with its line number.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @PreAuthorize("hasAuthority('" + UserRoles.ADMIN + "')")
+    public ResponseEntity<ImportResult> importBookings(
+            @RequestHeader(name = HttpHeaders.CONTENT_TYPE) final MediaType contentType,
+            final InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkImport.run("bookings", body, ExportFormat.of(contentType), BookingDTO.class,
+                chunk -> bookingService.createAll(chunk, BookingBatchMode.BEST_EFFORT).stream()
+                        .filter(result -> result.getStatus() != BookingBatchStatus.CREATED)
+                        .map(result -> new ImportError(result.getIndex(), result.getStatus().name(),
+                                result.getMessage()))
+                        .toList()));
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('" + UserRoles.ADMIN + "')")
-    public ResponseEntity<EntityModel<SimpleValue<UUID>>> updateBooking(
+    public CompletableFuture<ResponseEntity<EntityModel<SimpleValue<UUID>>>> updateBooking(
             @PathVariable(name = "id") final UUID id,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) final String idempotencyKey,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
             @RequestBody @Valid final BookingDTO bookingDTO) {
-        bookingService.update(id, bookingDTO);
-        return ResponseEntity.ok(bookingAssembler.toSimpleModel(id));
+        final CompletableFuture<Void> updated;
+        if (idempotencyKey == null) {
+            updated = bookingWriteQueue.update(id, bookingDTO, ifMatch);
+        } else {
+            idempotencyStore.execute(idempotencyKey, "update", claim -> {
+                bookingDTO.setIdempotencyClaim(claim);
+                BookingWriteQueue.await(bookingWriteQueue.update(id, bookingDTO, ifMatch));
+                return id;
+            }, id, bookingDTO);
+            updated = CompletableFuture.completedFuture(null);
+        }
+        return updated.thenApply(ignored -> ResponseEntity.ok(bookingAssembler.toSimpleModel(id)));
     }
 
     @PatchMapping("/{id}/cancel")
     @PreAuthorize("hasAuthority('" + UserRoles.ADMIN + "')")
     @ApiResponse(responseCode = "204")
-    public ResponseEntity<Void> cancel(@PathVariable(name = "id") final UUID id) {
-        bookingService.cancel(id);
-        return ResponseEntity.noContent().build();
+    public CompletableFuture<ResponseEntity<Void>> cancel(@PathVariable(name = "id") final UUID id) {
+        return bookingWriteQueue.cancel(id).thenApply(ignored -> ResponseEntity.noContent().build());
     }
 
     @DeleteMapping("/{id}")
@@ -120,16 +298,58 @@ public class BookingResource {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/holds")
+    @PreAuthorize("hasAuthority('" + UserRoles.ADMIN + "')")
+    @ApiResponse(responseCode = "201")
+    @ApiResponse(responseCode = "409", description = "The room is booked or held for the selected dates")
+    public ResponseEntity<RoomHoldDTO> createHold(@RequestBody @Valid final RoomHoldDTO roomHoldDTO) {
+        return new ResponseEntity<>(bookingService.hold(roomHoldDTO), HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/holds/{token}")
+    @PreAuthorize("hasAuthority('" + UserRoles.ADMIN + "')")
+    @ApiResponse(responseCode = "204")
+    public ResponseEntity<Void> releaseHold(@PathVariable(name = "token") final UUID token) {
+        bookingService.releaseHold(token);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/userValues")
     @PreAuthorize("hasAuthority('" + UserRoles.ADMIN + "')")
     public ResponseEntity<Map<Long, String>> getUserValues() {
-        return ResponseEntity.ok(userService.getUserValues());
+        return values(userService.getUserValues());
     }
 
     @GetMapping("/roomValues")
     @PreAuthorize("hasAuthority('" + UserRoles.ADMIN + "')")
     public ResponseEntity<Map<UUID, String>> getRoomValues() {
-        return ResponseEntity.ok(roomService.getRoomValues());
+        return values(roomService.getRoomValues());
+    }
+
+    private static boolean isAdmin() {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> UserRoles.ADMIN.equals(authority.getAuthority()));
+    }
+
+    /**
+     * The embedded summaries, as part of the tag of an expanded response.
+     */
+    private static List<String> embedded(final List<BookingDTO> bookingDTOs) {
+        return bookingDTOs.stream()
+                .map(bookingDTO -> bookingDTO.getRoomSummary() + "/" + bookingDTO.getUserSummary())
+                .toList();
+    }
+
+    /**
+     * Sends the snapshot with its strong ETag; Spring MVC answers a matching If-None-Match with
+     * 304 and no body. no-cache makes the browser revalidate every time the form opens.
+     */
+    private static <K> ResponseEntity<Map<K, String>> values(final ValuesSnapshot<K> snapshot) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(snapshot.etag())
+                .body(snapshot.values());
     }
 
 }
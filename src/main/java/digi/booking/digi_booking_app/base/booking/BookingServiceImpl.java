@@ -2,53 +2,122 @@ package digi.booking.digi_booking_app.base.booking;
 
 import digi.booking.digi_booking_app.base.BookingService;
 import digi.booking.digi_booking_app.base.events.BeforeDeleteRoom;
+import digi.booking.digi_booking_app.base.events.BookingCancelled;
+import digi.booking.digi_booking_app.base.events.BookingCreated;
+import digi.booking.digi_booking_app.base.events.BookingUpdated;
+import digi.booking.digi_booking_app.base.exception.PreconditionFailedException;
+import digi.booking.digi_booking_app.base.exception.RoomBusyException;
 import digi.booking.digi_booking_app.base.exception.RoomNotAvailableException;
+import digi.booking.digi_booking_app.base.model.CountMode;
+import digi.booking.digi_booking_app.base.model.CountedPage;
+import digi.booking.digi_booking_app.base.model.Cursor;
+import digi.booking.digi_booking_app.base.model.CursorPage;
+import digi.booking.digi_booking_app.base.model.ScrollRequest;
 import digi.booking.digi_booking_app.base.room.Room;
+import digi.booking.digi_booking_app.base.room.RoomOccupancyIndex;
 import digi.booking.digi_booking_app.base.room.RoomRepository;
 import digi.booking.digi_booking_app.base.user.User;
 import digi.booking.digi_booking_app.base.user.UserRepository;
+import digi.booking.digi_booking_app.base.util.EntityTags;
 import digi.booking.digi_booking_app.base.util.NotFoundException;
 import digi.booking.digi_booking_app.base.util.ReferencedException;
+import digi.booking.digi_booking_app.base.util.TableCounter;
 
+import java.sql.SQLException;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
 @Service
 @Slf4j
 public class BookingServiceImpl implements BookingService {
 
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    private static final String STAY_CONSTRAINT = "ex_bookings_room_stay";
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final String TABLE = "bookings";
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+    // backed by ix_bookings_checkin_date_id
+    private static final Sort SCROLL_ORDER = Sort.by("checkinDate", "id");
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final RoomRepository roomRepository;
     private final BookingMapper bookingMapper;
-    private final Lock bookingLock = new ReentrantLock();
+    private final RoomLockManager roomLockManager;
+    private final RoomOccupancyIndex roomOccupancyIndex;
+    private final BookingWriteRetry bookingWriteRetry;
+    private final RoomHoldRegistry roomHoldRegistry;
+    private final TableCounter tableCounter;
+    private final BookingMetrics bookingMetrics;
+    private final IdempotencyStore idempotencyStore;
+    private final ApplicationEventPublisher publisher;
+    private final TransactionTemplate writeTransaction;
 
     public BookingServiceImpl(final BookingRepository bookingRepository,
             final UserRepository userRepository, final RoomRepository roomRepository,
-            final BookingMapper bookingMapper) {
+            final BookingMapper bookingMapper, final RoomLockManager roomLockManager,
+            final RoomOccupancyIndex roomOccupancyIndex,
+            final BookingWriteRetry bookingWriteRetry, final RoomHoldRegistry roomHoldRegistry,
+            final TableCounter tableCounter, final BookingMetrics bookingMetrics,
+            final IdempotencyStore idempotencyStore, final ApplicationEventPublisher publisher, final PlatformTransactionManager transactionManager) {
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.roomRepository = roomRepository;
         this.bookingMapper = bookingMapper;
+        this.roomLockManager = roomLockManager;
+        this.roomOccupancyIndex = roomOccupancyIndex;
+        this.bookingWriteRetry = bookingWriteRetry;
+        this.roomHoldRegistry = roomHoldRegistry;
+        this.tableCounter = tableCounter;
+        this.bookingMetrics = bookingMetrics;
+        this.idempotencyStore = idempotencyStore;
+        this.publisher = publisher;
+        // transactions are opened only after the room lock is held; overlaps are enforced by the
+        // ex_bookings_room_stay exclusion constraint, so READ COMMITTED is sufficient
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
     }
 
+    /**
+     * Lists bookings with the total obtained as the count mode asks. Only an exact count runs
+     * count(*) on every request; the other modes read the page as a slice of size + 1 rows.
+     * The rows are read as DTO projections in a read-only transaction, so nothing is managed or
+     * dirty checked. Expanded listings read the bookings with their room and user in one joined
+     * query instead.
+     */
     @Override
-    public Page<BookingDTO> findAll(final String filter, final Pageable pageable) {
-        Page<Booking> page;
+    @Transactional(readOnly = true)
+    public Page<BookingDTO> findAll(final String filter, final Pageable pageable, final CountMode countMode,
+            final Set<BookingExpansion> expand) {
         if (filter != null) {
             UUID uuidFilter = null;
             try {
@@ -56,143 +125,465 @@ public class BookingServiceImpl implements BookingService {
             } catch (final IllegalArgumentException illegalArgumentException) {
                 // keep null - no parseable input
             }
-            page = bookingRepository.findAllById(uuidFilter, pageable);
-        } else {
-            page = bookingRepository.findAll(pageable);
+            if (!expand.isEmpty()) {
+                return findExpanded(BookingSpecifications.hasId(uuidFilter), pageable, CountMode.EXACT, expand);
+            }
+            final Page<BookingDTO> page = bookingRepository.findDTOsById(uuidFilter, pageable);
+            return new CountedPage<>(page.getContent(), pageable, page.getTotalElements(), CountMode.EXACT);
+        }
+        final CountMode mode = tableCounter.mode(TABLE, countMode);
+        if (!expand.isEmpty()) {
+            return findExpanded(BookingSpecifications.matching(new BookingFilter()), pageable, mode, expand);
+        }
+        if (mode == CountMode.EXACT) {
+            final Page<BookingDTO> page = bookingRepository.findDTOs(pageable);
+            return new CountedPage<>(page.getContent(), pageable, page.getTotalElements(), CountMode.EXACT);
+        }
+        final Slice<BookingDTO> slice = bookingRepository.findDTOSlice(pageable);
+        return counted(slice.getContent(), slice.hasNext(), pageable, mode);
+    }
+
+    /**
+     * Fetches the expanded associations through a fetch graph, so a page of bookings with rooms
+     * and users is one SQL statement, plus the count if it is exact.
+     */
+    private Page<BookingDTO> findExpanded(final Specification<Booking> specification, final Pageable pageable,
+            final CountMode mode, final Set<BookingExpansion> expand) {
+        final List<String> attributes = BookingExpansion.attributes(expand);
+        if (mode == CountMode.EXACT) {
+            final Page<Booking> page = bookingRepository.findBy(specification,
+                    query -> query.project(attributes).page(pageable));
+            return new CountedPage<>(toDTOs(page.getContent(), expand), pageable, page.getTotalElements(),
+                    CountMode.EXACT);
+        }
+        final Slice<Booking> slice = bookingRepository.findBy(specification,
+                query -> query.project(attributes).slice(pageable));
+        return counted(toDTOs(slice.getContent(), expand), slice.hasNext(), pageable, mode);
+    }
+
+    private Page<BookingDTO> counted(final List<BookingDTO> content, final boolean hasNext,
+            final Pageable pageable, final CountMode mode) {
+        // the rows seen so far, plus one if there is a next page
+        final long seen = pageable.getOffset() + content.size() + (hasNext ? 1 : 0);
+        if (mode == CountMode.NONE) {
+            return new CountedPage<>(content, pageable, seen, CountMode.NONE);
+        }
+        final TableCounter.Count count = tableCounter.count(TABLE, mode, bookingRepository::count);
+        return new CountedPage<>(content, pageable, Math.max(count.total(), seen), count.mode());
+    }
+
+    private List<BookingDTO> toDTOs(final List<Booking> bookings, final Set<BookingExpansion> expand) {
+        return bookings.stream()
+                .map(booking -> toDTO(booking, expand))
+                .toList();
+    }
+
+    private BookingDTO toDTO(final Booking booking, final Set<BookingExpansion> expand) {
+        final BookingDTO bookingDTO = bookingMapper.updateBookingDTO(booking, new BookingDTO());
+        if (expand.contains(BookingExpansion.ROOM)) {
+            bookingDTO.setRoomSummary(RoomSummary.of(booking.getRoom()));
+        }
+        if (expand.contains(BookingExpansion.USER)) {
+            bookingDTO.setUserSummary(UserSummary.of(booking.getUser()));
+        }
+        return bookingDTO;
+    }
+
+    /**
+     * Runs all criteria of the filter as one query; the filtered total is always counted exactly,
+     * as it is served by the same indexes.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BookingDTO> search(final BookingFilter bookingFilter, final Pageable pageable,
+            final Set<BookingExpansion> expand) {
+        final Specification<Booking> specification = BookingSpecifications.matching(bookingFilter);
+        if (!expand.isEmpty()) {
+            return findExpanded(specification, pageable, CountMode.EXACT, expand);
         }
-        return new PageImpl<>(page.getContent()
-                .stream()
-                .map(booking -> bookingMapper.updateBookingDTO(booking, new BookingDTO()))
-                .toList(),
-                pageable, page.getTotalElements());
+        final Page<Booking> page = bookingRepository.findAll(specification, pageable);
+        return new CountedPage<>(toDTOs(page.getContent(), expand), pageable, page.getTotalElements(),
+                CountMode.EXACT);
     }
 
+    /**
+     * Keyset pagination over (checkin_date, id): every window is one index range scan, however
+     * deep it is, and no count query is run.
+     */
     @Override
-    public BookingDTO get(final UUID id) {
-        return bookingRepository.findById(id)
-                .map(booking -> bookingMapper.updateBookingDTO(booking, new BookingDTO()))
+    public CursorPage<BookingDTO> scroll(final String after, final String before, final int size) {
+        final Cursor cursor = ScrollRequest.validate(after, before, size, MAX_SCROLL_SIZE);
+        final ScrollPosition position = cursor == null ? ScrollPosition.keyset()
+                : ScrollRequest.position(Map.of("checkinDate", ScrollRequest.parseDate(cursor.key()),
+                        "id", cursor.id()), before != null);
+        final Window<Booking> window = bookingRepository.findAllBy(position, Limit.of(size), SCROLL_ORDER);
+        return CursorPage.of(window, before != null, after != null,
+                booking -> Cursor.encode(booking.getCheckinDate(), booking.getId()),
+                booking -> bookingMapper.updateBookingDTO(booking, new BookingDTO()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookingDTO get(final UUID id, final Set<BookingExpansion> expand) {
+        final Optional<Booking> booking = expand.isEmpty() ? bookingRepository.findById(id)
+                : bookingRepository.findBy(BookingSpecifications.hasId(id),
+                        query -> query.project(BookingExpansion.attributes(expand)).first());
+        return booking.map(found -> toDTO(found, expand))
                 .orElseThrow(NotFoundException::new);
     }
+
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     public UUID create(final BookingDTO bookingDTO) {
         log.info("Attempting to book room {} for dates {} to {}",
                 bookingDTO.getRoom(), bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate());
+        return bookingMetrics.timeWrite("create", "created",
+                () -> roomLockManager.withRoomLocks(Arrays.asList(bookingDTO.getRoom()), () -> {
+                    final Booking booking = inWriteTransaction("create", () -> doCreate(bookingDTO));
+                    indexCommitted(booking);
+                    tableCounter.invalidate(TABLE);
+                    releaseConverted(bookingDTO);
+                    return booking.getId();
+                }));
+    }
 
+    private Booking doCreate(final BookingDTO bookingDTO) {
         final Booking booking = new Booking();
+        resolve(bookingDTO, null).applyTo(booking);
+        final Booking saved = bookingRepository.save(booking);
+        publisher.publishEvent(created(saved));
+        completeClaim(bookingDTO, saved.getId());
+        return saved;
+    }
 
-        // Resolve User entity from userId
-        User user = userRepository.findById(bookingDTO.getUser())
-                .orElseThrow(() -> new NotFoundException("User not found: " + bookingDTO.getUser()));
-        booking.setUser(user);
-
-        // Resolve Room entity from room UUID
-        Optional<Room> roomOpt = roomRepository.findById(bookingDTO.getRoom());
-        Room room = roomOpt.orElseThrow(() -> new NotFoundException("Room not found: " + bookingDTO.getRoom()));
-        booking.setRoom(room);
-
-        // Map other fields from DTO
-        booking.setCheckinDate(bookingDTO.getCheckinDate());
-        booking.setCheckoutDate(bookingDTO.getCheckoutDate());
-        booking.setStatus(bookingDTO.getStatus());
-
-        bookingLock.lock();
-        try {
-            validateRoomAndUser(booking);
-            validateDates(booking.getCheckinDate(), booking.getCheckoutDate());
-            ensureNoOverlap(room.getRoomNumber(), booking.getCheckinDate(), booking.getCheckoutDate(), null);
-            return bookingRepository.save(booking).getId();
-        } finally {
-            bookingLock.unlock();
+    @Override
+    public List<BookingBatchResult> createAll(final List<BookingDTO> bookingDTOs, final BookingBatchMode mode) {
+        if (bookingDTOs.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " bookings per batch");
         }
+        log.info("Attempting to book a batch of {} bookings ({})", bookingDTOs.size(), mode);
+        return roomLockManager.withRoomLocks(BookingBatch.roomIds(bookingDTOs), () -> {
+            final BookingBatch batch;
+            try {
+                batch = inWriteTransaction("createAll", () -> doCreateAll(bookingDTOs, mode));
+            } catch (final RoomNotAvailableException roomNotAvailableException) {
+                if (mode != BookingBatchMode.BEST_EFFORT) {
+                    throw roomNotAvailableException;
+                }
+                log.info("Exclusion constraint rejected the batch; creating its {} bookings one by one",
+                        bookingDTOs.size());
+                return createEach(bookingDTOs);
+            }
+            batch.getConflictedRoomTypes().forEach(roomType -> bookingMetrics.conflict(roomType, "batch"));
+            batch.getBookings().forEach(this::indexCommitted);
+            tableCounter.invalidate(TABLE);
+            batch.getConvertedHolds().forEach(roomHoldRegistry::release);
+            return batch.getResults();
+        });
     }
 
+    /**
+     * Creates the items of a best-effort batch one by one, each in its own transaction, after a
+     * booking committed by another node made the exclusion constraint reject the whole batch. Only
+     * the items colliding with it fail. The caller holds the room locks of all items.
+     */
+    private List<BookingBatchResult> createEach(final List<BookingDTO> bookingDTOs) {
+        final List<BookingBatchResult> results = new ArrayList<>(bookingDTOs.size());
+        for (int index = 0; index < bookingDTOs.size(); index++) {
+            final BookingDTO bookingDTO = bookingDTOs.get(index);
+            final String problem = BookingBatch.validate(bookingDTO);
+            if (problem != null) {
+                results.add(new BookingBatchResult(index, BookingBatchStatus.INVALID, null, problem));
+                continue;
+            }
+            try {
+                final Booking booking = inWriteTransaction("create", () -> doCreate(bookingDTO));
+                indexCommitted(booking);
+                releaseConverted(bookingDTO);
+                results.add(new BookingBatchResult(index, BookingBatchStatus.CREATED, booking.getId(), null));
+            } catch (final RoomNotAvailableException roomNotAvailableException) {
+                results.add(new BookingBatchResult(index, BookingBatchStatus.CONFLICT, null,
+                        roomNotAvailableException.getMessage()));
+            } catch (final NotFoundException notFoundException) {
+                results.add(new BookingBatchResult(index, BookingBatchStatus.NOT_FOUND, null,
+                        notFoundException.getMessage()));
+            } catch (final IllegalArgumentException | IllegalStateException invalidException) {
+                results.add(new BookingBatchResult(index, BookingBatchStatus.INVALID, null,
+                        invalidException.getMessage()));
+            }
+        }
+        tableCounter.invalidate(TABLE);
+        return results;
+    }
 
+    /**
+     * Resolves users and rooms with one IN query each and checks all stays against the database
+     * with a single range query, then inserts the accepted bookings in JDBC batches.
+     */
+    private BookingBatch doCreateAll(final List<BookingDTO> bookingDTOs, final BookingBatchMode mode) {
+        final BookingBatch batch = new BookingBatch(bookingDTOs);
+        batch.resolve(userRepository.findAllById(batch.pendingUserIds()),
+                roomRepository.findAllById(batch.pendingRoomIds()));
+        if (batch.hasActiveStays()) {
+            batch.checkOverlaps(bookingMetrics.timeOverlapQuery("batch",
+                    () -> bookingRepository.findStaysOverlapping(batch.pendingRoomIds(), batch.earliestCheckin(),
+                            batch.latestCheckout(), BookingStatus.ACTIVE)));
+            batch.checkHolds(roomHoldRegistry);
+        }
+        if (mode == BookingBatchMode.ALL_OR_NOTHING && batch.hasFailures()) {
+            batch.abandon();
+            return batch;
+        }
+        final List<Booking> saved = bookingRepository.saveAll(batch.getBookings());
+        final List<BookingDTO> requests = batch.getRequests();
+        for (int index = 0; index < saved.size(); index++) {
+            publisher.publishEvent(created(saved.get(index)));
+            completeClaim(requests.get(index), saved.get(index).getId());
+        }
+        return batch;
+    }
 
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public void update(final UUID id, final BookingDTO bookingDTO) {
+    public void update(final UUID id, final BookingDTO bookingDTO, final String ifMatch) {
         log.info("Attempting to update booking {} for room {} and dates {} to {}",
                 id, bookingDTO.getRoom(), bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate());
+        // lock the current and the requested room, the booking may be moving between them; the
+        // current room is read before its lock is held, so a concurrent move means starting over
+        bookingMetrics.timeWrite("update", "updated", () -> {
+            for (int attempt = 1; ; attempt++) {
+                final UUID currentRoomId = findRoomId(id);
+                final boolean updated = roomLockManager.withRoomLocks(
+                        Arrays.asList(currentRoomId, bookingDTO.getRoom()), () -> {
+                            final Booking booking = inWriteTransaction("update",
+                                    () -> doUpdate(id, currentRoomId, bookingDTO, ifMatch));
+                            if (booking == null) {
+                                return false;
+                            }
+                            indexCommitted(booking);
+                            releaseConverted(bookingDTO);
+                            return true;
+                        });
+                if (updated) {
+                    return;
+                }
+                if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                    throw new RoomBusyException("Booking " + id + " was moved to another room concurrently");
+                }
+                log.info("Booking {} moved away from room {} before it was locked, retrying", id, currentRoomId);
+            }
+        });
+    }
 
+    /**
+     * The room and the version are compared under the room lock, so no other write of the
+     * booking can come between the check and the update.
+     *
+     * @return the updated booking, or null if it is no longer in the locked room
+     */
+    private Booking doUpdate(final UUID id, final UUID lockedRoomId, final BookingDTO bookingDTO,
+            final String ifMatch) {
         final Booking booking = bookingRepository.findById(id)
                 .orElseThrow(NotFoundException::new);
-
-        // Resolve User entity from userId
-        User user = userRepository.findById(bookingDTO.getUser())
-                .orElseThrow(() -> new NotFoundException("User not found: " + bookingDTO.getUser()));
-        booking.setUser(user);
-
-        // Resolve Room entity from room UUID
-        Optional<Room> roomOpt = roomRepository.findById(bookingDTO.getRoom());
-        Room room = roomOpt.orElseThrow(() -> new NotFoundException("Room not found: " + bookingDTO.getRoom()));
-        booking.setRoom(room);
-
-        // Update other fields from DTO
-        booking.setCheckinDate(bookingDTO.getCheckinDate());
-        booking.setCheckoutDate(bookingDTO.getCheckoutDate());
-        booking.setStatus(bookingDTO.getStatus());
-
-        bookingLock.lock();
-        try {
-            validateRoomAndUser(booking);
-            validateDates(booking.getCheckinDate(), booking.getCheckoutDate());
-            ensureNoOverlap(room.getRoomNumber(), booking.getCheckinDate(), booking.getCheckoutDate(), booking.getId());
-            bookingRepository.save(booking);
-        } finally {
-            bookingLock.unlock();
+        if (!booking.getRoom().getId().equals(lockedRoomId)) {
+            return null;
         }
+        if (!EntityTags.matches(ifMatch, booking.getLastUpdated())) {
+            throw new PreconditionFailedException("Booking " + id + " was changed since it was read");
+        }
+        resolve(bookingDTO, id).applyTo(booking);
+        bookingRepository.save(booking);
+        publisher.publishEvent(new BookingUpdated(booking.getId(), booking.getRoom().getId(),
+                booking.getUser().getKeycloakId(), booking.getCheckinDate(), booking.getCheckoutDate(),
+                booking.getStatus().name(), Instant.now()));
+        completeClaim(bookingDTO, id);
+        return booking;
+    }
+
+    @Override
+    public OffsetDateTime getLastUpdated(final UUID id) {
+        return bookingRepository.findLastUpdatedById(id)
+                .orElseThrow(NotFoundException::new);
     }
 
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     public void cancel(final UUID id) {
         log.info("Attempting to cancel booking {}", id);
+        bookingMetrics.timeWrite("cancel", "cancelled",
+                () -> roomLockManager.runWithRoomLocks(List.of(findRoomId(id)), () -> {
+                    inWriteTransaction("cancel", () -> {
+                        final Booking booking = bookingRepository.findById(id)
+                                .orElseThrow(NotFoundException::new);
+                        booking.setStatus(BookingStatus.CANCELLED);
+                        publisher.publishEvent(new BookingCancelled(id, booking.getRoom().getId(),
+                                booking.getUser().getKeycloakId(), Instant.now()));
+                        return bookingRepository.save(booking);
+                    });
+                    unindexCommitted(id);
+                }));
+    }
 
-        final Booking booking = bookingRepository.findById(id)
-                .orElseThrow(NotFoundException::new);
+    @Override
+    public void delete(final UUID id) {
+        log.info("Attempting to delete booking {}", id);
+        roomLockManager.runWithRoomLocks(List.of(findRoomId(id)), () -> {
+            inWriteTransaction("delete", () -> {
+                final Booking booking = bookingRepository.findById(id)
+                        .orElseThrow(NotFoundException::new);
+                bookingRepository.delete(booking);
+                return booking;
+            });
+            unindexCommitted(id);
+            tableCounter.invalidate(TABLE);
+        });
+    }
 
-        bookingLock.lock();
-        try {
-            booking.setStatus(BookingStatus.CANCELLED);
-            bookingRepository.save(booking);
-        } finally {
-            bookingLock.unlock();
+    /**
+     * Reserves a room for a stay without writing a booking. The stay is checked against bookings
+     * and other holds under the room lock, so a hold can only be placed where a create would
+     * currently succeed.
+     */
+    @Override
+    public RoomHoldDTO hold(final RoomHoldDTO roomHoldDTO) {
+        validateDates(roomHoldDTO.getCheckinDate(), roomHoldDTO.getCheckoutDate());
+        if (!roomHoldDTO.getCheckoutDate().isAfter(roomHoldDTO.getCheckinDate())) {
+            throw new IllegalArgumentException("Checkout must be after checkin");
         }
+        log.info("Attempting to hold room {} for dates {} to {}",
+                roomHoldDTO.getRoom(), roomHoldDTO.getCheckinDate(), roomHoldDTO.getCheckoutDate());
+        return roomLockManager.withRoomLocks(List.of(roomHoldDTO.getRoom()), () -> {
+            final Room room = roomRepository.findById(roomHoldDTO.getRoom())
+                    .orElseThrow(() -> new NotFoundException("Room not found: " + roomHoldDTO.getRoom()));
+            if (Boolean.FALSE.equals(room.getActive())) {
+                throw new RoomNotAvailableException("Room " + room.getRoomNumber() + " is inactive");
+            }
+            ensureNoOverlap(room, roomHoldDTO.getCheckinDate(), roomHoldDTO.getCheckoutDate(), null, null);
+            final RoomHold hold = new RoomHold();
+            hold.setToken(UUID.randomUUID());
+            hold.setRoomId(room.getId());
+            hold.setUserId(roomHoldDTO.getUser());
+            hold.setCheckinDate(roomHoldDTO.getCheckinDate());
+            hold.setCheckoutDate(roomHoldDTO.getCheckoutDate());
+            hold.setExpiresAt(OffsetDateTime.now().plus(roomHoldRegistry.ttl(roomHoldDTO.getMinutes())));
+            roomHoldRegistry.place(hold);
+            roomHoldDTO.setToken(hold.getToken());
+            roomHoldDTO.setExpiresAt(hold.getExpiresAt());
+            return roomHoldDTO;
+        });
     }
 
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public void delete(final UUID id) {
-        log.info("Attempting to delete booking {}", id);
+    public void releaseHold(final UUID token) {
+        roomHoldRegistry.release(token);
+    }
 
-        final Booking booking = bookingRepository.findById(id)
-                .orElseThrow(NotFoundException::new);
+    /**
+     * Drops the hold a written booking was converted from; called after the commit.
+     */
+    private void releaseConverted(final BookingDTO bookingDTO) {
+        if (bookingDTO.getHoldToken() != null) {
+            roomHoldRegistry.release(bookingDTO.getHoldToken());
+        }
+    }
 
-        bookingLock.lock();
+    /**
+     * Completes the Idempotency-Key of a request in its write transaction, so a committed write
+     * can always be replayed.
+     */
+    private void completeClaim(final BookingDTO bookingDTO, final UUID resourceId) {
+        if (bookingDTO.getIdempotencyClaim() != null) {
+            idempotencyStore.complete(bookingDTO.getIdempotencyClaim(), resourceId);
+        }
+    }
+
+    /**
+     * The booking events are published inside the write transaction, so the event publication
+     * registry stores them with the booking; listeners only run once it has committed.
+     */
+    private static BookingCreated created(final Booking booking) {
+        return new BookingCreated(booking.getId(), booking.getRoom().getId(), booking.getUser().getKeycloakId(),
+                booking.getCheckinDate(), booking.getCheckoutDate(), booking.getStatus().name(), Instant.now());
+    }
+
+    /**
+     * Runs a write in its own transaction, retried on serialization failures and deadlocks, and
+     * reports a violation of the ex_bookings_room_stay exclusion constraint as an unavailable room.
+     * The constraint is what keeps concurrent writers on other nodes from double-booking a room.
+     */
+    private <T> T inWriteTransaction(final String operation, final Supplier<T> write) {
         try {
-            bookingRepository.delete(booking);
-        } finally {
-            bookingLock.unlock();
+            return bookingWriteRetry.execute(operation, () -> writeTransaction.execute(status -> write.get()));
+        } catch (final DataIntegrityViolationException dataIntegrityViolationException) {
+            if (isStayOverlap(dataIntegrityViolationException)) {
+                log.info("Exclusion constraint rejected an overlapping booking");
+                // the constraint does not tell which room, so the type is not known here
+                bookingMetrics.conflict(null, "constraint");
+                throw new RoomNotAvailableException("Room is not available for the selected dates");
+            }
+            throw dataIntegrityViolationException;
+        }
+    }
+
+    private static boolean isStayOverlap(final Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+            if (cause.getMessage() != null && cause.getMessage().contains(STAY_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies a committed booking to the occupancy index; called while the room lock is held.
+     */
+    private void indexCommitted(final Booking booking) {
+        if (booking.getStatus() == BookingStatus.ACTIVE) {
+            roomOccupancyIndex.putStay(booking.getId(), booking.getRoom().getId(),
+                    booking.getCheckinDate(), booking.getCheckoutDate());
+        } else {
+            roomOccupancyIndex.removeStay(booking.getId());
         }
     }
 
-    private void validateRoomAndUser(Booking booking) {
-        // Validate Room if present in catalog
-        roomRepository.findById(booking.getRoom().getId())
-                .ifPresentOrElse(room -> {
-                    if (!room.getActive()) {
-                        throw new RoomNotAvailableException("Room " + room.getRoomNumber() + " is inactive");
-                    }
-                }, () -> log.debug("Room {} not managed in catalog; skipping active check", booking.getRoom().getRoomNumber()));
+    private void unindexCommitted(final UUID id) {
+        roomOccupancyIndex.removeStay(id);
+    }
 
-        // Validate User if present in catalog
-        userRepository.findById(booking.getUser().getKeycloakId())
-                .ifPresent(user -> {
-                    if (!user.getActive()) {
-                        throw new IllegalStateException("User is inactive");
-                    }
-                });
+    /**
+     * Looks up the room of an existing booking without opening a write transaction, so the room
+     * lock can be taken first.
+     */
+    private UUID findRoomId(final UUID id) {
+        return bookingRepository.findRoomIdById(id)
+                .orElseThrow(NotFoundException::new);
+    }
+
+    /**
+     * Resolves user and room of a write once each and runs every check against them: dates, the
+     * active flags and, for an ACTIVE stay, overlaps with other bookings of the room.
+     *
+     * @param excludeId the booking being updated, null on create
+     */
+    private BookingCommand resolve(final BookingDTO bookingDTO, final UUID excludeId) {
+        validateDates(bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate());
+        final User user = userRepository.findById(bookingDTO.getUser())
+                .orElseThrow(() -> new NotFoundException("User not found: " + bookingDTO.getUser()));
+        if (Boolean.FALSE.equals(user.getActive())) {
+            throw new IllegalStateException("User is inactive");
+        }
+        final Room room = roomRepository.findById(bookingDTO.getRoom())
+                .orElseThrow(() -> new NotFoundException("Room not found: " + bookingDTO.getRoom()));
+        if (Boolean.FALSE.equals(room.getActive())) {
+            throw new RoomNotAvailableException("Room " + room.getRoomNumber() + " is inactive");
+        }
+        final BookingCommand command = new BookingCommand(bookingDTO, user, room);
+        if (command.isActiveStay()) {
+            ensureNoOverlap(room, bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate(), excludeId,
+                    convertedHold(command));
+        }
+        return command;
     }
 
     private void validateDates(LocalDate checkin, LocalDate checkout) {
@@ -204,25 +595,45 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
-    private void ensureNoOverlap(Integer roomNum, LocalDate checkin, LocalDate checkout, UUID excludeId) {
-        log.info("Checking for overlapping bookings: room={}, checkin={}, checkout={}, excludeId={}",
-                roomNum, checkin, checkout, excludeId);
-
-        Optional<Room> roomOpt = roomRepository.findByRoomNumber(roomNum);
-
-        if (roomOpt.isPresent()) {
-            Room room = roomOpt.get();
-
-            List<Booking> conflicts = bookingRepository.findOverlappingActiveBookings(
-                    room, checkin, checkout, BookingStatus.ACTIVE, excludeId);
+    /**
+     * @return the token of the hold this write converts, or null if it has none or it expired
+     */
+    private UUID convertedHold(final BookingCommand command) {
+        final UUID token = command.request().getHoldToken();
+        if (token == null) {
+            return null;
+        }
+        final RoomHold hold = roomHoldRegistry.get(token).orElse(null);
+        if (hold == null) {
+            log.info("Hold {} expired; booking room {} without it", token, command.room().getRoomNumber());
+            return null;
+        }
+        if (!hold.covers(command.room().getId(), command.user().getKeycloakId(),
+                command.request().getCheckinDate(), command.request().getCheckoutDate())) {
+            throw new IllegalArgumentException("Hold does not cover this booking");
+        }
+        return token;
+    }
 
-            log.info("Found {} conflicting bookings", conflicts.size());
+    /**
+     * @param excludeId the booking being updated, null otherwise
+     * @param holdToken the hold being converted, null otherwise
+     */
+    private void ensureNoOverlap(final Room room, final LocalDate checkin, final LocalDate checkout,
+            final UUID excludeId, final UUID holdToken) {
+        log.info("Checking for overlapping bookings: room={}, checkin={}, checkout={}, excludeId={}",
+                room.getRoomNumber(), checkin, checkout, excludeId);
 
-            if (!conflicts.isEmpty()) {
-                throw new RoomNotAvailableException("Room " + roomNum + " is not available for the selected dates");
-            }
-        } else {
-            log.debug("Room {} not managed in catalog; skipping active check", roomNum);
+        if (bookingMetrics.timeOverlapQuery("single",
+                () -> bookingRepository.existsActiveOverlap(room.getId(), checkin, checkout, excludeId))) {
+            log.info("Found conflicting bookings for room {}", room.getRoomNumber());
+            bookingMetrics.conflict(room.getRoomType(), "overlap");
+            throw new RoomNotAvailableException("Room " + room.getRoomNumber() + " is not available for the selected dates");
+        }
+        if (roomHoldRegistry.hasConflict(room.getId(), checkin, checkout, holdToken)) {
+            log.info("Room {} is held for the selected dates", room.getRoomNumber());
+            bookingMetrics.conflict(room.getRoomType(), "hold");
+            throw new RoomNotAvailableException("Room " + room.getRoomNumber() + " is held for the selected dates");
         }
     }
 
@@ -0,0 +1,94 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import org.springframework.data.jpa.domain.Specification;
+
+
+/**
+ * Turns a {@link BookingFilter} into one query. The predicates are chosen to match the indexes
+ * of the 2026-10-18_05-00 changelog: status, room and user each lead a composite index with
+ * checkin_date, and checkout ranges have their own index. Every condition is defined once, as a
+ * JPA predicate for the search and as SQL for the export, so both always select the same rows.
+ */
+final class BookingSpecifications {
+
+    private BookingSpecifications() {
+    }
+
+    static Specification<Booking> hasId(final UUID id) {
+        return (root, query, criteriaBuilder) -> id == null ? criteriaBuilder.disjunction()
+                : criteriaBuilder.equal(root.get("id"), id);
+    }
+
+    static Specification<Booking> matching(final BookingFilter filter) {
+        final List<Condition> conditions = conditions(filter);
+        return (root, query, criteriaBuilder) -> criteriaBuilder.and(conditions.stream()
+                .map(condition -> condition.predicate().apply(root, criteriaBuilder))
+                .toArray(Predicate[]::new));
+    }
+
+    /**
+     * @return the conditions of all set fields of the filter
+     */
+    static List<Condition> conditions(final BookingFilter filter) {
+        final List<Condition> conditions = new ArrayList<>();
+        if (filter.getStatus() != null) {
+            conditions.add(new Condition((root, criteriaBuilder) -> criteriaBuilder.equal(root.get("status"),
+                    filter.getStatus()), "b.status = ?", filter.getStatus().name()));
+        }
+        if (filter.getRoom() != null) {
+            conditions.add(new Condition((root, criteriaBuilder) -> criteriaBuilder.equal(root.get("room").get("id"),
+                    filter.getRoom()), "b.room_id = ?", filter.getRoom()));
+        }
+        if (filter.getRoomNumber() != null) {
+            conditions.add(new Condition((root, criteriaBuilder) -> criteriaBuilder.equal(
+                    root.join("room").get("roomNumber"), filter.getRoomNumber()),
+                    "b.room_id IN (SELECT r.id FROM rooms r WHERE r.room_number = ?)", filter.getRoomNumber()));
+        }
+        if (filter.getUser() != null) {
+            conditions.add(new Condition((root, criteriaBuilder) -> criteriaBuilder.equal(
+                    root.get("user").get("keycloakId"), filter.getUser()), "b.user_id = ?", filter.getUser()));
+        }
+        if (Boolean.TRUE.equals(filter.getArrivingToday())) {
+            final LocalDate today = LocalDate.now();
+            conditions.add(new Condition((root, criteriaBuilder) -> criteriaBuilder.equal(root.get("checkinDate"),
+                    today), "b.checkin_date = ?", today));
+        }
+        if (filter.getCheckinFrom() != null) {
+            conditions.add(new Condition((root, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(
+                    root.get("checkinDate"), filter.getCheckinFrom()), "b.checkin_date >= ?", filter.getCheckinFrom()));
+        }
+        if (filter.getCheckinTo() != null) {
+            conditions.add(new Condition((root, criteriaBuilder) -> criteriaBuilder.lessThanOrEqualTo(
+                    root.get("checkinDate"), filter.getCheckinTo()), "b.checkin_date <= ?", filter.getCheckinTo()));
+        }
+        if (filter.getCheckoutFrom() != null) {
+            conditions.add(new Condition((root, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(
+                    root.get("checkoutDate"), filter.getCheckoutFrom()), "b.checkout_date >= ?",
+                    filter.getCheckoutFrom()));
+        }
+        if (filter.getCheckoutTo() != null) {
+            conditions.add(new Condition((root, criteriaBuilder) -> criteriaBuilder.lessThanOrEqualTo(
+                    root.get("checkoutDate"), filter.getCheckoutTo()), "b.checkout_date <= ?",
+                    filter.getCheckoutTo()));
+        }
+        return conditions;
+    }
+
+    /**
+     * One condition of a filter, as a predicate on the Booking entity and as SQL on bookings b.
+     *
+     * @param sql the SQL condition with one placeholder
+     * @param arg the JDBC argument of the placeholder
+     */
+    record Condition(BiFunction<Root<Booking>, CriteriaBuilder, Predicate> predicate, String sql, Object arg) {
+    }
+
+}
@@ -0,0 +1,28 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+
+/**
+ * Minimal projection of a booking's stay, used for availability checks without loading entities.
+ */
+public record BookingStay(UUID bookingId, UUID roomId, LocalDate checkinDate, LocalDate checkoutDate) {
+
+    /**
+     * Same predicate as {@link BookingRepository#existsActiveOverlap}: half-open date ranges, so an
+     * empty stay overlaps nothing.
+     */
+    public boolean overlaps(final LocalDate checkin, final LocalDate checkout) {
+        return !isEmpty(checkin, checkout) && checkinDate.isBefore(checkout) && checkoutDate.isAfter(checkin);
+    }
+
+    /**
+     * @return true if a stay has no nights; it overlaps nothing, here, in the database check and in
+     *         the ex_bookings_room_stay exclusion constraint alike
+     */
+    static boolean isEmpty(final LocalDate checkin, final LocalDate checkout) {
+        return !checkin.isBefore(checkout);
+    }
+
+}
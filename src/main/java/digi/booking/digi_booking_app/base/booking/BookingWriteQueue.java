@@ -0,0 +1,301 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import digi.booking.digi_booking_app.base.BookingService;
+import digi.booking.digi_booking_app.base.exception.RoomBusyException;
+import digi.booking.digi_booking_app.base.exception.RoomNotAvailableException;
+import digi.booking.digi_booking_app.base.util.NotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Entry point of the booking writes the API answers asynchronously. With booking.write-mode set
+ * to mailbox, every create, update and cancel goes to the mailbox of its room and is applied by
+ * that mailbox's single virtual-thread worker in arrival order, so writers of one room never
+ * compete for its lock and request threads are not blocked while they wait. Creates queued
+ * behind each other are applied as one batch in a single transaction; each of them is metered and
+ * fails with the same exception as a single create. In the default sync mode
+ * the writes run on the calling thread exactly as before and the futures are already complete.
+ */
+@Component
+@Slf4j
+public class BookingWriteQueue {
+
+    private final BookingService bookingService;
+    private final BookingMetrics bookingMetrics;
+    private final boolean mailboxMode;
+    private final int maxQueueLength;
+    private final int maxBatchSize;
+    private final ConcurrentHashMap<UUID, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Counter batchedCounter;
+
+    public BookingWriteQueue(final BookingService bookingService, final BookingMetrics bookingMetrics,
+            @Value("${booking.write-mode:sync}") final String writeMode,
+            @Value("${booking.mailbox.max-queue-length:256}") final int maxQueueLength,
+            @Value("${booking.mailbox.max-batch-size:50}") final int maxBatchSize,
+            final MeterRegistry meterRegistry) {
+        this.bookingService = bookingService;
+        this.bookingMetrics = bookingMetrics;
+        this.mailboxMode = "mailbox".equalsIgnoreCase(writeMode);
+        this.maxQueueLength = maxQueueLength;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.batchedCounter = Counter.builder("booking.room.mailbox.batched")
+                .description("Creates applied together with other creates of the same room")
+                .register(meterRegistry);
+        Gauge.builder("booking.room.mailbox.pending", pending, AtomicInteger::get)
+                .description("Booking writes waiting in any room mailbox")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<UUID> create(final BookingDTO bookingDTO) {
+        if (!mailboxMode) {
+            return CompletableFuture.completedFuture(bookingService.create(bookingDTO));
+        }
+        final CompletableFuture<UUID> result = new CompletableFuture<>();
+        mailbox(bookingDTO.getRoom()).offer(new Create(bookingDTO, result));
+        return result;
+    }
+
+    /**
+     * Queues the update on the mailbox of the requested room; a booking moving away from another
+     * room still takes that room's lock in {@link BookingService#update}.
+     */
+    public CompletableFuture<Void> update(final UUID id, final BookingDTO bookingDTO) {
+        return update(id, bookingDTO, null);
+    }
+
+    public CompletableFuture<Void> update(final UUID id, final BookingDTO bookingDTO, final String ifMatch) {
+        return run(bookingDTO.getRoom(), () -> bookingService.update(id, bookingDTO, ifMatch));
+    }
+
+    public CompletableFuture<Void> cancel(final UUID id) {
+        if (!mailboxMode) {
+            bookingService.cancel(id);
+            return CompletableFuture.completedFuture(null);
+        }
+        return run(bookingService.get(id).getRoom(), () -> bookingService.cancel(id));
+    }
+
+    /**
+     * Waits for a queued write, for callers that must stay synchronous, and rethrows its failure
+     * as it was thrown by the worker.
+     */
+    public static <T> T await(final CompletableFuture<T> write) {
+        try {
+            return write.join();
+        } catch (final CompletionException completionException) {
+            if (completionException.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw completionException;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.close();
+    }
+
+    private CompletableFuture<Void> run(final UUID roomId, final Runnable write) {
+        if (!mailboxMode) {
+            write.run();
+            return CompletableFuture.completedFuture(null);
+        }
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        mailbox(roomId).offer(new Write<>(() -> {
+            write.run();
+            return null;
+        }, result));
+        return result;
+    }
+
+    private Mailbox mailbox(final UUID roomId) {
+        if (roomId == null) {
+            throw new IllegalArgumentException("Room required");
+        }
+        return mailboxes.computeIfAbsent(roomId, Mailbox::new);
+    }
+
+    private sealed interface Command permits Create, Write {
+
+        void fail(Throwable failure);
+
+    }
+
+    private record Create(BookingDTO request, CompletableFuture<UUID> result) implements Command {
+
+        @Override
+        public void fail(final Throwable failure) {
+            result.completeExceptionally(failure);
+        }
+
+    }
+
+    private record Write<T>(Supplier<T> write, CompletableFuture<T> result) implements Command {
+
+        private void apply() {
+            result.complete(write.get());
+        }
+
+        @Override
+        public void fail(final Throwable failure) {
+            result.completeExceptionally(failure);
+        }
+
+    }
+
+    private final class Mailbox {
+
+        private final UUID roomId;
+        private final Queue<Command> commands = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Mailbox(final UUID roomId) {
+            this.roomId = roomId;
+        }
+
+        private void offer(final Command command) {
+            if (size.incrementAndGet() > maxQueueLength) {
+                size.decrementAndGet();
+                log.warn("Mailbox of room {} is full", roomId);
+                throw new RoomBusyException("Room " + roomId + " has too many pending booking requests");
+            }
+            pending.incrementAndGet();
+            commands.add(command);
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                workers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Command next = take();
+                while (next != null) {
+                    if (next instanceof Create create) {
+                        next = applyCreates(create);
+                    } else {
+                        apply((Write<?>) next);
+                        next = take();
+                    }
+                }
+            } finally {
+                draining.set(false);
+                // a command offered after the last poll but before the flag was cleared
+                if (!commands.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        /**
+         * Collects the creates queued behind the first one and applies them together.
+         *
+         * @return the first command that was taken but not applied, or null if the mailbox is empty
+         */
+        private Command applyCreates(final Create first) {
+            final List<Create> creates = new ArrayList<>();
+            creates.add(first);
+            Command next = take();
+            while (next instanceof Create create && creates.size() < maxBatchSize) {
+                creates.add(create);
+                next = take();
+            }
+            if (creates.size() == 1) {
+                applySingle(first);
+            } else {
+                applyBatch(creates);
+            }
+            return next;
+        }
+
+        private void apply(final Write<?> write) {
+            try {
+                write.apply();
+            } catch (final RuntimeException exception) {
+                write.fail(exception);
+            }
+        }
+
+        /**
+         * Applies the creates in one best-effort batch, which falls back to single creates itself
+         * when the exclusion constraint rejects it. Items the batch reports as invalid are applied
+         * singly, as the batch status does not tell which exception {@link BookingService#create}
+         * would throw.
+         */
+        private void applyBatch(final List<Create> creates) {
+            batchedCounter.increment(creates.size());
+            final long start = System.nanoTime();
+            final List<BookingBatchResult> results;
+            try {
+                results = bookingService.createAll(creates.stream().map(Create::request).toList(),
+                        BookingBatchMode.BEST_EFFORT);
+            } catch (final RuntimeException exception) {
+                final Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                creates.forEach(create -> fail(create, exception, elapsed));
+                return;
+            }
+            final Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            for (final BookingBatchResult result : results) {
+                final Create create = creates.get(result.getIndex());
+                switch (result.getStatus()) {
+                    case CREATED -> {
+                        bookingMetrics.recordWrite("create", "created", elapsed);
+                        create.result().complete(result.getId());
+                    }
+                    case CONFLICT -> fail(create, new RoomNotAvailableException(result.getMessage()), elapsed);
+                    case NOT_FOUND -> fail(create, new NotFoundException(result.getMessage()), elapsed);
+                    default -> applySingle(create);
+                }
+            }
+        }
+
+        /**
+         * Applies one create through {@link BookingService#create}, which meters it itself.
+         */
+        private void applySingle(final Create create) {
+            apply(new Write<>(() -> bookingService.create(create.request()), create.result()));
+        }
+
+        private void fail(final Create create, final RuntimeException exception, final Duration elapsed) {
+            bookingMetrics.recordWrite("create", BookingMetrics.outcome(exception), elapsed);
+            create.fail(exception);
+        }
+
+        private Command take() {
+            final Command command = commands.poll();
+            if (command != null) {
+                size.decrementAndGet();
+                pending.decrementAndGet();
+            }
+            return command;
+        }
+
+    }
+
+}
@@ -0,0 +1,136 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import digi.booking.digi_booking_app.base.exception.RoomBusyException;
+import digi.booking.digi_booking_app.base.exception.RoomNotAvailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Re-runs a booking write transaction that Postgres aborted with a serialization failure
+ * (SQLSTATE 40001) or a deadlock (40P01). Attempts are bounded, spaced with full-jitter
+ * exponential backoff and limited by a retry budget, so a database in trouble is not hit with a
+ * retry storm. Business conflicts such as {@link RoomNotAvailableException} are never retried.
+ */
+@Component
+@Slf4j
+public class BookingWriteRetry {
+
+    private static final String SERIALIZATION_FAILURE = "40001";
+    private static final String DEADLOCK_DETECTED = "40P01";
+    private static final long TOKEN = 1000;
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final long budgetDeposit;
+    private final long budgetCapacity;
+    private final AtomicLong budget;
+    private final MeterRegistry meterRegistry;
+
+    public BookingWriteRetry(@Value("${booking.write-retry.max-attempts:4}") final int maxAttempts,
+            @Value("${booking.write-retry.initial-backoff:PT0.02S}") final Duration initialBackoff,
+            @Value("${booking.write-retry.max-backoff:PT0.5S}") final Duration maxBackoff,
+            @Value("${booking.write-retry.budget-ratio:0.2}") final double budgetRatio,
+            @Value("${booking.write-retry.budget-capacity:50}") final int budgetCapacity,
+            final MeterRegistry meterRegistry) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.budgetDeposit = Math.round(budgetRatio * TOKEN);
+        this.budgetCapacity = budgetCapacity * TOKEN;
+        this.budget = new AtomicLong(this.budgetCapacity);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T execute(final String operation, final Supplier<T> action) {
+        deposit();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (final RoomNotAvailableException roomNotAvailableException) {
+                throw roomNotAvailableException;
+            } catch (final RuntimeException exception) {
+                final TransientFailure failure = classify(exception);
+                if (failure == null) {
+                    throw exception;
+                }
+                if (attempt >= maxAttempts || !withdraw()) {
+                    counter("booking.write.retry.exhausted", operation, failure).increment();
+                    log.warn("Giving up on {} after {} attempt(s): {}", operation, attempt, failure);
+                    throw new RoomBusyException("Booking could not be completed because of concurrent updates",
+                            exception);
+                }
+                counter("booking.write.retries", operation, failure).increment();
+                log.info("Retrying {} after {} (attempt {} of {})", operation, failure, attempt, maxAttempts);
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * @return the kind of transient abort, or null if the exception should not be retried
+     */
+    static TransientFailure classify(final Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                if (SERIALIZATION_FAILURE.equals(sqlException.getSQLState())) {
+                    return TransientFailure.SERIALIZATION;
+                }
+                if (DEADLOCK_DETECTED.equals(sqlException.getSQLState())) {
+                    return TransientFailure.DEADLOCK;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void backoff(final int attempt) {
+        final long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        final long sleepNanos = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(Duration.ofNanos(sleepNanos));
+        } catch (final InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new RoomBusyException("Interrupted while retrying a booking write");
+        }
+    }
+
+    private void deposit() {
+        budget.accumulateAndGet(budgetDeposit, (current, deposit) -> Math.min(budgetCapacity, current + deposit));
+    }
+
+    private boolean withdraw() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    private Counter counter(final String name, final String operation, final TransientFailure failure) {
+        return Counter.builder(name)
+                .tag("operation", operation)
+                .tag("cause", failure.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    enum TransientFailure {
+
+        SERIALIZATION,
+        DEADLOCK
+
+    }
+
+}
@@ -0,0 +1,41 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.Setter;
+
+
+/**
+ * A claimed Idempotency-Key. The resource id stays empty while the first request is running.
+ */
+@Entity
+@Table(name = "IdempotencyKeys")
+@Getter
+@Setter
+public class IdempotencyKey {
+
+    @Id
+    @Column(name = "idempotency_key", nullable = false, updatable = false)
+    private String key;
+
+    @Column(nullable = false, length = 20)
+    private String operation;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column
+    private UUID resourceId;
+
+    @Column(nullable = false, updatable = false)
+    private OffsetDateTime dateCreated;
+
+    @Column(nullable = false)
+    private OffsetDateTime expiresAt;
+
+}
@@ -0,0 +1,63 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Claim a key. Only one of several concurrent callers, on any node, gets a 1 back.
+     *
+     * @return 1 if the key was inserted, 0 if it is already claimed
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, operation, fingerprint, date_created, expires_at) VALUES (:key, :operation, :fingerprint, :now, :expiresAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(
+            @Param("key") String key,
+            @Param("operation") String operation,
+            @Param("fingerprint") String fingerprint,
+            @Param("now") OffsetDateTime now,
+            @Param("expiresAt") OffsetDateTime expiresAt
+    );
+
+    /**
+     * Store the written resource on a claim; runs in the transaction of the write itself.
+     *
+     * @return 0 if the claim is no longer the one that was made
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("UPDATE IdempotencyKey k SET k.resourceId = :resourceId WHERE k.key = :key AND k.dateCreated = :dateCreated AND k.resourceId IS NULL")
+    int complete(@Param("key") String key, @Param("dateCreated") OffsetDateTime dateCreated,
+            @Param("resourceId") UUID resourceId);
+
+    /**
+     * Remove a claim only if it is still the one that was read, so a fresh claim is never lost.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.key = :key AND k.dateCreated = :dateCreated")
+    int deleteClaim(@Param("key") String key, @Param("dateCreated") OffsetDateTime dateCreated);
+
+    /**
+     * Remove a claim only if it is the one that was read and no write has completed it yet.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.key = :key AND k.dateCreated = :dateCreated AND k.resourceId IS NULL")
+    int deletePending(@Param("key") String key, @Param("dateCreated") OffsetDateTime dateCreated);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+
+}
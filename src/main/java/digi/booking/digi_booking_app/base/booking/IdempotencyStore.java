@@ -0,0 +1,273 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digi.booking.digi_booking_app.base.exception.IdempotencyKeyMismatchException;
+import digi.booking.digi_booking_app.base.exception.IdempotencyKeyPendingException;
+import digi.booking.digi_booking_app.base.exception.RoomBusyException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Makes booking writes safe to retry with an Idempotency-Key. The first request with a key claims
+ * it in the idempotency_keys table and stores the id of the resource it wrote; later requests
+ * with the same key and body get that id back without running the write again. Completed keys
+ * are also kept in a bounded in-memory cache, and duplicates arriving on the same node while the
+ * first request is running wait for it. Keys are scoped to the authenticated user. A failed
+ * request releases its key, so the client can retry it. The write stores its resource id on the
+ * claim in its own transaction, so a claim without one means no write with the key committed;
+ * once it is older than the pending timeout, its node is assumed gone and the key is taken over.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration pendingTimeout;
+    private final Duration waitTimeout;
+    private final Map<String, Completed> completed;
+    private final ConcurrentMap<String, CompletableFuture<UUID>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(final IdempotencyKeyRepository idempotencyKeyRepository,
+            final ObjectMapper objectMapper,
+            @Value("${booking.idempotency.ttl:PT24H}") final Duration ttl,
+            @Value("${booking.idempotency.pending-timeout:PT1M}") final Duration pendingTimeout,
+            @Value("${booking.idempotency.wait-timeout:PT10S}") final Duration waitTimeout,
+            @Value("${booking.idempotency.cache-size:10000}") final int cacheSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.pendingTimeout = pendingTimeout;
+        this.waitTimeout = waitTimeout;
+        this.completed = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Completed> eldest) {
+                return size() > cacheSize;
+            }
+
+        });
+    }
+
+    /**
+     * Runs the write once per key and returns the id of the resource it created or changed.
+     *
+     * @param write gets the claim of the key, to {@link #complete} in its transaction
+     * @param request everything the write depends on; a key reused with a different request is rejected
+     */
+    public UUID execute(final String idempotencyKey, final String operation, final Function<Claim, UUID> write,
+            final Object... request) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must have 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        final String key = scope(idempotencyKey);
+        final String fingerprint = fingerprint(operation, request);
+        while (true) {
+            final UUID replayed = replay(key, fingerprint);
+            if (replayed != null) {
+                return replayed;
+            }
+            final CompletableFuture<UUID> attempt = new CompletableFuture<>();
+            final CompletableFuture<UUID> running = inFlight.putIfAbsent(key, attempt);
+            if (running != null) {
+                // a failed first attempt released the key, the next loop then runs the write itself
+                await(running);
+                continue;
+            }
+            try {
+                final UUID resourceId = executeClaimed(key, operation, fingerprint, write);
+                attempt.complete(resourceId);
+                return resourceId;
+            } catch (final RuntimeException exception) {
+                attempt.completeExceptionally(exception);
+                throw exception;
+            } finally {
+                inFlight.remove(key, attempt);
+            }
+        }
+    }
+
+    /**
+     * Stores the written resource on the claim. Must be called in the transaction of the write, so
+     * the write and the completed key commit or roll back together.
+     *
+     * @throws RoomBusyException if the key was taken over meanwhile, to roll the write back
+     */
+    public void complete(final Claim claim, final UUID resourceId) {
+        if (idempotencyKeyRepository.complete(claim.key(), claim.claimedAt(), resourceId) == 0) {
+            throw new RoomBusyException("The Idempotency-Key was taken over by another request");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        final int purged = idempotencyKeyRepository.deleteExpired(OffsetDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+        final long now = System.currentTimeMillis();
+        synchronized (completed) {
+            completed.values().removeIf(entry -> entry.expiresAtMillis() < now);
+        }
+    }
+
+    private UUID executeClaimed(final String key, final String operation, final String fingerprint,
+            final Function<Claim, UUID> write) {
+        // the database keeps microseconds, and the claim is matched on its creation time
+        final Claim claim = new Claim(key, OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        final IdempotencyKey existing = claim(claim, operation, fingerprint);
+        if (existing != null) {
+            checkFingerprint(existing.getFingerprint(), fingerprint);
+            if (existing.getResourceId() == null) {
+                throw new IdempotencyKeyPendingException("A request with this Idempotency-Key is still in progress");
+            }
+            remember(key, fingerprint, existing.getResourceId(), existing.getExpiresAt());
+            return existing.getResourceId();
+        }
+        final UUID resourceId;
+        try {
+            resourceId = write.apply(claim);
+        } catch (final RuntimeException exception) {
+            return recover(claim, fingerprint, exception);
+        }
+        remember(key, fingerprint, resourceId, claim.claimedAt().plus(ttl));
+        return resourceId;
+    }
+
+    /**
+     * Releases the key of a write that rolled back, so the client can retry it. A write that
+     * failed after it committed has completed the claim; its resource id is returned instead of
+     * the failure, as every retry would replay it anyway.
+     */
+    private UUID recover(final Claim claim, final String fingerprint, final RuntimeException exception) {
+        if (idempotencyKeyRepository.deletePending(claim.key(), claim.claimedAt()) == 1) {
+            throw exception;
+        }
+        final IdempotencyKey stored = idempotencyKeyRepository.findById(claim.key()).orElse(null);
+        if (stored == null || stored.getResourceId() == null || !stored.getDateCreated().isEqual(claim.claimedAt())) {
+            throw exception;
+        }
+        log.warn("Write of resource {} failed after it committed", stored.getResourceId(), exception);
+        remember(claim.key(), fingerprint, stored.getResourceId(), stored.getExpiresAt());
+        return stored.getResourceId();
+    }
+
+    /**
+     * @return null if the key is now claimed by this request, otherwise the current claim
+     */
+    private IdempotencyKey claim(final Claim claim, final String operation, final String fingerprint) {
+        final String key = claim.key();
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (idempotencyKeyRepository.insertIfAbsent(key, operation, fingerprint, claim.claimedAt(),
+                    claim.claimedAt().plus(ttl)) == 1) {
+                return null;
+            }
+            final IdempotencyKey existing = idempotencyKeyRepository.findById(key).orElse(null);
+            if (existing == null) {
+                continue;
+            }
+            final OffsetDateTime now = OffsetDateTime.now();
+            if (existing.getExpiresAt().isBefore(now)) {
+                log.info("Taking over expired idempotency key");
+                idempotencyKeyRepository.deleteClaim(key, existing.getDateCreated());
+            } else if (existing.getResourceId() == null
+                    && existing.getDateCreated().plus(pendingTimeout).isBefore(now)) {
+                // no write of it committed; one still running fails to complete it and rolls back
+                log.info("Taking over abandoned idempotency key");
+                idempotencyKeyRepository.deletePending(key, existing.getDateCreated());
+            } else {
+                return existing;
+            }
+        }
+        throw new RoomBusyException("A request with this Idempotency-Key is still in progress");
+    }
+
+    private UUID replay(final String key, final String fingerprint) {
+        final Completed entry = completed.get(key);
+        if (entry == null || entry.expiresAtMillis() < System.currentTimeMillis()) {
+            return null;
+        }
+        checkFingerprint(entry.fingerprint(), fingerprint);
+        return entry.resourceId();
+    }
+
+    private void remember(final String key, final String fingerprint, final UUID resourceId,
+            final OffsetDateTime expiresAt) {
+        completed.put(key, new Completed(fingerprint, resourceId, expiresAt.toInstant().toEpochMilli()));
+    }
+
+    private void await(final CompletableFuture<UUID> running) {
+        try {
+            running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (final ExecutionException executionException) {
+            // the first attempt failed and released the key
+        } catch (final TimeoutException timeoutException) {
+            throw new RoomBusyException("A request with this Idempotency-Key is still in progress");
+        } catch (final InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new RoomBusyException("Interrupted while waiting for a request with the same Idempotency-Key");
+        }
+    }
+
+    private static void checkFingerprint(final String stored, final String fingerprint) {
+        if (!stored.equals(fingerprint)) {
+            throw new IdempotencyKeyMismatchException("Idempotency-Key was already used with a different request");
+        }
+    }
+
+    private static String scope(final String idempotencyKey) {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        final String owner = authentication == null ? "" : authentication.getName();
+        return owner + ":" + idempotencyKey;
+    }
+
+    String fingerprint(final String operation, final Object... request) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            for (final Object part : request) {
+                digest.update(objectMapper.writeValueAsBytes(part));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (final NoSuchAlgorithmException | JsonProcessingException exception) {
+            throw new IllegalStateException("Cannot fingerprint request", exception);
+        }
+    }
+
+    /**
+     * The claim of a key by one request, identified by the time it was made.
+     */
+    public record Claim(String key, OffsetDateTime claimedAt) {
+    }
+
+    private record Completed(String fingerprint, UUID resourceId, long expiresAtMillis) {
+    }
+
+}
@@ -0,0 +1,56 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.Setter;
+
+
+/**
+ * A room reserved for a user and a stay until it expires or is converted into a booking. Holds
+ * are kept in memory; the table is only written when holds are shared between nodes.
+ */
+@Entity
+@Table(name = "RoomHolds")
+@Getter
+@Setter
+public class RoomHold {
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    private UUID token;
+
+    @Column(nullable = false)
+    private UUID roomId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDate checkinDate;
+
+    @Column(nullable = false)
+    private LocalDate checkoutDate;
+
+    @Column(nullable = false)
+    private OffsetDateTime expiresAt;
+
+    public boolean isExpired(final OffsetDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    public boolean overlaps(final LocalDate checkin, final LocalDate checkout) {
+        return checkinDate.isBefore(checkout) && checkoutDate.isAfter(checkin);
+    }
+
+    public boolean covers(final UUID room, final Long user, final LocalDate checkin, final LocalDate checkout) {
+        return roomId.equals(room) && userId.equals(user)
+                && !checkin.isBefore(checkinDate) && !checkout.isAfter(checkoutDate);
+    }
+
+}
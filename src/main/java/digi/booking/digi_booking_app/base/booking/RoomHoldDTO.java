@@ -0,0 +1,40 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.Setter;
+
+
+@Getter
+@Setter
+public class RoomHoldDTO {
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private UUID token;
+
+    @NotNull
+    private LocalDate checkinDate;
+
+    @NotNull
+    private LocalDate checkoutDate;
+
+    @NotNull
+    private Long user;
+
+    @NotNull
+    private UUID room;
+
+    @Min(1)
+    @Max(60)
+    private Integer minutes;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private OffsetDateTime expiresAt;
+
+}
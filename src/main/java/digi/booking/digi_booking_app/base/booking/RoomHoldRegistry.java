@@ -0,0 +1,191 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import digi.booking.digi_booking_app.base.exception.RoomNotAvailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Temporary reservations of a room for a stay, so a guest filling in the booking form does not
+ * lose the room to a concurrent request. Holds live in memory and are reaped by a single thread
+ * waiting on a delay queue ordered by expiry, so nothing ever scans for expired holds; lookups
+ * also ignore expired holds the reaper has not reached yet. With booking.holds.shared set, holds
+ * are also written to the room_holds table, whose exclusion constraint keeps holds of different
+ * nodes apart, and overlap checks consult that table as well.
+ */
+@Component
+@Slf4j
+public class RoomHoldRegistry {
+
+    private final RoomHoldRepository roomHoldRepository;
+    private final Duration defaultTtl;
+    private final boolean shared;
+    private final Map<UUID, RoomHold> holds = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<UUID>> tokensByRoom = new ConcurrentHashMap<>();
+    private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+    private Thread reaper;
+
+    public RoomHoldRegistry(final RoomHoldRepository roomHoldRepository,
+            @Value("${booking.holds.ttl:PT10M}") final Duration defaultTtl,
+            @Value("${booking.holds.shared:false}") final boolean shared) {
+        this.roomHoldRepository = roomHoldRepository;
+        this.defaultTtl = defaultTtl;
+        this.shared = shared;
+    }
+
+    @PostConstruct
+    public void start() {
+        reaper = Thread.ofPlatform().daemon().name("room-hold-reaper").start(this::reap);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reaper != null) {
+            reaper.interrupt();
+        }
+    }
+
+    /**
+     * @param minutes requested lifetime of the hold, or null for the configured default
+     */
+    public Duration ttl(final Integer minutes) {
+        return minutes == null ? defaultTtl : Duration.ofMinutes(minutes);
+    }
+
+    /**
+     * Stores a new hold. The caller holds the room lock and has already checked the stay against
+     * bookings; other holds of the room are checked here.
+     */
+    public void place(final RoomHold hold) {
+        if (hasConflict(hold.getRoomId(), hold.getCheckinDate(), hold.getCheckoutDate(), null)) {
+            throw new RoomNotAvailableException("Room is held for the selected dates");
+        }
+        if (shared) {
+            roomHoldRepository.deleteExpired(hold.getRoomId(), OffsetDateTime.now());
+            try {
+                roomHoldRepository.saveAndFlush(hold);
+            } catch (final DataIntegrityViolationException dataIntegrityViolationException) {
+                throw new RoomNotAvailableException("Room is held for the selected dates");
+            }
+        }
+        holds.put(hold.getToken(), hold);
+        tokensByRoom.computeIfAbsent(hold.getRoomId(), id -> ConcurrentHashMap.newKeySet()).add(hold.getToken());
+        expiries.add(new Expiry(hold.getToken(), hold.getExpiresAt()));
+    }
+
+    /**
+     * @return the hold if it exists and has not expired
+     */
+    public Optional<RoomHold> get(final UUID token) {
+        final OffsetDateTime now = OffsetDateTime.now();
+        final RoomHold hold = holds.get(token);
+        if (hold != null) {
+            return hold.isExpired(now) ? Optional.empty() : Optional.of(hold);
+        }
+        if (!shared) {
+            return Optional.empty();
+        }
+        return roomHoldRepository.findById(token).filter(stored -> !stored.isExpired(now));
+    }
+
+    /**
+     * @param excludeToken a hold that does not count as a conflict, usually the one being converted
+     * @return true if another unexpired hold covers one of the nights
+     */
+    public boolean hasConflict(final UUID roomId, final LocalDate checkin, final LocalDate checkout,
+            final UUID excludeToken) {
+        if (!checkin.isBefore(checkout)) {
+            return false;
+        }
+        final OffsetDateTime now = OffsetDateTime.now();
+        final Set<UUID> tokens = tokensByRoom.get(roomId);
+        if (tokens != null) {
+            for (final UUID token : tokens) {
+                final RoomHold hold = holds.get(token);
+                if (hold != null && !token.equals(excludeToken) && !hold.isExpired(now)
+                        && hold.overlaps(checkin, checkout)) {
+                    return true;
+                }
+            }
+        }
+        return shared && roomHoldRepository.existsOverlapping(roomId, checkin, checkout, now, excludeToken);
+    }
+
+    public void release(final UUID token) {
+        forget(token);
+        if (shared) {
+            roomHoldRepository.deleteById(token);
+        }
+    }
+
+    /**
+     * Forgets every hold of this node, for example after the room_holds table was reset.
+     */
+    public void clear() {
+        holds.clear();
+        tokensByRoom.clear();
+        expiries.clear();
+    }
+
+    private void forget(final UUID token) {
+        final RoomHold hold = holds.remove(token);
+        if (hold != null) {
+            tokensByRoom.computeIfPresent(hold.getRoomId(), (roomId, tokens) -> {
+                tokens.remove(token);
+                return tokens.isEmpty() ? null : tokens;
+            });
+        }
+    }
+
+    private void reap() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                final Expiry expiry = expiries.take();
+                final RoomHold hold = holds.get(expiry.token());
+                if (hold != null && hold.isExpired(OffsetDateTime.now())) {
+                    forget(expiry.token());
+                    if (shared) {
+                        roomHoldRepository.deleteById(expiry.token());
+                    }
+                    log.debug("Room hold {} expired", expiry.token());
+                }
+            } catch (final InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            } catch (final RuntimeException exception) {
+                // the row is removed with the next hold of the room or by the constraint check
+                log.warn("Could not reap room hold", exception);
+            }
+        }
+    }
+
+    private record Expiry(UUID token, OffsetDateTime expiresAt) implements Delayed {
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(OffsetDateTime.now().until(expiresAt, ChronoUnit.MILLIS), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            return expiresAt.compareTo(((Expiry) other).expiresAt());
+        }
+
+    }
+
+}
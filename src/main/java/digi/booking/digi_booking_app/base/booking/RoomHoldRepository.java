@@ -0,0 +1,29 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+
+public interface RoomHoldRepository extends JpaRepository<RoomHold, UUID> {
+
+    @Query("SELECT COUNT(h) > 0 FROM RoomHold h WHERE h.roomId = :roomId AND h.expiresAt > :now AND (h.checkinDate < :checkout AND h.checkoutDate > :checkin) AND (:excludeToken IS NULL OR h.token <> :excludeToken)")
+    boolean existsOverlapping(
+            @Param("roomId") UUID roomId,
+            @Param("checkin") LocalDate checkin,
+            @Param("checkout") LocalDate checkout,
+            @Param("now") OffsetDateTime now,
+            @Param("excludeToken") UUID excludeToken
+    );
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RoomHold h WHERE h.roomId = :roomId AND h.expiresAt <= :now")
+    int deleteExpired(@Param("roomId") UUID roomId, @Param("now") OffsetDateTime now);
+
+}
@@ -0,0 +1,34 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import java.util.List;
+import java.util.UUID;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Exposes per-room lock contention under /actuator/roomlocks.
+ */
+@Component
+@Endpoint(id = "roomlocks")
+public class RoomLockEndpoint {
+
+    private final RoomLockManager roomLockManager;
+
+    public RoomLockEndpoint(final RoomLockManager roomLockManager) {
+        this.roomLockManager = roomLockManager;
+    }
+
+    @ReadOperation
+    public List<RoomLockManager.RoomLockStats> roomLocks() {
+        return roomLockManager.getStats();
+    }
+
+    @ReadOperation
+    public RoomLockManager.RoomLockStats roomLock(@Selector final UUID roomId) {
+        return roomLockManager.getStats(roomId);
+    }
+
+}
@@ -0,0 +1,219 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import digi.booking.digi_booking_app.base.exception.RoomBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Hands out one fair lock per room, created lazily on first use. Writers for different rooms
+ * never wait on each other, and callers take the lock before opening a transaction so a waiting
+ * request does not hold a pooled connection. A lock nobody holds or waits for is evicted once it
+ * has been idle for booking.room-lock.idle-timeout, together with its statistics.
+ */
+@Component
+@Slf4j
+public class RoomLockManager {
+
+    private final ConcurrentHashMap<UUID, RoomLock> locks = new ConcurrentHashMap<>();
+    private final Duration timeout;
+    private final Duration idleTimeout;
+    private final int maxQueueLength;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    public RoomLockManager(@Value("${booking.room-lock.timeout:PT5S}") final Duration timeout,
+            @Value("${booking.room-lock.idle-timeout:PT10M}") final Duration idleTimeout,
+            @Value("${booking.room-lock.max-queue-length:32}") final int maxQueueLength,
+            final MeterRegistry meterRegistry) {
+        this.timeout = timeout;
+        this.idleTimeout = idleTimeout;
+        this.maxQueueLength = maxQueueLength;
+        this.waitTimer = Timer.builder("booking.room.lock.wait")
+                .description("Time spent waiting for a per-room booking lock")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("booking.room.lock.rejected")
+                .description("Lock requests rejected because of a full queue or a timeout")
+                .register(meterRegistry);
+        Gauge.builder("booking.room.lock.queue", locks, RoomLockManager::totalQueueLength)
+                .description("Threads currently queued on any room lock")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the action while holding the locks of all given rooms. Locks are taken in a stable
+     * order so two writers touching the same pair of rooms cannot deadlock. Null ids are ignored.
+     *
+     * @throws RoomBusyException if a lock queue is full or the locks cannot be taken within the
+     *         configured timeout
+     */
+    public <T> T withRoomLocks(final Collection<UUID> roomIds, final Supplier<T> action) {
+        final List<UUID> ordered = roomIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted(Comparator.naturalOrder())
+                .toList();
+        final List<RoomLock> checkedOut = new ArrayList<>(ordered.size());
+        final List<RoomLock> acquired = new ArrayList<>(ordered.size());
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            for (final UUID roomId : ordered) {
+                final RoomLock roomLock = checkOut(roomId);
+                checkedOut.add(roomLock);
+                roomLock.acquire(deadline);
+                acquired.add(roomLock);
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired.size() - 1; i >= 0; i--) {
+                acquired.get(i).lock.unlock();
+            }
+            checkedOut.forEach(this::checkIn);
+        }
+    }
+
+    public void runWithRoomLocks(final Collection<UUID> roomIds, final Runnable action) {
+        withRoomLocks(roomIds, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Removes the locks that nobody holds or waits for and that were last released before the
+     * idle timeout.
+     */
+    @Scheduled(fixedDelayString = "${booking.room-lock.evict-interval:PT1M}")
+    public void evictIdle() {
+        final long cutoff = System.nanoTime() - idleTimeout.toNanos();
+        locks.keySet().forEach(roomId -> locks.computeIfPresent(roomId,
+                (id, roomLock) -> roomLock.users == 0 && roomLock.lastReleased - cutoff <= 0 ? null : roomLock));
+    }
+
+    /**
+     * Returns contention statistics for every room locked within the idle timeout.
+     */
+    public List<RoomLockStats> getStats() {
+        return locks.values()
+                .stream()
+                .map(RoomLock::toStats)
+                .sorted(Comparator.comparingLong(RoomLockStats::totalWaitMillis).reversed())
+                .toList();
+    }
+
+    public RoomLockStats getStats(final UUID roomId) {
+        final RoomLock roomLock = locks.get(roomId);
+        return roomLock == null ? null : roomLock.toStats();
+    }
+
+    /**
+     * Registers the caller as a user of the room's lock, so it is not evicted until checked in.
+     * Both run inside the map's per-key compute, which makes them atomic with the eviction.
+     */
+    private RoomLock checkOut(final UUID roomId) {
+        return locks.compute(roomId, (id, existing) -> {
+            final RoomLock roomLock = existing == null ? new RoomLock(id) : existing;
+            roomLock.users++;
+            return roomLock;
+        });
+    }
+
+    private void checkIn(final RoomLock roomLock) {
+        locks.computeIfPresent(roomLock.roomId, (id, existing) -> {
+            existing.users--;
+            existing.lastReleased = System.nanoTime();
+            return existing;
+        });
+    }
+
+    private static double totalQueueLength(final Map<UUID, RoomLock> locks) {
+        long total = 0;
+        for (final Map.Entry<UUID, RoomLock> entry : locks.entrySet()) {
+            total += entry.getValue().lock.getQueueLength();
+        }
+        return total;
+    }
+
+    public record RoomLockStats(UUID roomId, boolean locked, int queueLength, long acquisitions,
+            long contended, long rejected, long totalWaitMillis, long maxWaitMillis) {
+    }
+
+    private final class RoomLock {
+
+        private final UUID roomId;
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder contended = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        // guarded by the compute of the lock map
+        private int users;
+        private long lastReleased = System.nanoTime();
+
+        private RoomLock(final UUID roomId) {
+            this.roomId = roomId;
+        }
+
+        private void acquire(final long deadline) {
+            if (lock.isLocked() && !lock.isHeldByCurrentThread()) {
+                if (lock.getQueueLength() >= maxQueueLength) {
+                    reject("Room " + roomId + " has too many pending booking requests");
+                }
+                contended.increment();
+            }
+            final long start = System.nanoTime();
+            final boolean locked;
+            try {
+                locked = lock.tryLock(deadline - start, TimeUnit.NANOSECONDS);
+            } catch (final InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                throw new RoomBusyException("Interrupted while waiting for room " + roomId);
+            }
+            final long waited = System.nanoTime() - start;
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            waitTimer.record(waited, TimeUnit.NANOSECONDS);
+            if (!locked) {
+                reject("Timed out waiting for room " + roomId);
+            }
+            acquisitions.increment();
+        }
+
+        private void reject(final String message) {
+            rejected.increment();
+            rejectedCounter.increment();
+            log.warn("{} (queue length {})", message, lock.getQueueLength());
+            throw new RoomBusyException(message);
+        }
+
+        private RoomLockStats toStats() {
+            return new RoomLockStats(roomId, lock.isLocked(), lock.getQueueLength(),
+                    acquisitions.sum(), contended.sum(), rejected.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum()),
+                    TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        }
+
+    }
+
+}
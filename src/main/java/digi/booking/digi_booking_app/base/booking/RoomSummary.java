@@ -0,0 +1,18 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import digi.booking.digi_booking_app.base.room.Room;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+
+/**
+ * The room of a booking, embedded with expand=room.
+ */
+public record RoomSummary(UUID id, Integer roomNumber, String roomType, Integer capacity, BigDecimal price) {
+
+    static RoomSummary of(final Room room) {
+        return new RoomSummary(room.getId(), room.getRoomNumber(), room.getRoomType(), room.getCapacity(),
+                room.getPrice());
+    }
+
+}
@@ -0,0 +1,15 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import digi.booking.digi_booking_app.base.user.User;
+
+
+/**
+ * The guest of a booking, embedded with expand=user.
+ */
+public record UserSummary(Long id, String firstName, String lastName, String email) {
+
+    static UserSummary of(final User user) {
+        return new UserSummary(user.getKeycloakId(), user.getFirstName(), user.getLastName(), user.getEmail());
+    }
+
+}
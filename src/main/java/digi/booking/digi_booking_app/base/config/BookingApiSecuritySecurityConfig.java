@@ -2,6 +2,7 @@ package digi.booking.digi_booking_app.base.config;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
+import digi.booking.digi_booking_app.base.security.UserRoles;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -50,6 +51,10 @@ public class BookingApiSecuritySecurityConfig {
                 .authorizeHttpRequests(authorize -> authorize
                         // Allow health endpoint without authentication to avoid startup issues if IdP is unavailable
                         .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        // scraped by Prometheus without a token
+                        .requestMatchers("/actuator/info", "/actuator/prometheus").permitAll()
+                        // lock contention, audit events and metrics details are for admins only
+                        .requestMatchers("/actuator/**").hasAuthority(UserRoles.ADMIN)
                         // Adjust other endpoints according to your needs; keep them public for now
                         .anyRequest().permitAll())
                 .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())))
@@ -12,7 +12,8 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 
 @Configuration
-@EntityScan("digi.booking.digi_booking_app.base")
+// the event publication registry brings its own entity, which the explicit scan would hide
+@EntityScan({"digi.booking.digi_booking_app.base", "org.springframework.modulith.events.jpa.updating"})
 @EnableJpaRepositories("digi.booking.digi_booking_app.base")
 @EnableTransactionManagement
 @EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
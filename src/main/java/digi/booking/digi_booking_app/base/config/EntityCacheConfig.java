@@ -0,0 +1,62 @@
+package digi.booking.digi_booking_app.base.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+/**
+ * Second-level cache regions for the read-mostly catalog entities, held in bounded Caffeine
+ * caches. Writes through Hibernate update the local regions; other replicas only see a change
+ * once their entry expires, so entries live for booking.cache.ttl after they were written.
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    public static final String ROOMS = "rooms";
+    public static final String ROOM_NUMBERS = "room-numbers";
+    public static final String USERS = "users";
+
+    @Bean
+    public CacheManager entityCacheManager(@Value("${booking.cache.ttl:PT1M}") final Duration ttl,
+            @Value("${booking.cache.rooms.max-size:10000}") final long maxRooms,
+            @Value("${booking.cache.users.max-size:100000}") final long maxUsers) {
+        // one manager per application context, tests may start several
+        final CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("digi-booking-entities-" + UUID.randomUUID()), getClass().getClassLoader());
+        for (final Map.Entry<String, Long> region : Map.of(ROOMS, maxRooms, ROOM_NUMBERS, maxRooms,
+                USERS, maxUsers).entrySet()) {
+            final CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(region.getValue()));
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region.getKey(), configuration);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(final CacheManager entityCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    @Bean
+    public MeterBinder entityCacheMetrics(final CacheManager entityCacheManager) {
+        return meterRegistry -> entityCacheManager.getCacheNames().forEach(
+                name -> JCacheMetrics.monitor(meterRegistry, entityCacheManager.getCache(name)));
+    }
+
+}
@@ -0,0 +1,61 @@
+package digi.booking.digi_booking_app.base.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * How far the event listeners are behind: the number of publications not yet completed and the
+ * age of the oldest one, which only grows while a listener is failing or backed up. The table is
+ * read on a schedule rather than on every scrape, so the gauges show values at most one refresh
+ * interval old; the age is still computed at scrape time from the cached publication date.
+ */
+@Component
+public class EventPublicationMetrics implements MeterBinder {
+
+    private static final String PENDING_QUERY =
+            "SELECT count(*) FROM event_publication WHERE completion_date IS NULL";
+    private static final String OLDEST_PENDING_QUERY =
+            "SELECT min(publication_date) FROM event_publication WHERE completion_date IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicLong pending = new AtomicLong();
+    private volatile Instant oldestPending;
+
+    public EventPublicationMetrics(final JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.events.metrics-refresh-interval:PT30S}")
+    public void refresh() {
+        final Long count = jdbcTemplate.queryForObject(PENDING_QUERY, Long.class);
+        final Timestamp oldest = jdbcTemplate.queryForObject(OLDEST_PENDING_QUERY, Timestamp.class);
+        pending.set(count == null ? 0 : count);
+        oldestPending = oldest == null ? null : oldest.toInstant();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("booking.events.pending", pending, AtomicLong::get)
+                .description("Event publications not completed by their listener")
+                .register(registry);
+        Gauge.builder("booking.events.oldest-pending-age", this, EventPublicationMetrics::oldestPendingAge)
+                .description("Seconds since the oldest incomplete event publication was published")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    private double oldestPendingAge() {
+        final Instant oldest = oldestPending;
+        return oldest == null ? 0 : Duration.between(oldest, Instant.now()).toMillis() / 1000.0;
+    }
+
+}
@@ -0,0 +1,27 @@
+package digi.booking.digi_booking_app.base.config;
+
+import org.springframework.boot.actuate.audit.AuditEventRepository;
+import org.springframework.boot.actuate.audit.InMemoryAuditEventRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+
+/**
+ * Domain events are stored in the event_publication table by the Spring Modulith registry in the
+ * transaction that publishes them, and handed to @ApplicationModuleListener methods on the task
+ * executor after commit. Publications not completed by a listener survive a crash and are
+ * submitted again on startup. Their backlog is metered by {@link EventPublicationMetrics}.
+ */
+@Configuration
+@EnableAsync
+public class EventsConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AuditEventRepository auditEventRepository() {
+        return new InMemoryAuditEventRepository();
+    }
+
+}
@@ -0,0 +1,61 @@
+package digi.booking.digi_booking_app.base.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+/**
+ * Extras for running with spring.threads.virtual.enabled=true, where Spring Boot serves requests
+ * and runs task executors on virtual threads. The datasource is put behind a
+ * {@link ConnectionLimitingDataSource} sized like the Hikari pool, and pinned virtual threads
+ * are reported by {@link VirtualThreadPinningMonitor}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimiter(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") final int maxConnections,
+            @Value("${booking.datasource.acquire-timeout:PT60S}") final Duration acquireTimeout,
+            final ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                final ConnectionLimitingDataSource limited =
+                        new ConnectionLimitingDataSource(dataSource, maxConnections, acquireTimeout);
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("booking.datasource.limiter.waiting", limited,
+                                    ConnectionLimitingDataSource::getQueueLength)
+                            .description("Threads queued for a database connection permit")
+                            .register(registry);
+                    Gauge.builder("booking.datasource.limiter.available", limited,
+                                    ConnectionLimitingDataSource::getAvailablePermits)
+                            .description("Database connection permits not in use")
+                            .register(registry);
+                });
+                return limited;
+            }
+
+        };
+    }
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(final MeterRegistry meterRegistry,
+            @Value("${booking.virtual-threads.pinning-threshold:PT0.02S}") final Duration threshold) {
+        return new VirtualThreadPinningMonitor(meterRegistry, threshold);
+    }
+
+}
@@ -0,0 +1,26 @@
+package digi.booking.digi_booking_app.base.events;
+
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * Published in the transaction that sets a booking to CANCELLED.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingCancelled {
+
+    private UUID id;
+
+    private UUID roomId;
+
+    private Long userId;
+
+    private Instant occurredAt;
+
+}
@@ -0,0 +1,35 @@
+package digi.booking.digi_booking_app.base.events;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * Published in the transaction that stores a new booking. Like the other booking events it is
+ * kept in the event publication registry until every listener has completed, and is read back
+ * from there on restart, hence the no-args constructor.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingCreated {
+
+    private UUID id;
+
+    private UUID roomId;
+
+    private Long userId;
+
+    private LocalDate checkinDate;
+
+    private LocalDate checkoutDate;
+
+    private String status;
+
+    private Instant occurredAt;
+
+}
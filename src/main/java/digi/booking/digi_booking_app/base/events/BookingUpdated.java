@@ -0,0 +1,33 @@
+package digi.booking.digi_booking_app.base.events;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * Published in the transaction that changes a booking, with its values after the change.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingUpdated {
+
+    private UUID id;
+
+    private UUID roomId;
+
+    private Long userId;
+
+    private LocalDate checkinDate;
+
+    private LocalDate checkoutDate;
+
+    private String status;
+
+    private Instant occurredAt;
+
+}
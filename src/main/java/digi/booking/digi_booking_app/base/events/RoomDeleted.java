@@ -0,0 +1,14 @@
+package digi.booking.digi_booking_app.base.events;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+
+@Getter
+@AllArgsConstructor
+public class RoomDeleted {
+
+    private UUID id;
+
+}
@@ -0,0 +1,13 @@
+package digi.booking.digi_booking_app.base.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+
+@Getter
+@AllArgsConstructor
+public class UserDeleted {
+
+    private Long id;
+
+}
@@ -0,0 +1,15 @@
+package digi.booking.digi_booking_app.base.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+
+@Getter
+@AllArgsConstructor
+public class UserSaved {
+
+    private Long id;
+
+    private String email;
+
+}
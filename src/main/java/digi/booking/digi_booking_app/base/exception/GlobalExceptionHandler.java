@@ -5,6 +5,7 @@ import digi.booking.digi_booking_app.base.model.ErrorResponse;
 import digi.booking.digi_booking_app.base.util.NotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.LazyInitializationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authorization.AuthorizationDeniedException;
@@ -36,6 +37,67 @@ public class GlobalExceptionHandler {
                         .build());
     }
 
+    @ExceptionHandler(RoomNumberTakenException.class)
+    public ResponseEntity<ErrorResponse> handleRoomNumberTaken(
+            RoomNumberTakenException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ErrorResponse.builder()
+                        .code("CONFLICT")
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(RoomBusyException.class)
+    public ResponseEntity<ErrorResponse> handleRoomBusy(
+            RoomBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ErrorResponse.builder()
+                        .code("ROOM_BUSY")
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyMismatch(
+            IdempotencyKeyMismatchException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(ErrorResponse.builder()
+                        .code("IDEMPOTENCY_KEY_MISMATCH")
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(IdempotencyKeyPendingException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyPending(
+            IdempotencyKeyPendingException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ErrorResponse.builder()
+                        .code("IDEMPOTENCY_KEY_PENDING")
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailed(
+            PreconditionFailedException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(ErrorResponse.builder()
+                        .code("PRECONDITION_FAILED")
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgument(
+            IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ErrorResponse.builder()
+                        .code("BAD_REQUEST")
+                        .message(ex.getMessage())
+                        .build());
+    }
+
     @ExceptionHandler(AuthorizationDeniedException.class)
     public ResponseEntity<ErrorResponse> handleAuthorizationDenied(
             AuthorizationDeniedException ex) {
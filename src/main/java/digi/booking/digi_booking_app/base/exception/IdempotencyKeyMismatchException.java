@@ -0,0 +1,17 @@
+package digi.booking.digi_booking_app.base.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException() {
+        super();
+    }
+
+    public IdempotencyKeyMismatchException(final String message) {
+        super(message);
+    }
+
+}
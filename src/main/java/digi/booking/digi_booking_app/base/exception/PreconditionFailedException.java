@@ -0,0 +1,17 @@
+package digi.booking.digi_booking_app.base.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException() {
+        super();
+    }
+
+    public PreconditionFailedException(final String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,21 @@
+package digi.booking.digi_booking_app.base.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class RoomBusyException extends RuntimeException {
+
+    public RoomBusyException() {
+        super();
+    }
+
+    public RoomBusyException(final String message) {
+        super(message);
+    }
+
+    public RoomBusyException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+
+}
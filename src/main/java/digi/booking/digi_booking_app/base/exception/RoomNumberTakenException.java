@@ -0,0 +1,17 @@
+package digi.booking.digi_booking_app.base.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class RoomNumberTakenException extends RuntimeException {
+
+    public RoomNumberTakenException() {
+        super();
+    }
+
+    public RoomNumberTakenException(final String message) {
+        super(message);
+    }
+
+}
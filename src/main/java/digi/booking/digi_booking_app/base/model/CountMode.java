@@ -0,0 +1,18 @@
+package digi.booking.digi_booking_app.base.model;
+
+
+/**
+ * How the total of a paged listing is obtained.
+ */
+public enum CountMode {
+
+    /** count(*) on every request */
+    EXACT,
+    /** an exact count kept for a short time and dropped on writes */
+    CACHED,
+    /** the planner's row estimate for the table */
+    ESTIMATED,
+    /** no total; only whether there is a next page */
+    NONE
+
+}
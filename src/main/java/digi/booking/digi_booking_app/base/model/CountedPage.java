@@ -0,0 +1,63 @@
+package digi.booking.digi_booking_app.base.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.hateoas.PagedModel;
+
+
+/**
+ * A page that knows how its total was obtained. With {@link CountMode#NONE} the total is only a
+ * lower bound that tells whether a next page exists.
+ */
+public class CountedPage<T> extends PageImpl<T> {
+
+    private final CountMode countMode;
+
+    public CountedPage(final List<T> content, final Pageable pageable, final long total, final CountMode countMode) {
+        super(content, pageable, total);
+        this.countMode = countMode;
+    }
+
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
+    /**
+     * Adds the count mode of the page to the page metadata of a model built from it.
+     */
+    public static <R> PagedModel<R> withCountMode(final PagedModel<R> model, final CountedPage<?> page) {
+        final PagedModel.PageMetadata metadata = model.getMetadata();
+        if (metadata == null) {
+            return model;
+        }
+        return PagedModel.of(model.getContent(), new CountedPageMetadata(metadata, page.getCountMode()),
+                model.getLinks());
+    }
+
+    public static class CountedPageMetadata extends PagedModel.PageMetadata {
+
+        @JsonProperty
+        private final CountMode count;
+
+        @JsonProperty
+        private final boolean totalExact;
+
+        private CountedPageMetadata(final PagedModel.PageMetadata metadata, final CountMode count) {
+            super(metadata.getSize(), metadata.getNumber(), metadata.getTotalElements(), metadata.getTotalPages());
+            this.count = count;
+            this.totalExact = count == CountMode.EXACT;
+        }
+
+        public CountMode getCount() {
+            return count;
+        }
+
+        public boolean isTotalExact() {
+            return totalExact;
+        }
+
+    }
+
+}
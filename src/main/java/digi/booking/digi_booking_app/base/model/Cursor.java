@@ -0,0 +1,34 @@
+package digi.booking.digi_booking_app.base.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+
+/**
+ * Position of a row in a keyset ordering of (sort key, id), passed to clients as an opaque
+ * token. The token is only meaningful for the listing that issued it.
+ */
+public record Cursor(String key, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static String encode(final Object key, final UUID id) {
+        final String raw = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not issued by {@link #encode}
+     */
+    public static Cursor decode(final String token) {
+        try {
+            final String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            final int separator = raw.lastIndexOf(SEPARATOR);
+            return new Cursor(raw.substring(0, separator), UUID.fromString(raw.substring(separator + 1)));
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException exception) {
+            throw new IllegalArgumentException("Invalid cursor", exception);
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package digi.booking.digi_booking_app.base.model;
+
+import java.util.List;
+import java.util.function.Function;
+import lombok.Getter;
+import org.springframework.data.domain.Window;
+
+
+/**
+ * One slice of a keyset listing with the cursors of the neighbouring slices; a cursor is null
+ * when there is nothing more in that direction.
+ */
+@Getter
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final String next;
+    private final String previous;
+
+    public CursorPage(final List<T> content, final String next, final String previous) {
+        this.content = content;
+        this.next = next;
+        this.previous = previous;
+    }
+
+    /**
+     * @param backward whether the window was read backwards from a "before" cursor
+     * @param continued whether the window starts after a cursor, so there may be rows before it
+     * @param cursor the cursor of a row
+     */
+    public static <E, T> CursorPage<T> of(final Window<E> window, final boolean backward, final boolean continued,
+            final Function<E, String> cursor, final Function<E, T> mapper) {
+        final List<E> rows = window.getContent();
+        if (rows.isEmpty()) {
+            return new CursorPage<>(List.of(), null, null);
+        }
+        final String first = cursor.apply(rows.get(0));
+        final String last = cursor.apply(rows.get(rows.size() - 1));
+        final String next = backward || window.hasNext() ? last : null;
+        final String previous = backward ? (window.hasNext() ? first : null) : (continued ? first : null);
+        return new CursorPage<>(rows.stream().map(mapper).toList(), next, previous);
+    }
+
+}
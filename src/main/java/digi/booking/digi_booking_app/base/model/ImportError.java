@@ -0,0 +1,19 @@
+package digi.booking.digi_booking_app.base.model;
+
+
+/**
+ * One rejected line of a bulk import.
+ *
+ * @param line the line of the input the record started on, counting from 1
+ * @param status INVALID for lines that could not be read or validated, otherwise the reason the
+ *               line was not stored, such as CONFLICT or NOT_FOUND
+ */
+public record ImportError(long line, String status, String message) {
+
+    public static final String INVALID = "INVALID";
+
+    public ImportError atLine(final long inputLine) {
+        return new ImportError(inputLine, status, message);
+    }
+
+}
@@ -0,0 +1,11 @@
+package digi.booking.digi_booking_app.base.model;
+
+import java.util.List;
+
+
+/**
+ * Outcome of a bulk import. Every line counted in records is either imported or failed; errors
+ * lists the failed lines up to the configured limit.
+ */
+public record ImportResult(long records, long imported, long failed, List<ImportError> errors) {
+}
@@ -0,0 +1,51 @@
+package digi.booking.digi_booking_app.base.model;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import org.springframework.data.domain.ScrollPosition;
+
+
+/**
+ * Checks and converts the parameters of a keyset listing.
+ */
+public final class ScrollRequest {
+
+    private ScrollRequest() {
+    }
+
+    /**
+     * @return the decoded cursor, or null for the first window
+     */
+    public static Cursor validate(final String after, final String before, final int size, final int maxSize) {
+        if (after != null && before != null) {
+            throw new IllegalArgumentException("Use either after or before");
+        }
+        if (size < 1 || size > maxSize) {
+            throw new IllegalArgumentException("Size must be between 1 and " + maxSize);
+        }
+        final String token = after != null ? after : before;
+        return token == null ? null : Cursor.decode(token);
+    }
+
+    public static ScrollPosition position(final Map<String, ?> keys, final boolean backward) {
+        return backward ? ScrollPosition.backward(keys) : ScrollPosition.forward(keys);
+    }
+
+    public static LocalDate parseDate(final String key) {
+        try {
+            return LocalDate.parse(key);
+        } catch (final DateTimeParseException dateTimeParseException) {
+            throw new IllegalArgumentException("Invalid cursor", dateTimeParseException);
+        }
+    }
+
+    public static Integer parseInteger(final String key) {
+        try {
+            return Integer.valueOf(key);
+        } catch (final NumberFormatException numberFormatException) {
+            throw new IllegalArgumentException("Invalid cursor", numberFormatException);
+        }
+    }
+
+}
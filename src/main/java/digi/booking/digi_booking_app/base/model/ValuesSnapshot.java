@@ -0,0 +1,10 @@
+package digi.booking.digi_booking_app.base.model;
+
+import java.util.Map;
+
+
+/**
+ * An immutable id to label map for dropdowns, with a strong ETag derived from its content.
+ */
+public record ValuesSnapshot<K>(Map<K, String> values, String etag) {
+}
@@ -1,16 +1,23 @@
 package digi.booking.digi_booking_app.base.room;
 
+import digi.booking.digi_booking_app.base.config.EntityCacheConfig;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UuidGenerator;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -19,6 +26,9 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 @Entity
 @Table(name = "Rooms")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.ROOMS)
+@NaturalIdCache(region = EntityCacheConfig.ROOM_NUMBERS)
 @EntityListeners(AuditingEntityListener.class)
 @Getter
 @Setter
@@ -30,7 +40,8 @@ public class Room {
     @UuidGenerator
     private UUID id;
 
-    @Column(nullable = false)
+    @NaturalId(mutable = true)
+    @Column(nullable = false, unique = true)
     private Integer roomNumber;
 
     @Column(nullable = false)
@@ -56,4 +67,12 @@ public class Room {
     @Column(nullable = false)
     private OffsetDateTime lastUpdated;
 
+    /**
+     * Makes an update fail if another one committed since the room was read, so an If-Match
+     * check against lastUpdated cannot be passed by two concurrent writers.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
 }
@@ -17,18 +17,18 @@ public class RoomAssembler implements SimpleRepresentationModelAssembler<RoomDTO
 
     @Override
     public void addLinks(final EntityModel<RoomDTO> entityModel) {
-        entityModel.add(linkTo(methodOn(RoomResource.class).getRoom(entityModel.getContent().getId())).withSelfRel());
-        entityModel.add(linkTo(methodOn(RoomResource.class).getAllRooms(null, null)).withRel(IanaLinkRelations.COLLECTION));
+        entityModel.add(linkTo(methodOn(RoomResource.class).getRoom(entityModel.getContent().getId(), null)).withSelfRel());
+        entityModel.add(linkTo(methodOn(RoomResource.class).getAllRooms(null, null, null)).withRel(IanaLinkRelations.COLLECTION));
     }
 
     @Override
     public void addLinks(final CollectionModel<EntityModel<RoomDTO>> collectionModel) {
-        collectionModel.add(linkTo(methodOn(RoomResource.class).getAllRooms(null, null)).withSelfRel());
+        collectionModel.add(linkTo(methodOn(RoomResource.class).getAllRooms(null, null, null)).withSelfRel());
     }
 
     public EntityModel<SimpleValue<UUID>> toSimpleModel(final UUID id) {
         final EntityModel<SimpleValue<UUID>> simpleModel = SimpleValue.entityModelOf(id);
-        simpleModel.add(linkTo(methodOn(RoomResource.class).getRoom(id)).withSelfRel());
+        simpleModel.add(linkTo(methodOn(RoomResource.class).getRoom(id, null)).withSelfRel());
         return simpleModel;
     }
 
@@ -0,0 +1,177 @@
+package digi.booking.digi_booking_app.base.room;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+/**
+ * Writes the room-by-day occupancy matrix as JSON while reading it. Every room is listed with
+ * the booked nights of the range as run-length spans of [first day offset, nights]; consecutive
+ * stays are merged into one span. All rooms and their stays come from one query ordered by room
+ * and check-in, read with a cursor, so neither the rows nor the response are held in memory.
+ */
+@Component
+public class RoomCalendar {
+
+    private static final String CALENDAR_QUERY = """
+            SELECT r.id, r.room_number, b.checkin_date, b.checkout_date
+            FROM rooms r
+            LEFT JOIN bookings b ON b.room_id = r.id AND b.status = 'ACTIVE'
+                AND b.checkin_date < ? AND b.checkout_date > ?
+            ORDER BY r.room_number, r.id, b.checkin_date
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final ObjectMapper objectMapper;
+    private final int maxDays;
+
+    public RoomCalendar(final DataSource dataSource, final PlatformTransactionManager transactionManager,
+            final ObjectMapper objectMapper,
+            @Value("${booking.calendar.fetch-size:500}") final int fetchSize,
+            @Value("${booking.calendar.max-days:366}") final int maxDays) {
+        // a dedicated template, so the fetch size does not leak into other users of the shared one
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // the Postgres driver only uses a cursor for the fetch size inside a transaction
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.maxDays = maxDays;
+    }
+
+    /**
+     * Checks the range before any output is written, so a bad request can still be answered
+     * with an error status.
+     */
+    public void validateRange(final LocalDate from, final LocalDate to) {
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("To must be after from");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > maxDays) {
+            throw new IllegalArgumentException("At most " + maxDays + " days per calendar");
+        }
+    }
+
+    /**
+     * @param from first day of the calendar
+     * @param to day after the last day of the calendar
+     */
+    public void write(final LocalDate from, final LocalDate to, final OutputStream outputStream) {
+        validateRange(from, to);
+        readTransaction.executeWithoutResult(status -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                    .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)) {
+                generator.writeStartObject();
+                generator.writeStringField("from", from.toString());
+                generator.writeStringField("to", to.toString());
+                generator.writeArrayFieldStart("rooms");
+                final CalendarRows rows = new CalendarRows(generator, from, to);
+                jdbcTemplate.query(CALENDAR_QUERY, (RowCallbackHandler) rows::next,
+                        Date.valueOf(to), Date.valueOf(from));
+                rows.finish();
+                generator.writeEndArray();
+                generator.writeEndObject();
+            } catch (final IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+        });
+    }
+
+    /**
+     * Folds the ordered rows into one JSON object per room, keeping only the open span.
+     */
+    private static final class CalendarRows {
+
+        private final JsonGenerator generator;
+        private final LocalDate from;
+        private final LocalDate to;
+        private UUID roomId;
+        private long spanStart = -1;
+        private long spanEnd = -1;
+
+        private CalendarRows(final JsonGenerator generator, final LocalDate from, final LocalDate to) {
+            this.generator = generator;
+            this.from = from;
+            this.to = to;
+        }
+
+        private void next(final ResultSet resultSet) throws SQLException {
+            try {
+                final UUID rowRoomId = resultSet.getObject(1, UUID.class);
+                if (!rowRoomId.equals(roomId)) {
+                    finish();
+                    roomId = rowRoomId;
+                    generator.writeStartObject();
+                    generator.writeStringField("id", rowRoomId.toString());
+                    generator.writeNumberField("roomNumber", resultSet.getInt(2));
+                    generator.writeArrayFieldStart("spans");
+                }
+                final Date checkin = resultSet.getDate(3);
+                if (checkin != null) {
+                    final LocalDate first = max(checkin.toLocalDate(), from);
+                    final LocalDate last = min(resultSet.getDate(4).toLocalDate(), to);
+                    add(ChronoUnit.DAYS.between(from, first), ChronoUnit.DAYS.between(from, last));
+                }
+            } catch (final IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+        }
+
+        private void add(final long start, final long end) throws IOException {
+            if (spanEnd >= start) {
+                spanEnd = Math.max(spanEnd, end);
+                return;
+            }
+            writeSpan();
+            spanStart = start;
+            spanEnd = end;
+        }
+
+        private void finish() throws IOException {
+            if (roomId != null) {
+                writeSpan();
+                generator.writeEndArray();
+                generator.writeEndObject();
+                roomId = null;
+            }
+        }
+
+        private void writeSpan() throws IOException {
+            if (spanEnd > spanStart) {
+                generator.writeStartArray();
+                generator.writeNumber(spanStart);
+                generator.writeNumber(spanEnd - spanStart);
+                generator.writeEndArray();
+            }
+            spanStart = -1;
+            spanEnd = -1;
+        }
+
+        private static LocalDate max(final LocalDate first, final LocalDate second) {
+            return first.isAfter(second) ? first : second;
+        }
+
+        private static LocalDate min(final LocalDate first, final LocalDate second) {
+            return first.isBefore(second) ? first : second;
+        }
+
+    }
+
+}
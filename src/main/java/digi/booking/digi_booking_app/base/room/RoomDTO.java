@@ -1,18 +1,24 @@
 package digi.booking.digi_booking_app.base.room;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.UUID;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 
 @Getter
 @Setter
+@NoArgsConstructor
+@AllArgsConstructor
 public class RoomDTO {
 
     private UUID id;
@@ -39,4 +45,7 @@ public class RoomDTO {
 
     private Boolean active;
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private OffsetDateTime lastUpdated;
+
 }
@@ -0,0 +1,35 @@
+package digi.booking.digi_booking_app.base.room;
+
+import digi.booking.digi_booking_app.base.util.ExportFormat;
+import digi.booking.digi_booking_app.base.util.StreamingExport;
+import java.io.OutputStream;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * All rooms, streamed in room number order.
+ */
+@Component
+public class RoomExport {
+
+    static final List<String> COLUMNS = List.of("id", "roomNumber", "roomType", "capacity", "price", "amenities",
+            "active", "lastUpdated");
+
+    private static final String EXPORT_QUERY = """
+            SELECT id, room_number, room_type, capacity, price, amenities, active, last_updated
+            FROM rooms
+            ORDER BY room_number, id
+            """;
+
+    private final StreamingExport streamingExport;
+
+    public RoomExport(final StreamingExport streamingExport) {
+        this.streamingExport = streamingExport;
+    }
+
+    public void write(final ExportFormat format, final OutputStream outputStream) {
+        streamingExport.write(EXPORT_QUERY, List.of(), COLUMNS, format, outputStream);
+    }
+
+}
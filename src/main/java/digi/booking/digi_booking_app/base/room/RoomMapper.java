@@ -16,6 +16,7 @@ public interface RoomMapper {
     RoomDTO updateRoomDTO(Room room, @MappingTarget RoomDTO roomDTO);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "lastUpdated", ignore = true)
     Room updateRoom(RoomDTO roomDTO, @MappingTarget Room room);
 
 }
@@ -0,0 +1,13 @@
+package digi.booking.digi_booking_app.base.room;
+
+import java.util.Optional;
+
+
+/**
+ * Room lookups by natural id, answered from the second-level cache when possible.
+ */
+public interface RoomNaturalIdRepository {
+
+    Optional<Room> findByRoomNumber(Integer roomNum);
+
+}
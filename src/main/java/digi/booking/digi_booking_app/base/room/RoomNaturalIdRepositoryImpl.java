@@ -0,0 +1,27 @@
+package digi.booking.digi_booking_app.base.room;
+
+import jakarta.persistence.EntityManager;
+import java.util.Optional;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+
+class RoomNaturalIdRepositoryImpl implements RoomNaturalIdRepository {
+
+    private final EntityManager entityManager;
+
+    RoomNaturalIdRepositoryImpl(final EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Resolves the id through the room-numbers region and the room through the rooms region; a
+     * derived query would always go to the database.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Room> findByRoomNumber(final Integer roomNum) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Room.class).loadOptional(roomNum);
+    }
+
+}
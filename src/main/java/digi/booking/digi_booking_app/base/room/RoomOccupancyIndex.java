@@ -0,0 +1,256 @@
+package digi.booking.digi_booking_app.base.room;
+
+import digi.booking.digi_booking_app.base.booking.BookingRepository;
+import digi.booking.digi_booking_app.base.booking.BookingStatus;
+import digi.booking.digi_booking_app.base.booking.BookingStay;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * In-memory occupancy of all rooms, one bitset per calendar day with a bit per room slot. An
+ * availability search ORs the bitsets of the requested nights and removes them from the set of
+ * eligible rooms, so its cost depends on the number of nights and rooms, not on the number of
+ * bookings. Booking writes of this node update the index after their transaction committed;
+ * writes of other nodes and past nights are only picked up by the periodic rebuild, so a search
+ * may be off by up to one rebuild interval. The booking itself is always checked against the
+ * database.
+ */
+@Component
+@Slf4j
+public class RoomOccupancyIndex {
+
+    private static final Comparator<RoomSlot> BY_ROOM_NUMBER = Comparator
+            .comparing(RoomSlot::roomNumber, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(RoomSlot::id);
+
+    private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> slotsByRoom = new HashMap<>();
+    private final List<RoomSlot> slots = new ArrayList<>();
+    private final NavigableMap<LocalDate, BitSet> nights = new TreeMap<>();
+    private final Map<UUID, BookingStay> stays = new HashMap<>();
+    private LocalDate firstDay = LocalDate.MIN;
+    private List<Runnable> changesDuringRebuild;
+    private volatile boolean ready;
+
+    public RoomOccupancyIndex(final RoomRepository roomRepository,
+            final BookingRepository bookingRepository) {
+        this.roomRepository = roomRepository;
+        this.bookingRepository = bookingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${booking.occupancy.rebuild-interval:PT5M}",
+            initialDelayString = "${booking.occupancy.rebuild-interval:PT5M}")
+    public void refresh() {
+        rebuild();
+    }
+
+    /**
+     * Reloads all rooms and the active stays from today on, dropping past nights. Searches keep
+     * using the old index while the database is read; changes made by this node meanwhile are
+     * replayed on top of the reloaded state.
+     */
+    public synchronized void rebuild() {
+        final long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        final LocalDate today = LocalDate.now();
+        final List<Room> rooms;
+        final List<BookingStay> activeStays;
+        try {
+            rooms = roomRepository.findAll();
+            activeStays = bookingRepository.findStaysEndingAfter(today, BookingStatus.ACTIVE);
+        } catch (final RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            slotsByRoom.clear();
+            slots.clear();
+            nights.clear();
+            stays.clear();
+            firstDay = today;
+            rooms.forEach(this::putRoomSlot);
+            activeStays.forEach(this::occupy);
+            changesDuringRebuild.forEach(Runnable::run);
+            changesDuringRebuild = null;
+            ready = true;
+            log.info("Room occupancy index loaded {} rooms and {} stays over {} days in {} ms",
+                    slots.size(), stays.size(), nights.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the ids of the rooms free for every night from checkin to the night before checkout,
+     *         ordered by room number
+     */
+    public List<UUID> findAvailable(final LocalDate checkin, final LocalDate checkout,
+            final Integer capacity, final String roomType) {
+        if (checkin.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Checkin must not be in the past");
+        }
+        if (!ready) {
+            rebuild();
+        }
+        lock.readLock().lock();
+        try {
+            final BitSet free = new BitSet(slots.size());
+            for (int slot = 0; slot < slots.size(); slot++) {
+                final RoomSlot room = slots.get(slot);
+                if (room != null && room.matches(capacity, roomType)) {
+                    free.set(slot);
+                }
+            }
+            final BitSet occupied = new BitSet(slots.size());
+            nights.subMap(checkin, true, checkout, false).values().forEach(occupied::or);
+            free.andNot(occupied);
+            return free.stream()
+                    .mapToObj(slots::get)
+                    .sorted(BY_ROOM_NUMBER)
+                    .map(RoomSlot::id)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records a committed ACTIVE stay, replacing any previous stay of the same booking.
+     */
+    public void putStay(final UUID bookingId, final UUID roomId, final LocalDate checkinDate,
+            final LocalDate checkoutDate) {
+        apply(() -> {
+            release(stays.remove(bookingId));
+            occupy(new BookingStay(bookingId, roomId, checkinDate, checkoutDate));
+        });
+    }
+
+    public void removeStay(final UUID bookingId) {
+        apply(() -> release(stays.remove(bookingId)));
+    }
+
+    /**
+     * Adds a new room or refreshes the attributes searches filter on.
+     */
+    public void putRoom(final Room room) {
+        apply(() -> putRoomSlot(room));
+    }
+
+    /**
+     * Takes a deleted room out of all searches. Its slot is not reused until the next rebuild.
+     */
+    public void removeRoom(final UUID roomId) {
+        apply(() -> {
+            final Integer slot = slotsByRoom.remove(roomId);
+            if (slot != null) {
+                slots.set(slot, null);
+            }
+        });
+    }
+
+    /**
+     * Applies a change now and, while a rebuild reads the database, once more on the rebuilt index.
+     * Every change is idempotent, so replaying one the database already reflects is harmless.
+     */
+    private void apply(final Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putRoomSlot(final Room room) {
+        final RoomSlot roomSlot = new RoomSlot(room.getId(), room.getRoomNumber(), room.getRoomType(),
+                room.getCapacity(), !Boolean.FALSE.equals(room.getActive()));
+        final Integer slot = slotsByRoom.get(room.getId());
+        if (slot != null) {
+            slots.set(slot, roomSlot);
+        } else {
+            slotsByRoom.put(room.getId(), slots.size());
+            slots.add(roomSlot);
+        }
+    }
+
+    private void occupy(final BookingStay stay) {
+        final Integer slot = slotsByRoom.get(stay.roomId());
+        if (slot == null) {
+            log.debug("Room {} not in occupancy index; skipping stay {}", stay.roomId(), stay.bookingId());
+            return;
+        }
+        stays.put(stay.bookingId(), stay);
+        for (LocalDate night = first(stay); night.isBefore(stay.checkoutDate()); night = night.plusDays(1)) {
+            nights.computeIfAbsent(night, day -> new BitSet()).set(slot);
+        }
+    }
+
+    private void release(final BookingStay stay) {
+        final Integer slot = stay == null ? null : slotsByRoom.get(stay.roomId());
+        if (slot == null) {
+            return;
+        }
+        // the exclusion constraint keeps active stays of a room apart, so no other stay shares these bits
+        for (LocalDate night = first(stay); night.isBefore(stay.checkoutDate()); night = night.plusDays(1)) {
+            final BitSet occupied = nights.get(night);
+            if (occupied != null) {
+                occupied.clear(slot);
+                if (occupied.isEmpty()) {
+                    nights.remove(night);
+                }
+            }
+        }
+    }
+
+    private LocalDate first(final BookingStay stay) {
+        return stay.checkinDate().isBefore(firstDay) ? firstDay : stay.checkinDate();
+    }
+
+    private record RoomSlot(UUID id, Integer roomNumber, String roomType, Integer capacity, boolean active) {
+
+        private boolean matches(final Integer minCapacity, final String type) {
+            return active
+                    && (minCapacity == null || (capacity != null && capacity >= minCapacity))
+                    && (type == null || type.equalsIgnoreCase(roomType));
+        }
+
+    }
+
+}
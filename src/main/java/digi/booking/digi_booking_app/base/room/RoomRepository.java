@@ -1,15 +1,56 @@
 package digi.booking.digi_booking_app.base.room;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 
-public interface RoomRepository extends JpaRepository<Room, UUID> {
+public interface RoomRepository extends JpaRepository<Room, UUID>, RoomNaturalIdRepository {
 
-    Page<Room> findAllById(UUID id, Pageable pageable);
+    /**
+     * Selects the columns of {@link RoomDTO} straight into DTOs, without hydrating entities.
+     */
+    String DTO_QUERY = "SELECT new digi.booking.digi_booking_app.base.room.RoomDTO(r.id, r.roomNumber, r.roomType, "
+            + "r.capacity, r.price, r.amenities, r.active, r.lastUpdated) FROM Room r";
+
+    @Query(value = DTO_QUERY + " WHERE r.id = :id", countQuery = "SELECT count(r) FROM Room r WHERE r.id = :id")
+    Page<RoomDTO> findDTOsById(@Param("id") UUID id, Pageable pageable);
+
+    @Query(value = DTO_QUERY, countQuery = "SELECT count(r) FROM Room r")
+    Page<RoomDTO> findDTOs(Pageable pageable);
+
+    /**
+     * Read a page without counting all rows.
+     */
+    @Query(DTO_QUERY)
+    Slice<RoomDTO> findDTOSlice(Pageable pageable);
+
+    /**
+     * Read one window of all rooms, for keyset pagination.
+     *
+     * @param position where the window starts; the keys must match the sort properties
+     */
+    Window<Room> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+
+    @Query("SELECT r.lastUpdated FROM Room r WHERE r.id = :id")
+    Optional<OffsetDateTime> findLastUpdatedById(@Param("id") UUID id);
+
+    @Query("SELECT r.roomNumber FROM Room r WHERE r.roomNumber IN :roomNumbers")
+    List<Integer> findRoomNumbersIn(@Param("roomNumbers") Collection<Integer> roomNumbers);
+
+    @Query("SELECT new digi.booking.digi_booking_app.base.room.RoomValue(r.id, r.roomType) FROM Room r")
+    List<RoomValue> findAllValues();
 
-    Optional<Room> findByRoomNumber(Integer roomNum);
 }
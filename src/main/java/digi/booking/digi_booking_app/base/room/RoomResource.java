@@ -1,7 +1,18 @@
 package digi.booking.digi_booking_app.base.room;
 
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
 import digi.booking.digi_booking_app.base.RoomService;
+import digi.booking.digi_booking_app.base.model.CountMode;
+import digi.booking.digi_booking_app.base.model.CountedPage;
+import digi.booking.digi_booking_app.base.model.CursorPage;
+import digi.booking.digi_booking_app.base.model.ImportResult;
 import digi.booking.digi_booking_app.base.model.SimpleValue;
+import digi.booking.digi_booking_app.base.util.BulkImport;
+import digi.booking.digi_booking_app.base.util.EntityTags;
+import digi.booking.digi_booking_app.base.util.ExportFormat;
+import digi.booking.digi_booking_app.base.util.StreamingExport;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -9,14 +20,23 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.data.web.SortDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -26,9 +46,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
@@ -38,12 +61,19 @@ public class RoomResource {
     private final RoomService roomService;
     private final RoomAssembler roomAssembler;
     private final PagedResourcesAssembler<RoomDTO> pagedResourcesAssembler;
+    private final RoomCalendar roomCalendar;
+    private final RoomExport roomExport;
+    private final BulkImport bulkImport;
 
     public RoomResource(final RoomService roomService, final RoomAssembler roomAssembler,
-            final PagedResourcesAssembler<RoomDTO> pagedResourcesAssembler) {
+            final PagedResourcesAssembler<RoomDTO> pagedResourcesAssembler,
+            final RoomCalendar roomCalendar, final RoomExport roomExport, final BulkImport bulkImport) {
         this.roomService = roomService;
         this.roomAssembler = roomAssembler;
         this.pagedResourcesAssembler = pagedResourcesAssembler;
+        this.roomCalendar = roomCalendar;
+        this.roomExport = roomExport;
+        this.bulkImport = bulkImport;
     }
 
     @Operation(
@@ -69,15 +99,115 @@ public class RoomResource {
     @SecurityRequirement(name = "bearer-jwt")
     public ResponseEntity<PagedModel<EntityModel<RoomDTO>>> getAllRooms(
             @RequestParam(name = "filter", required = false) final String filter,
+            @RequestParam(name = "count", required = false) final CountMode count,
             @Parameter(hidden = true) @SortDefault(sort = "id") @PageableDefault(size = 20) final Pageable pageable) {
-        final Page<RoomDTO> roomDTOs = roomService.findAll(filter, pageable);
+        final Page<RoomDTO> roomDTOs = roomService.findAll(filter, pageable, count);
+        final PagedModel<EntityModel<RoomDTO>> pagedModel = pagedResourcesAssembler.toModel(roomDTOs, roomAssembler);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(EntityTags.of(roomDTOs.getContent(), RoomDTO::getId, RoomDTO::getLastUpdated,
+                        roomDTOs.getTotalElements()))
+                .body(roomDTOs instanceof CountedPage<?> countedPage
+                        ? CountedPage.withCountMode(pagedModel, countedPage) : pagedModel);
+    }
+
+    /**
+     * Lists rooms ordered by room number with cursor links instead of page numbers.
+     */
+    @GetMapping("/scroll")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<CollectionModel<EntityModel<RoomDTO>>> scrollRooms(
+            @RequestParam(name = "after", required = false) final String after,
+            @RequestParam(name = "before", required = false) final String before,
+            @RequestParam(name = "size", defaultValue = "20") final int size) {
+        final CursorPage<RoomDTO> page = roomService.scroll(after, before, size);
+        final CollectionModel<EntityModel<RoomDTO>> collectionModel = CollectionModel.of(
+                page.getContent().stream().map(roomAssembler::toModel).toList());
+        collectionModel.add(linkTo(methodOn(RoomResource.class).scrollRooms(after, before, size)).withSelfRel());
+        if (page.getNext() != null) {
+            collectionModel.add(linkTo(methodOn(RoomResource.class).scrollRooms(page.getNext(), null, size))
+                    .withRel(IanaLinkRelations.NEXT));
+        }
+        if (page.getPrevious() != null) {
+            collectionModel.add(linkTo(methodOn(RoomResource.class).scrollRooms(null, page.getPrevious(), size))
+                    .withRel(IanaLinkRelations.PREV));
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(EntityTags.of(page.getContent(), RoomDTO::getId, RoomDTO::getLastUpdated,
+                        page.getNext(), page.getPrevious()))
+                .body(collectionModel);
+    }
+
+    @Operation(
+            parameters = {
+                    @Parameter(
+                            name = "page",
+                            in = ParameterIn.QUERY,
+                            schema = @Schema(implementation = Integer.class)
+                    ),
+                    @Parameter(
+                            name = "size",
+                            in = ParameterIn.QUERY,
+                            schema = @Schema(implementation = Integer.class)
+                    )
+            }
+    )
+    @GetMapping("/available")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<PagedModel<EntityModel<RoomDTO>>> getAvailableRooms(
+            @RequestParam(name = "checkin") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate checkin,
+            @RequestParam(name = "checkout") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate checkout,
+            @RequestParam(name = "capacity", required = false) final Integer capacity,
+            @RequestParam(name = "roomType", required = false) final String roomType,
+            @Parameter(hidden = true) @PageableDefault(size = 20) final Pageable pageable) {
+        final Page<RoomDTO> roomDTOs = roomService.findAvailable(checkin, checkout, capacity, roomType, pageable);
         return ResponseEntity.ok(pagedResourcesAssembler.toModel(roomDTOs, roomAssembler));
     }
 
+    /**
+     * Occupancy of every room from the first day up to, excluding, the last day. Booked nights are
+     * listed per room as spans of [day offset from "from", number of nights].
+     */
+    @GetMapping("/calendar")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<StreamingResponseBody> getCalendar(
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate to) {
+        roomCalendar.validateRange(from, to);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> roomCalendar.write(from, to, outputStream));
+    }
+
+    /**
+     * Every room as NDJSON or CSV, written while it is read and gzipped when the client accepts it.
+     */
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<StreamingResponseBody> exportRooms(
+            @RequestParam(name = "format", required = false) final String format,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding) {
+        final ExportFormat exportFormat = ExportFormat.parse(format);
+        return StreamingExport.response("rooms", exportFormat, acceptEncoding,
+                outputStream -> roomExport.write(exportFormat, outputStream));
+    }
+
+    /**
+     * Answers If-None-Match and If-Modified-Since from the lastUpdated column alone; the room is
+     * loaded and assembled only when it changed.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<EntityModel<RoomDTO>> getRoom(@PathVariable(name = "id") final UUID id) {
+    public ResponseEntity<EntityModel<RoomDTO>> getRoom(@PathVariable(name = "id") final UUID id,
+            final WebRequest webRequest) {
+        final OffsetDateTime lastUpdated = roomService.getLastUpdated(id);
+        if (webRequest.checkNotModified(EntityTags.of(lastUpdated), lastUpdated.toInstant().toEpochMilli())) {
+            return null;
+        }
         final RoomDTO roomDTO = roomService.get(id);
-        return ResponseEntity.ok(roomAssembler.toModel(roomDTO));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(roomAssembler.toModel(roomDTO));
     }
 
     @PostMapping
@@ -88,10 +218,24 @@ public class RoomResource {
         return new ResponseEntity<>(roomAssembler.toSimpleModel(createdId), HttpStatus.CREATED);
     }
 
+    /**
+     * Loads rooms from an NDJSON or CSV body of any size. Rooms whose number exists are skipped
+     * and reported with their line number, so an interrupted import can be sent again.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<ImportResult> importRooms(
+            @RequestHeader(name = HttpHeaders.CONTENT_TYPE) final MediaType contentType,
+            final InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkImport.run("rooms", body, ExportFormat.of(contentType), RoomDTO.class,
+                roomService::createAll));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<EntityModel<SimpleValue<UUID>>> updateRoom(
-            @PathVariable(name = "id") final UUID id, @RequestBody @Valid final RoomDTO roomDTO) {
-        roomService.update(id, roomDTO);
+            @PathVariable(name = "id") final UUID id,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+            @RequestBody @Valid final RoomDTO roomDTO) {
+        roomService.update(id, roomDTO, ifMatch);
         return ResponseEntity.ok(roomAssembler.toSimpleModel(id));
     }
 
@@ -2,35 +2,87 @@ package digi.booking.digi_booking_app.base.room;
 
 import digi.booking.digi_booking_app.base.RoomService;
 import digi.booking.digi_booking_app.base.events.BeforeDeleteRoom;
-import digi.booking.digi_booking_app.base.util.CustomCollectors;
+import digi.booking.digi_booking_app.base.events.RoomDeleted;
+import digi.booking.digi_booking_app.base.events.RoomSaved;
+import digi.booking.digi_booking_app.base.exception.PreconditionFailedException;
+import digi.booking.digi_booking_app.base.exception.RoomNumberTakenException;
+import digi.booking.digi_booking_app.base.model.CountMode;
+import digi.booking.digi_booking_app.base.model.CountedPage;
+import digi.booking.digi_booking_app.base.model.Cursor;
+import digi.booking.digi_booking_app.base.model.CursorPage;
+import digi.booking.digi_booking_app.base.model.ImportError;
+import digi.booking.digi_booking_app.base.model.ScrollRequest;
+import digi.booking.digi_booking_app.base.model.ValuesSnapshot;
+import digi.booking.digi_booking_app.base.util.EntityTags;
 import digi.booking.digi_booking_app.base.util.NotFoundException;
+import digi.booking.digi_booking_app.base.util.TableCounter;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 
 @Service
 public class RoomServiceImpl implements RoomService {
 
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final String TABLE = "rooms";
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final String ROOM_NUMBER_CONSTRAINT = "uq_rooms_room_number";
+    // backed by ix_rooms_room_number_id
+    private static final Sort SCROLL_ORDER = Sort.by("roomNumber", "id");
+
     private final RoomRepository roomRepository;
     private final ApplicationEventPublisher publisher;
     private final RoomMapper roomMapper;
+    private final RoomOccupancyIndex roomOccupancyIndex;
+    private final TableCounter tableCounter;
+    private final RoomValuesCache roomValuesCache;
 
     public RoomServiceImpl(final RoomRepository roomRepository,
-            final ApplicationEventPublisher publisher, final RoomMapper roomMapper) {
+            final ApplicationEventPublisher publisher, final RoomMapper roomMapper,
+            final RoomOccupancyIndex roomOccupancyIndex, final TableCounter tableCounter,
+            final RoomValuesCache roomValuesCache) {
         this.roomRepository = roomRepository;
         this.publisher = publisher;
         this.roomMapper = roomMapper;
+        this.roomOccupancyIndex = roomOccupancyIndex;
+        this.tableCounter = tableCounter;
+        this.roomValuesCache = roomValuesCache;
     }
 
+    /**
+     * Lists rooms with the total obtained as the count mode asks. Only an exact count runs
+     * count(*) on every request; the other modes read the page as a slice of size + 1 rows.
+     * The rows are read as DTO projections in a read-only transaction, so nothing is managed or
+     * dirty checked.
+     */
     @Override
-    public Page<RoomDTO> findAll(final String filter, final Pageable pageable) {
-        Page<Room> page;
+    @Transactional(readOnly = true)
+    public Page<RoomDTO> findAll(final String filter, final Pageable pageable, final CountMode countMode) {
         if (filter != null) {
             UUID uuidFilter = null;
             try {
@@ -38,15 +90,38 @@ public class RoomServiceImpl implements RoomService {
             } catch (final IllegalArgumentException illegalArgumentException) {
                 // keep null - no parseable input
             }
-            page = roomRepository.findAllById(uuidFilter, pageable);
-        } else {
-            page = roomRepository.findAll(pageable);
+            final Page<RoomDTO> page = roomRepository.findDTOsById(uuidFilter, pageable);
+            return new CountedPage<>(page.getContent(), pageable, page.getTotalElements(), CountMode.EXACT);
         }
-        return new PageImpl<>(page.getContent()
-                .stream()
-                .map(room -> roomMapper.updateRoomDTO(room, new RoomDTO()))
-                .toList(),
-                pageable, page.getTotalElements());
+        final CountMode mode = tableCounter.mode(TABLE, countMode);
+        if (mode == CountMode.EXACT) {
+            final Page<RoomDTO> page = roomRepository.findDTOs(pageable);
+            return new CountedPage<>(page.getContent(), pageable, page.getTotalElements(), CountMode.EXACT);
+        }
+        final Slice<RoomDTO> slice = roomRepository.findDTOSlice(pageable);
+        final List<RoomDTO> content = slice.getContent();
+        // the rows seen so far, plus one if there is a next page
+        final long seen = pageable.getOffset() + content.size() + (slice.hasNext() ? 1 : 0);
+        if (mode == CountMode.NONE) {
+            return new CountedPage<>(content, pageable, seen, CountMode.NONE);
+        }
+        final TableCounter.Count count = tableCounter.count(TABLE, mode, roomRepository::count);
+        return new CountedPage<>(content, pageable, Math.max(count.total(), seen), count.mode());
+    }
+
+    /**
+     * Keyset pagination over (room_number, id), without a count query.
+     */
+    @Override
+    public CursorPage<RoomDTO> scroll(final String after, final String before, final int size) {
+        final Cursor cursor = ScrollRequest.validate(after, before, size, MAX_SCROLL_SIZE);
+        final ScrollPosition position = cursor == null ? ScrollPosition.keyset()
+                : ScrollRequest.position(Map.of("roomNumber", ScrollRequest.parseInteger(cursor.key()),
+                        "id", cursor.id()), before != null);
+        final Window<Room> window = roomRepository.findAllBy(position, Limit.of(size), SCROLL_ORDER);
+        return CursorPage.of(window, before != null, after != null,
+                room -> Cursor.encode(room.getRoomNumber(), room.getId()),
+                room -> roomMapper.updateRoomDTO(room, new RoomDTO()));
     }
 
     @Override
@@ -60,15 +135,120 @@ public class RoomServiceImpl implements RoomService {
     public UUID create(final RoomDTO roomDTO) {
         final Room room = new Room();
         roomMapper.updateRoom(roomDTO, room);
-        return roomRepository.save(room).getId();
+        final Room saved;
+        try {
+            saved = roomRepository.save(room);
+        } catch (final DataIntegrityViolationException dataIntegrityViolationException) {
+            throw roomNumberTaken(dataIntegrityViolationException, roomDTO.getRoomNumber());
+        }
+        roomOccupancyIndex.putRoom(saved);
+        tableCounter.invalidate(TABLE);
+        publisher.publishEvent(new RoomSaved(saved.getId(), saved.getRoomType()));
+        return saved.getId();
+    }
+
+    /**
+     * Looks up the taken room numbers with one IN query and inserts the rest in JDBC batches.
+     * Room ids are generated in the application, so no insert waits for a sequence. If a
+     * concurrent import stores one of the numbers after the lookup, the unique constraint rejects
+     * the whole chunk; sending the import again skips the rooms stored by then.
+     */
+    @Override
+    @Transactional
+    public List<ImportError> createAll(final List<RoomDTO> roomDTOs) {
+        final Set<Integer> taken = new HashSet<>(roomRepository.findRoomNumbersIn(
+                roomDTOs.stream().map(RoomDTO::getRoomNumber).toList()));
+        final List<ImportError> skipped = new ArrayList<>();
+        final List<Room> rooms = new ArrayList<>(roomDTOs.size());
+        for (int index = 0; index < roomDTOs.size(); index++) {
+            final RoomDTO roomDTO = roomDTOs.get(index);
+            if (!taken.add(roomDTO.getRoomNumber())) {
+                skipped.add(new ImportError(index, "CONFLICT", "Room " + roomDTO.getRoomNumber() + " exists"));
+                continue;
+            }
+            final Room room = new Room();
+            roomMapper.updateRoom(roomDTO, room);
+            rooms.add(room);
+        }
+        final List<Room> saved;
+        try {
+            saved = roomRepository.saveAllAndFlush(rooms);
+        } catch (final DataIntegrityViolationException dataIntegrityViolationException) {
+            throw roomNumberTaken(dataIntegrityViolationException, null);
+        }
+        // RoomSaved listeners are transactional and run after commit already; the index is put
+        // after commit here, so rooms of an import that rolls back never show up in it
+        saved.forEach(room -> publisher.publishEvent(new RoomSaved(room.getId(), room.getRoomType())));
+        afterCommit(() -> {
+            saved.forEach(roomOccupancyIndex::putRoom);
+            tableCounter.invalidate(TABLE);
+        });
+        return skipped;
+    }
+
+    /**
+     * Reports a violation of the uq_rooms_room_number constraint as a taken room number and
+     * rethrows any other integrity violation.
+     *
+     * @param roomNumber the number that was written, or null for a batch
+     */
+    private static RuntimeException roomNumberTaken(final DataIntegrityViolationException exception,
+            final Integer roomNumber) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())
+                    && sqlException.getMessage() != null && sqlException.getMessage().contains(ROOM_NUMBER_CONSTRAINT)) {
+                return new RoomNumberTakenException(roomNumber == null ? "Room numbers were taken meanwhile"
+                        : "Room " + roomNumber + " exists");
+            }
+        }
+        return exception;
+    }
+
+    private static void afterCommit(final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+
+        });
     }
 
     @Override
-    public void update(final UUID id, final RoomDTO roomDTO) {
+    public OffsetDateTime getLastUpdated(final UUID id) {
+        return roomRepository.findLastUpdatedById(id)
+                .orElseThrow(NotFoundException::new);
+    }
+
+    /**
+     * Checks If-Match and writes the room in one transaction. The update is made conditional on
+     * the version that was read, so a writer that passed the check against a room changed
+     * meanwhile, or against a stale cached copy, fails as well.
+     */
+    @Override
+    @Transactional
+    public void update(final UUID id, final RoomDTO roomDTO, final String ifMatch) {
         final Room room = roomRepository.findById(id)
                 .orElseThrow(NotFoundException::new);
+        if (!EntityTags.matches(ifMatch, room.getLastUpdated())) {
+            throw new PreconditionFailedException("Room " + id + " was changed since it was read");
+        }
         roomMapper.updateRoom(roomDTO, room);
-        roomRepository.save(room);
+        final Room saved;
+        try {
+            saved = roomRepository.saveAndFlush(room);
+        } catch (final ObjectOptimisticLockingFailureException optimisticLockingFailureException) {
+            throw new PreconditionFailedException("Room " + id + " was changed since it was read");
+        } catch (final DataIntegrityViolationException dataIntegrityViolationException) {
+            throw roomNumberTaken(dataIntegrityViolationException, roomDTO.getRoomNumber());
+        }
+        publisher.publishEvent(new RoomSaved(id, saved.getRoomType()));
+        afterCommit(() -> roomOccupancyIndex.putRoom(saved));
     }
 
     @Override
@@ -77,13 +257,35 @@ public class RoomServiceImpl implements RoomService {
                 .orElseThrow(NotFoundException::new);
         publisher.publishEvent(new BeforeDeleteRoom(id));
         roomRepository.delete(room);
+        roomOccupancyIndex.removeRoom(id);
+        tableCounter.invalidate(TABLE);
+        publisher.publishEvent(new RoomDeleted(id));
     }
 
     @Override
-    public Map<UUID, String> getRoomValues() {
-        return roomRepository.findAll(Sort.by("id"))
+    public Page<RoomDTO> findAvailable(final LocalDate checkin, final LocalDate checkout,
+            final Integer capacity, final String roomType, final Pageable pageable) {
+        if (!checkout.isAfter(checkin)) {
+            throw new IllegalArgumentException("Checkout must be after checkin");
+        }
+        final List<UUID> available = roomOccupancyIndex.findAvailable(checkin, checkout, capacity, roomType);
+        final int from = (int) Math.min(pageable.getOffset(), available.size());
+        final List<UUID> pageIds = available.subList(from, Math.min(from + pageable.getPageSize(), available.size()));
+        // load only the rooms of the requested page and keep the order of the index
+        final Map<UUID, Room> rooms = roomRepository.findAllById(pageIds)
                 .stream()
-                .collect(CustomCollectors.toSortedMap(Room::getId, Room::getRoomType));
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+        return new PageImpl<>(pageIds.stream()
+                .map(rooms::get)
+                .filter(Objects::nonNull)
+                .map(room -> roomMapper.updateRoomDTO(room, new RoomDTO()))
+                .toList(),
+                pageable, available.size());
+    }
+
+    @Override
+    public ValuesSnapshot<UUID> getRoomValues() {
+        return roomValuesCache.get();
     }
 
 }
@@ -0,0 +1,10 @@
+package digi.booking.digi_booking_app.base.room;
+
+import java.util.UUID;
+
+
+/**
+ * Id and label of a room, for dropdowns.
+ */
+public record RoomValue(UUID id, String roomType) {
+}
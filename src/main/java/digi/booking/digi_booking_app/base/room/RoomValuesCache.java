@@ -0,0 +1,40 @@
+package digi.booking.digi_booking_app.base.room;
+
+import digi.booking.digi_booking_app.base.events.RoomDeleted;
+import digi.booking.digi_booking_app.base.events.RoomSaved;
+import digi.booking.digi_booking_app.base.util.ValuesSnapshotCache;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+
+/**
+ * The room dropdown values, kept current from room events once they are committed.
+ */
+@Component
+public class RoomValuesCache extends ValuesSnapshotCache<UUID> {
+
+    public RoomValuesCache(final RoomRepository roomRepository,
+            @Value("${booking.values.max-age:PT5M}") final Duration maxAge) {
+        // ordered by the text form, which matches the uuid order of Postgres
+        super(() -> roomRepository.findAllValues()
+                        .stream()
+                        .collect(Collectors.toMap(RoomValue::id, RoomValue::roomType)),
+                Comparator.comparing(UUID::toString), maxAge);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomSaved(final RoomSaved roomSaved) {
+        put(roomSaved.getId(), roomSaved.getRoomType());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomDeleted(final RoomDeleted roomDeleted) {
+        remove(roomDeleted.getId());
+    }
+
+}
@@ -0,0 +1,34 @@
+package digi.booking.digi_booking_app.base.user;
+
+import digi.booking.digi_booking_app.base.events.UserDeleted;
+import digi.booking.digi_booking_app.base.events.UserSaved;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+
+/**
+ * Publishes changes of users written through JPA. Users are created by the identity provider
+ * as well, which the max age of {@link UserValuesCache} covers.
+ */
+public class UserChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    public UserChangeListener(final ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(final User user) {
+        publisher.publishEvent(new UserSaved(user.getKeycloakId(), user.getEmail()));
+    }
+
+    @PostRemove
+    public void onRemoved(final User user) {
+        publisher.publishEvent(new UserDeleted(user.getKeycloakId()));
+    }
+
+}
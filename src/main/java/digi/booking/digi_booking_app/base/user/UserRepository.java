@@ -1,7 +1,13 @@
 package digi.booking.digi_booking_app.base.user;
 
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    @Query("SELECT new digi.booking.digi_booking_app.base.user.UserValue(u.keycloakId, u.email) FROM User u")
+    List<UserValue> findAllValues();
+
 }
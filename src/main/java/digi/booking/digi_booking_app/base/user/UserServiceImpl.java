@@ -1,26 +1,22 @@
 package digi.booking.digi_booking_app.base.user;
 
 import digi.booking.digi_booking_app.base.UserService;
-import digi.booking.digi_booking_app.base.util.CustomCollectors;
-import java.util.Map;
-import org.springframework.data.domain.Sort;
+import digi.booking.digi_booking_app.base.model.ValuesSnapshot;
 import org.springframework.stereotype.Service;
 
 
 @Service
 public class UserServiceImpl implements UserService {
 
-    private final UserRepository userRepository;
+    private final UserValuesCache userValuesCache;
 
-    public UserServiceImpl(final UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public UserServiceImpl(final UserValuesCache userValuesCache) {
+        this.userValuesCache = userValuesCache;
     }
 
     @Override
-    public Map<Long, String> getUserValues() {
-        return userRepository.findAll(Sort.by("keycloakId"))
-                .stream()
-                .collect(CustomCollectors.toSortedMap(User::getKeycloakId, User::getEmail));
+    public ValuesSnapshot<Long> getUserValues() {
+        return userValuesCache.get();
     }
 
 }
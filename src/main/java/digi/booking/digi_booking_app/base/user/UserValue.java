@@ -0,0 +1,8 @@
+package digi.booking.digi_booking_app.base.user;
+
+
+/**
+ * Id and label of a user, for dropdowns.
+ */
+public record UserValue(Long id, String email) {
+}
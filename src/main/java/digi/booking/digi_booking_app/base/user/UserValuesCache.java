@@ -0,0 +1,38 @@
+package digi.booking.digi_booking_app.base.user;
+
+import digi.booking.digi_booking_app.base.events.UserDeleted;
+import digi.booking.digi_booking_app.base.events.UserSaved;
+import digi.booking.digi_booking_app.base.util.ValuesSnapshotCache;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+
+/**
+ * The user dropdown values, kept current from user events once they are committed.
+ */
+@Component
+public class UserValuesCache extends ValuesSnapshotCache<Long> {
+
+    public UserValuesCache(final UserRepository userRepository,
+            @Value("${booking.values.max-age:PT5M}") final Duration maxAge) {
+        super(() -> userRepository.findAllValues()
+                        .stream()
+                        .collect(Collectors.toMap(UserValue::id, UserValue::email)),
+                Comparator.naturalOrder(), maxAge);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserSaved(final UserSaved userSaved) {
+        put(userSaved.getId(), userSaved.getEmail());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(final UserDeleted userDeleted) {
+        remove(userDeleted.getId());
+    }
+
+}
@@ -0,0 +1,295 @@
+package digi.booking.digi_booking_app.base.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import digi.booking.digi_booking_app.base.model.ImportError;
+import digi.booking.digi_booking_app.base.model.ImportResult;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Reads NDJSON or CSV records one at a time, validates each like a request body and hands the
+ * valid ones to a writer in chunks. Only the current chunk is held in memory, so an import can
+ * be as large as the client sends. Every chunk is stored on its own: a failing line never takes
+ * the others down, and a broken connection keeps what was stored before it.
+ */
+@Slf4j
+@Component
+public class BulkImport {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public BulkImport(final ObjectMapper objectMapper, final Validator validator,
+            @Value("${booking.import.chunk-size:500}") final int chunkSize,
+            @Value("${booking.import.max-errors:1000}") final int maxErrors) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * @param name what is imported, for the log
+     * @param writer stores one chunk and returns its rejected items, each with its position in
+     *               the chunk as line
+     */
+    public <T> ImportResult run(final String name, final InputStream inputStream, final ExportFormat format,
+            final Class<T> type, final Function<List<T>, List<ImportError>> writer) throws IOException {
+        final Progress progress = new Progress(name);
+        final List<T> chunk = new ArrayList<>(chunkSize);
+        final List<Long> chunkLines = new ArrayList<>(chunkSize);
+        final RecordReader reader = format == ExportFormat.CSV ? new CsvReader(inputStream)
+                : new NdjsonReader(inputStream);
+        while (reader.hasNext()) {
+            progress.records++;
+            final long line = reader.line();
+            final T item;
+            try {
+                item = objectMapper.treeToValue(reader.next(), type);
+            } catch (final JsonProcessingException jsonProcessingException) {
+                progress.fail(new ImportError(line, ImportError.INVALID, jsonProcessingException.getOriginalMessage()));
+                continue;
+            } catch (final IllegalArgumentException illegalArgumentException) {
+                progress.fail(new ImportError(line, ImportError.INVALID, illegalArgumentException.getMessage()));
+                continue;
+            }
+            final String problem = validate(item);
+            if (problem != null) {
+                progress.fail(new ImportError(line, ImportError.INVALID, problem));
+                continue;
+            }
+            chunk.add(item);
+            chunkLines.add(line);
+            if (chunk.size() == chunkSize) {
+                progress.stored(chunk, chunkLines, writer.apply(chunk));
+            }
+        }
+        if (!chunk.isEmpty()) {
+            progress.stored(chunk, chunkLines, writer.apply(chunk));
+        }
+        return progress.finish();
+    }
+
+    private String validate(final Object item) {
+        final Set<ConstraintViolation<Object>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private final class Progress {
+
+        private final String name;
+        private final long start = System.nanoTime();
+        private final List<ImportError> errors = new ArrayList<>();
+        private long records;
+        private long imported;
+        private long failed;
+
+        private Progress(final String name) {
+            this.name = name;
+        }
+
+        private void fail(final ImportError error) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            }
+        }
+
+        private void stored(final List<?> chunk, final List<Long> chunkLines, final List<ImportError> rejected) {
+            rejected.forEach(error -> fail(error.atLine(chunkLines.get((int) error.line()))));
+            imported += chunk.size() - rejected.size();
+            chunk.clear();
+            chunkLines.clear();
+            log.info("Importing {}: {} of {} records stored, {} failed", name, imported, records, failed);
+        }
+
+        private ImportResult finish() {
+            final long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            log.info("Imported {} {} of {} records in {} ms ({} records/s), {} failed", imported, name, records,
+                    millis, records * 1_000 / millis, failed);
+            // lines rejected by the writer are only known once their chunk is stored
+            errors.sort(Comparator.comparingLong(ImportError::line));
+            return new ImportResult(records, imported, failed, List.copyOf(errors));
+        }
+
+    }
+
+    private interface RecordReader {
+
+        boolean hasNext() throws IOException;
+
+        /**
+         * @return the line the current record started on
+         */
+        long line();
+
+        /**
+         * @throws JsonProcessingException if the record is not readable; the reader has moved past it
+         */
+        JsonNode next() throws JsonProcessingException;
+
+    }
+
+    private final class NdjsonReader implements RecordReader {
+
+        private final BufferedReader reader;
+        private long line;
+        private String current;
+
+        private NdjsonReader(final InputStream inputStream) {
+            this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            do {
+                current = reader.readLine();
+                line++;
+            } while (current != null && current.isBlank());
+            return current != null;
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+
+        @Override
+        public JsonNode next() throws JsonProcessingException {
+            return objectMapper.readTree(current);
+        }
+
+    }
+
+    /**
+     * RFC 4180 records with a header line naming the fields. Empty fields are left out, so they
+     * read as null.
+     */
+    private final class CsvReader implements RecordReader {
+
+        private final BufferedReader reader;
+        private final List<String> header;
+        private long line = 1;
+        private long recordLine;
+        private List<String> current;
+        private String problem;
+
+        private CsvReader(final InputStream inputStream) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            final List<String> names = readRecord();
+            this.header = names == null ? List.of() : names.stream().map(String::trim).toList();
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            do {
+                recordLine = line;
+                problem = null;
+                current = readRecord();
+            } while (current != null && current.size() == 1 && current.get(0).isEmpty() && problem == null);
+            return current != null;
+        }
+
+        @Override
+        public long line() {
+            return recordLine;
+        }
+
+        @Override
+        public JsonNode next() {
+            if (problem != null) {
+                throw new IllegalArgumentException(problem);
+            }
+            if (current.size() != header.size()) {
+                throw new IllegalArgumentException("Expected " + header.size() + " fields but found "
+                        + current.size());
+            }
+            final ObjectNode node = objectMapper.createObjectNode();
+            for (int i = 0; i < header.size(); i++) {
+                if (!current.get(i).isEmpty()) {
+                    node.put(header.get(i), current.get(i));
+                }
+            }
+            return node;
+        }
+
+        private List<String> readRecord() throws IOException {
+            int next = reader.read();
+            if (next < 0) {
+                return null;
+            }
+            final List<String> fields = new ArrayList<>();
+            final StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (next < 0) {
+                        problem = "Quoted field is not closed";
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                    if (next == '"') {
+                        next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                            next = reader.read();
+                        } else {
+                            quoted = false;
+                        }
+                        continue;
+                    }
+                    if (next == '\n') {
+                        line++;
+                    }
+                    field.append((char) next);
+                } else if (next < 0 || next == '\n') {
+                    line++;
+                    fields.add(stripCarriageReturn(field));
+                    return fields;
+                } else if (next == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (next == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else {
+                    field.append((char) next);
+                }
+                next = reader.read();
+            }
+        }
+
+        private static String stripCarriageReturn(final StringBuilder field) {
+            final int length = field.length();
+            return length > 0 && field.charAt(length - 1) == '\r' ? field.substring(0, length - 1)
+                    : field.toString();
+        }
+
+    }
+
+}
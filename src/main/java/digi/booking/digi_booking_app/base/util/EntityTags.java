@@ -0,0 +1,64 @@
+package digi.booking.digi_booking_app.base.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.http.ETag;
+import org.springframework.util.DigestUtils;
+
+
+/**
+ * Strong ETags derived from the audited lastUpdated column. Postgres keeps microseconds, so the
+ * tag is computed at that precision and is the same whether the time comes from a fresh entity
+ * or from the database.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * @return the unquoted tag of one entity version
+     */
+    public static String of(final OffsetDateTime lastUpdated) {
+        final Instant instant = lastUpdated.toInstant();
+        // rounded like the driver does when it writes the timestamp
+        final long micros = instant.getEpochSecond() * 1_000_000 + (instant.getNano() + 500) / 1_000;
+        return Long.toString(micros, 36);
+    }
+
+    /**
+     * A page-level tag: changes when an item on the page is added, removed, reordered or updated,
+     * or when any of the extras, such as the total or the cursors, change.
+     */
+    public static <T> String of(final List<T> items, final Function<T, ?> id,
+            final Function<T, OffsetDateTime> lastUpdated, final Object... extras) {
+        final StringBuilder content = new StringBuilder();
+        for (final T item : items) {
+            final OffsetDateTime version = lastUpdated.apply(item);
+            content.append(id.apply(item)).append('@').append(version == null ? "" : of(version)).append('\n');
+        }
+        for (final Object extra : extras) {
+            content.append(extra).append('\n');
+        }
+        return DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Checks an If-Match header against the current version; a missing header always matches.
+     *
+     * @param ifMatch the raw header, a list of tags or *
+     */
+    public static boolean matches(final String ifMatch, final OffsetDateTime lastUpdated) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return true;
+        }
+        final String current = of(lastUpdated);
+        // If-Match uses the strong comparison, a weak tag never matches
+        return ETag.parse(ifMatch).stream()
+                .anyMatch(tag -> tag.isWildcard() || !tag.weak() && tag.tag().equals(current));
+    }
+
+}
@@ -0,0 +1,163 @@
+package digi.booking.digi_booking_app.base.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.http.MediaType;
+
+
+/**
+ * Line formats of the streaming exports. Both write one line per row and nothing else, so a
+ * consumer can process the output as it arrives.
+ */
+public enum ExportFormat {
+
+    /** one JSON object per line, keyed by column */
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson") {
+        @Override
+        RowWriter open(final OutputStream outputStream, final List<String> columns) throws IOException {
+            final JsonGenerator generator = JSON.createGenerator(outputStream);
+            generator.setRootValueSeparator(null);
+            return new RowWriter() {
+
+                @Override
+                public void write(final Object[] values) throws IOException {
+                    generator.writeStartObject();
+                    for (int i = 0; i < values.length; i++) {
+                        generator.writeFieldName(columns.get(i));
+                        writeValue(generator, values[i]);
+                    }
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+
+                @Override
+                public void close() throws IOException {
+                    generator.close();
+                }
+
+            };
+        }
+    },
+
+    /** RFC 4180 with a header line */
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv") {
+        @Override
+        RowWriter open(final OutputStream outputStream, final List<String> columns) throws IOException {
+            final Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            writeLine(writer, columns.toArray());
+            return new RowWriter() {
+
+                @Override
+                public void write(final Object[] values) throws IOException {
+                    writeLine(writer, values);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    // the caller owns the stream, it is only flushed here
+                    writer.flush();
+                }
+
+            };
+        }
+    };
+
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(final MediaType mediaType, final String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @param value the format parameter, null for NDJSON
+     */
+    public static ExportFormat parse(final String value) {
+        if (value == null) {
+            return NDJSON;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException illegalArgumentException) {
+            throw new IllegalArgumentException("Cannot export as " + value + ", use ndjson or csv");
+        }
+    }
+
+    /**
+     * @param contentType the Content-Type of a request body, null for NDJSON
+     */
+    public static ExportFormat of(final MediaType contentType) {
+        if (contentType != null && CSV.mediaType.isCompatibleWith(contentType)) {
+            return CSV;
+        }
+        return NDJSON;
+    }
+
+    abstract RowWriter open(OutputStream outputStream, List<String> columns) throws IOException;
+
+    private static void writeValue(final JsonGenerator generator, final Object value) throws IOException {
+        switch (value) {
+            case null -> generator.writeNull();
+            case Boolean bool -> generator.writeBoolean(bool);
+            case Integer integer -> generator.writeNumber(integer);
+            case Long number -> generator.writeNumber(number);
+            case BigDecimal decimal -> generator.writeNumber(decimal);
+            default -> generator.writeString(value.toString());
+        }
+    }
+
+    private static void writeLine(final Writer writer, final Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writeField(writer, values[i].toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeField(final Writer writer, final String field) throws IOException {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0
+                && field.indexOf('\r') < 0) {
+            writer.write(field);
+            return;
+        }
+        writer.write('"');
+        writer.write(field.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    interface RowWriter extends AutoCloseable {
+
+        void write(Object[] values) throws IOException;
+
+        @Override
+        void close() throws IOException;
+
+    }
+
+}
@@ -0,0 +1,171 @@
+package digi.booking.digi_booking_app.base.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+
+/**
+ * Streams the rows of a query to the client while reading them. The rows come through a
+ * forward-only JDBC cursor with the configured fetch size and are written one by one, without
+ * entities or a persistence context, so memory stays flat however many rows there are.
+ */
+@Component
+public class StreamingExport {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+
+    public StreamingExport(final DataSource dataSource, final PlatformTransactionManager transactionManager,
+            @Value("${booking.export.fetch-size:1000}") final int fetchSize) {
+        // own template and transaction for the same reasons as RoomCalendar: fetch size and cursor
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Sends the export as an attachment, gzipped on the fly when the client accepts it.
+     *
+     * @param name the file name without extension
+     * @param acceptEncoding the Accept-Encoding header of the request, or null
+     */
+    public static ResponseEntity<StreamingResponseBody> response(final String name, final ExportFormat format,
+            final String acceptEncoding, final StreamingResponseBody body) {
+        final boolean gzip = acceptsGzip(acceptEncoding);
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(name + "." + format.getExtension()).build().toString());
+        if (!gzip) {
+            return response.body(body);
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(outputStream -> {
+                    try (GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 64 * 1024)) {
+                        body.writeTo(gzipStream);
+                    }
+                });
+    }
+
+    /**
+     * Reads gzip, or the * wildcard, from an Accept-Encoding header with its quality value. A
+     * coding listed by name overrides the wildcard, and q=0 means "not acceptable".
+     */
+    static boolean acceptsGzip(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (final String coding : acceptEncoding.split(",")) {
+            final String[] parameters = coding.split(";");
+            final String name = parameters[0].strip().toLowerCase(Locale.ROOT);
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = quality(parameters);
+            } else if (name.equals("*")) {
+                any = quality(parameters);
+            }
+        }
+        final Double quality = gzip != null ? gzip : any;
+        return quality != null && quality > 0;
+    }
+
+    private static double quality(final String[] parameters) {
+        for (int index = 1; index < parameters.length; index++) {
+            final String parameter = parameters[index].strip().toLowerCase(Locale.ROOT);
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (final NumberFormatException numberFormatException) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * @param columns the names of the selected columns, in order
+     */
+    public void write(final String sql, final List<Object> args, final List<String> columns,
+            final ExportFormat format, final OutputStream outputStream) {
+        readTransaction.executeWithoutResult(status -> {
+            try (ExportFormat.RowWriter writer = format.open(outputStream, columns)) {
+                jdbcTemplate.query(sql, (RowCallbackHandler) resultSet -> {
+                    try {
+                        writer.write(values(resultSet, columns.size()));
+                    } catch (final IOException ioException) {
+                        throw new UncheckedIOException(ioException);
+                    }
+                }, args.toArray());
+            } catch (final IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+        });
+    }
+
+    private static Object[] values(final ResultSet resultSet, final int count) throws SQLException {
+        final ResultSetMetaData metaData = resultSet.getMetaData();
+        final Object[] values = new Object[count];
+        for (int column = 1; column <= count; column++) {
+            values[column - 1] = switch (metaData.getColumnType(column)) {
+                case Types.DATE -> resultSet.getObject(column, LocalDate.class);
+                case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE ->
+                        resultSet.getObject(column, OffsetDateTime.class);
+                default -> resultSet.getObject(column);
+            };
+        }
+        return values;
+    }
+
+    /**
+     * Collects the WHERE conditions and their arguments of an export query.
+     */
+    public static final class Conditions {
+
+        private final List<String> conditions = new ArrayList<>();
+        private final List<Object> args = new ArrayList<>();
+
+        public Conditions add(final String condition, final Object arg) {
+            if (arg != null) {
+                conditions.add(condition);
+                args.add(arg);
+            }
+            return this;
+        }
+
+        public String where() {
+            return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        }
+
+        public List<Object> args() {
+            return args;
+        }
+
+    }
+
+}
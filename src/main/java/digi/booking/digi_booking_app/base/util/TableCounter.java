@@ -0,0 +1,83 @@
+package digi.booking.digi_booking_app.base.util;
+
+import digi.booking.digi_booking_app.base.model.CountMode;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Totals for paged listings of whole tables. The mode of a table defaults to
+ * booking.count.&lt;table&gt; and can be overridden per request. Cached counts expire after
+ * booking.count.cache-ttl and are dropped by the services when they insert or delete rows;
+ * estimates come from pg_class.reltuples, which autovacuum and ANALYZE keep current, and fall
+ * back to an exact count for a table that was never analyzed.
+ */
+@Component
+@Slf4j
+public class TableCounter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Environment environment;
+    private final long cacheTtlMillis;
+    private final Map<String, CachedCount> cachedCounts = new ConcurrentHashMap<>();
+
+    public TableCounter(final JdbcTemplate jdbcTemplate, final Environment environment,
+            @Value("${booking.count.cache-ttl:PT30S}") final Duration cacheTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.environment = environment;
+        this.cacheTtlMillis = cacheTtl.toMillis();
+    }
+
+    /**
+     * @param requested the mode asked for by the request, or null for the configured one
+     */
+    public CountMode mode(final String table, final CountMode requested) {
+        return requested != null ? requested
+                : environment.getProperty("booking.count." + table, CountMode.class, CountMode.EXACT);
+    }
+
+    /**
+     * @param mode {@link CountMode#CACHED} or {@link CountMode#ESTIMATED}
+     * @param exact runs the exact count when needed
+     * @return the total and the mode it was actually obtained with
+     */
+    public Count count(final String table, final CountMode mode, final LongSupplier exact) {
+        if (mode == CountMode.CACHED) {
+            final long now = System.currentTimeMillis();
+            final CachedCount cached = cachedCounts.get(table);
+            if (cached != null && cached.expiresAtMillis() > now) {
+                return new Count(cached.total(), CountMode.CACHED);
+            }
+            final long total = exact.getAsLong();
+            cachedCounts.put(table, new CachedCount(total, now + cacheTtlMillis));
+            return new Count(total, CountMode.EXACT);
+        }
+        if (mode == CountMode.ESTIMATED) {
+            final Long estimate = jdbcTemplate.queryForObject(
+                    "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", Long.class, table);
+            if (estimate != null && estimate >= 0) {
+                return new Count(estimate, CountMode.ESTIMATED);
+            }
+            log.debug("No row estimate for {} yet; counting", table);
+        }
+        return new Count(exact.getAsLong(), CountMode.EXACT);
+    }
+
+    public void invalidate(final String table) {
+        cachedCounts.remove(table);
+    }
+
+    public record Count(long total, CountMode mode) {
+    }
+
+    private record CachedCount(long total, long expiresAtMillis) {
+    }
+
+}
@@ -0,0 +1,94 @@
+package digi.booking.digi_booking_app.base.util;
+
+import digi.booking.digi_booking_app.base.model.ValuesSnapshot;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.springframework.util.DigestUtils;
+
+
+/**
+ * Holds an id to label map as an immutable snapshot. Reads return the current snapshot without
+ * locking; changes copy it, so a snapshot handed out never changes. After the max age the map is
+ * loaded again in full, which picks up writes of other replicas or from outside the application.
+ */
+public class ValuesSnapshotCache<K> {
+
+    private final Supplier<Map<K, String>> loader;
+    private final Comparator<? super K> order;
+    private final long maxAgeNanos;
+    // not synchronized, a virtual thread must not pin while the loader queries the database
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Entry<K> current;
+
+    public ValuesSnapshotCache(final Supplier<Map<K, String>> loader, final Comparator<? super K> order,
+            final Duration maxAge) {
+        this.loader = loader;
+        this.order = order;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    public ValuesSnapshot<K> get() {
+        final Entry<K> entry = current;
+        if (isFresh(entry)) {
+            return entry.snapshot();
+        }
+        lock.lock();
+        try {
+            if (!isFresh(current)) {
+                final TreeMap<K, String> values = new TreeMap<>(order);
+                values.putAll(loader.get());
+                current = new Entry<>(snapshot(values), System.nanoTime());
+            }
+            return current.snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(final K key, final String label) {
+        update(values -> values.put(key, label));
+    }
+
+    public void remove(final K key) {
+        update(values -> values.remove(key));
+    }
+
+    private void update(final Consumer<TreeMap<K, String>> change) {
+        lock.lock();
+        try {
+            final Entry<K> entry = current;
+            if (entry == null) {
+                // nothing loaded yet, the first read sees the change
+                return;
+            }
+            final TreeMap<K, String> values = new TreeMap<>((SortedMap<K, String>) entry.snapshot().values());
+            change.accept(values);
+            current = new Entry<>(snapshot(values), entry.loadedAt());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isFresh(final Entry<K> entry) {
+        return entry != null && System.nanoTime() - entry.loadedAt() < maxAgeNanos;
+    }
+
+    private static <K> ValuesSnapshot<K> snapshot(final SortedMap<K, String> values) {
+        final StringBuilder content = new StringBuilder();
+        values.forEach((key, label) -> content.append(key).append('=').append(label).append('\n'));
+        return new ValuesSnapshot<>(Collections.unmodifiableSortedMap(values),
+                DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private record Entry<K>(ValuesSnapshot<K> snapshot, long loadedAt) {
+    }
+
+}
@@ -16,8 +16,8 @@ public class HomeResource {
     @GetMapping("/home")
     public RepresentationModel<?> index() {
         return RepresentationModel.of(null)
-                .add(WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookingResource.class).getAllBookings(null, null)).withRel("bookings"))
-                .add(WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(RoomResource.class).getAllRooms(null, null)).withRel("rooms"));
+                .add(WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookingResource.class).getAllBookings(null, null, null, null, null)).withRel("bookings"))
+                .add(WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(RoomResource.class).getAllRooms(null, null, null)).withRel("rooms"));
     }
 
 }
@@ -0,0 +1,41 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import digi.booking.digi_booking_app.base.events.BookingCancelled;
+import digi.booking.digi_booking_app.base.events.BookingCreated;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.actuate.audit.InMemoryAuditEventRepository;
+
+class BookingAuditListenerTest {
+
+    private final InMemoryAuditEventRepository auditEventRepository = new InMemoryAuditEventRepository();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookingAuditListener listener = new BookingAuditListener(auditEventRepository, meterRegistry);
+
+    @Test
+    void recordsAuditEventsAndLag() {
+        UUID bookingId = UUID.randomUUID();
+        UUID roomId = UUID.randomUUID();
+        Instant occurredAt = Instant.now().minusSeconds(2);
+
+        listener.onCreated(new BookingCreated(bookingId, roomId, 1100L, LocalDate.of(2030, 1, 10),
+                LocalDate.of(2030, 1, 12), "ACTIVE", occurredAt));
+        listener.onCancelled(new BookingCancelled(bookingId, roomId, 1100L, occurredAt));
+
+        List<AuditEvent> events = auditEventRepository.find("1100", null, null);
+        assertThat(events).extracting(AuditEvent::getType)
+                .containsExactlyInAnyOrder("BOOKING_CREATED", "BOOKING_CANCELLED");
+        assertThat(events).allSatisfy(event -> assertThat(event.getData()).containsEntry("booking", bookingId));
+        assertThat(meterRegistry.get("booking.events.lag").tag("event", "BOOKING_CREATED").timer()
+                .totalTime(TimeUnit.SECONDS)).isGreaterThanOrEqualTo(2.0);
+    }
+
+}
@@ -0,0 +1,112 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import digi.booking.digi_booking_app.DigiBookingAppApplication;
+import digi.booking.digi_booking_app.base.BookingService;
+import digi.booking.digi_booking_app.base.config.BaseIT;
+import digi.booking.digi_booking_app.base.config.CapturingStatementInspector;
+import digi.booking.digi_booking_app.base.config.QueryPlans;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.modulith.test.ApplicationModuleTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+/**
+ * Runs every filter shape of the booking search, and checks with EXPLAIN that the planner answers
+ * the captured queries from the index meant for that shape, with the filtered columns in its index
+ * condition. With sequential scans switched off any plan reads some index, so only the index name
+ * and its condition show that the predicate is actually served by it.
+ */
+@ApplicationModuleTest(
+        classes = DigiBookingAppApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        mode = ApplicationModuleTest.BootstrapMode.ALL_DEPENDENCIES
+)
+class BookingFilterIndexTest extends BaseIT {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    static Stream<Arguments> filterShapes() {
+        return Stream.of(
+                shape("status", "ix_bookings_status_checkin_date", List.of("status"),
+                        filter -> filter.setStatus(BookingStatus.ACTIVE)),
+                shape("status and checkin range", "ix_bookings_status_checkin_date",
+                        List.of("status", "checkin_date"), filter -> {
+                    filter.setStatus(BookingStatus.ACTIVE);
+                    filter.setCheckinFrom(LocalDate.of(2030, 1, 1));
+                    filter.setCheckinTo(LocalDate.of(2030, 1, 31));
+                }),
+                shape("checkin range", "ix_bookings_checkin_date_id", List.of("checkin_date"), filter -> {
+                    filter.setCheckinFrom(LocalDate.of(2030, 1, 1));
+                    filter.setCheckinTo(LocalDate.of(2030, 1, 31));
+                }),
+                shape("checkout range", "ix_bookings_checkout_date", List.of("checkout_date"), filter -> {
+                    filter.setCheckoutFrom(LocalDate.of(2030, 1, 1));
+                    filter.setCheckoutTo(LocalDate.of(2030, 1, 31));
+                }),
+                shape("room", "ix_bookings_room_id_checkin_date", List.of("room_id"),
+                        filter -> filter.setRoom(UUID.randomUUID())),
+                shape("room number", "ix_bookings_room_id_checkin_date", List.of("room_id"),
+                        filter -> filter.setRoomNumber(101)),
+                shape("user", "ix_bookings_user_id_checkin_date", List.of("user_id"),
+                        filter -> filter.setUser(1100L)),
+                shape("arriving today", "ix_bookings_checkin_date_id", List.of("checkin_date"),
+                        filter -> filter.setArrivingToday(true)),
+                shape("active arriving today", "ix_bookings_status_checkin_date",
+                        List.of("status", "checkin_date"), filter -> {
+                    filter.setStatus(BookingStatus.ACTIVE);
+                    filter.setArrivingToday(true);
+                }));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filterShapes")
+    void search_usesIndex(final String name, final String index, final List<String> columns,
+            final BookingFilter bookingFilter) {
+        CapturingStatementInspector.clear();
+        bookingService.search(bookingFilter, PageRequest.of(0, 20));
+
+        final List<String> queries = CapturingStatementInspector.statements().stream()
+                .filter(sql -> sql.startsWith("select") && sql.contains(" from bookings "))
+                .toList();
+        assertThat(queries).isNotEmpty();
+        for (final String query : queries) {
+            final String plan = QueryPlans.explain(jdbcTemplate, transactionTemplate, query);
+            assertThat(plan).as(query).doesNotContain("Seq Scan on bookings").contains(" " + index + " ");
+            final List<String> indexConditions = plan.lines()
+                    .map(String::strip)
+                    .filter(line -> line.startsWith("Index Cond:"))
+                    .toList();
+            for (final String column : columns) {
+                assertThat(indexConditions).as(plan).anyMatch(condition -> condition.contains(column));
+            }
+        }
+    }
+
+    private static Arguments shape(final String name, final String index, final List<String> columns,
+            final Consumer<BookingFilter> criteria) {
+        final BookingFilter bookingFilter = new BookingFilter();
+        criteria.accept(bookingFilter);
+        return Arguments.of(name, index, columns, bookingFilter);
+    }
+
+}
@@ -0,0 +1,119 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.management.ThreadMXBean;
+import digi.booking.digi_booking_app.DigiBookingAppApplication;
+import digi.booking.digi_booking_app.base.BookingService;
+import digi.booking.digi_booking_app.base.config.BaseIT;
+import digi.booking.digi_booking_app.base.model.CountMode;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.modulith.test.ApplicationModuleTest;
+
+
+/**
+ * Latency and allocation of one listing page, read as entities and mapped by MapStruct as the
+ * listing used to, against the DTO projection behind {@link BookingService#findAll}, for pages
+ * of 100 and 1000 rows. Allocation is the bytes allocated by the calling thread. Excluded from
+ * the default build; run with
+ * {@code mvn test -Dtest.excludedGroups= -Dgroups=benchmark -Dtest=BookingListingBenchmark}.
+ */
+@Tag("benchmark")
+@ApplicationModuleTest(
+        classes = DigiBookingAppApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        mode = ApplicationModuleTest.BootstrapMode.ALL_DEPENDENCIES
+)
+class BookingListingBenchmark extends BaseIT {
+
+    private static final int BOOKINGS = 5_000;
+    private static final int WARMUP = 50;
+    private static final int RUNS = 200;
+    private static final LocalDate FIRST_CHECKIN = LocalDate.of(2020, 1, 1);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingMapper bookingMapper;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareListingReads() {
+        seed();
+        for (final int size : List.of(100, 1_000)) {
+            final Pageable pageable = PageRequest.of(1, size, Sort.by("id"));
+            final Result entities = run("entities + mapper", pageable, page -> bookingRepository.findAll(page)
+                    .map(booking -> bookingMapper.updateBookingDTO(booking, new BookingDTO())).getContent());
+            final Result projection = run("DTO projection", pageable,
+                    page -> bookingService.findAll(null, page, CountMode.EXACT).getContent());
+            System.out.println(entities);
+            System.out.println(projection);
+            assertThat(projection.bytes()).isLessThan(entities.bytes());
+        }
+    }
+
+    /**
+     * Back-to-back two-night stays over 100 rooms, so the foreign keys resolve to real rows.
+     */
+    private void seed() {
+        jdbcTemplate.update("INSERT INTO users (keycloak_id, email, first_name, last_name, active, "
+                + "date_created, last_updated) VALUES (1, 'bench@invalid.io', 'Bench', 'Mark', TRUE, now(), now())");
+        jdbcTemplate.update("INSERT INTO rooms (id, room_number, room_type, capacity, price, amenities, active, "
+                + "date_created, last_updated) SELECT gen_random_uuid(), n, 'STANDARD', 2, 100, '', TRUE, now(), now() "
+                + "FROM generate_series(1, 100) n");
+        jdbcTemplate.update("INSERT INTO bookings (id, checkin_date, checkout_date, status, user_id, room_id, "
+                + "date_created, last_updated) SELECT gen_random_uuid(), ?::date + 3 * n, ?::date + 3 * n + 2, "
+                + "'ACTIVE', 1, r.id, now(), now() FROM rooms r CROSS JOIN generate_series(0, ? / 100 - 1) n",
+                FIRST_CHECKIN, FIRST_CHECKIN, BOOKINGS);
+        jdbcTemplate.execute("ANALYZE bookings");
+    }
+
+    private static Result run(final String name, final Pageable pageable,
+            final Function<Pageable, List<BookingDTO>> listing) {
+        final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < WARMUP; i++) {
+            listing.apply(pageable);
+        }
+        final Duration[] latencies = new Duration[RUNS];
+        final long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < RUNS; i++) {
+            final long start = System.nanoTime();
+            assertThat(listing.apply(pageable)).hasSize(pageable.getPageSize());
+            latencies[i] = Duration.ofNanos(System.nanoTime() - start);
+        }
+        final long bytes = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / RUNS;
+        Arrays.sort(latencies);
+        return new Result(name, pageable.getPageSize(), latencies[RUNS / 2], latencies[RUNS * 99 / 100], bytes);
+    }
+
+    private record Result(String name, int size, Duration p50, Duration p99, long bytes) {
+
+        @Override
+        public String toString() {
+            return String.format("%-18s %5d rows: p50 %6d us, p99 %6d us, %8d KiB allocated", name, size,
+                    p50.toNanos() / 1_000, p99.toNanos() / 1_000, bytes / 1_024);
+        }
+
+    }
+
+}
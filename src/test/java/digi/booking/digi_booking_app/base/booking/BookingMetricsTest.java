@@ -0,0 +1,67 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import digi.booking.digi_booking_app.base.exception.RoomBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.SQLException;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+
+class BookingMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BookingMetrics bookingMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookingMetrics = new BookingMetrics(meterRegistry);
+    }
+
+    @Test
+    void timeWrite_success_recordsSuccessOutcome() {
+        String result = bookingMetrics.timeWrite("create", "created", () -> "ok");
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(meterRegistry.get(BookingMetrics.WRITES).tag("operation", "create").tag("outcome", "created")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void timeWrite_retriesExhausted_recordsRetryExhausted() {
+        BookingWriteRetry bookingWriteRetry = new BookingWriteRetry(2, Duration.ZERO, Duration.ZERO, 1.0, 10,
+                meterRegistry);
+
+        assertThatThrownBy(() -> bookingMetrics.timeWrite("update", "updated", () -> {
+            bookingWriteRetry.execute("update", () -> {
+                throw new CannotAcquireLockException("aborted", new SQLException("could not serialize access", "40001"));
+            });
+        })).isInstanceOf(RoomBusyException.class);
+
+        assertThat(meterRegistry.get(BookingMetrics.WRITES).tag("operation", "update")
+                .tag("outcome", "retry_exhausted").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void timeWrite_lockRejected_recordsLockRejected() {
+        assertThatThrownBy(() -> bookingMetrics.timeWrite("cancel", "cancelled", () -> {
+            throw new RoomBusyException("Timed out waiting for room");
+        })).isInstanceOf(RoomBusyException.class);
+
+        assertThat(meterRegistry.get(BookingMetrics.WRITES).tag("operation", "cancel")
+                .tag("outcome", "lock_rejected").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void conflict_unknownRoomType_isTaggedUnknown() {
+        bookingMetrics.conflict(null, "constraint");
+
+        assertThat(meterRegistry.get(BookingMetrics.CONFLICTS).tag("room_type", "unknown")
+                .tag("reason", "constraint").counter().count()).isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,124 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import digi.booking.digi_booking_app.DigiBookingAppApplication;
+import digi.booking.digi_booking_app.base.config.BaseIT;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.modulith.test.ApplicationModuleTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+/**
+ * Latency of the overlap probe on a seeded table of several million bookings: the former
+ * COUNT query against the EXISTS probe, each without and with the indexes on room_id: the gist
+ * index of the ex_bookings_room_stay constraint and ix_bookings_room_id_checkin_date. Both are
+ * dropped inside a rolled back transaction for the "without" runs, so those really scan.
+ * Excluded from the default build; run with
+ * {@code mvn test -Dtest.excludedGroups= -Dgroups=benchmark -Dtest=BookingOverlapBenchmark}
+ * and set the size with -Dbenchmark.bookings.
+ */
+@Tag("benchmark")
+@ApplicationModuleTest(
+        classes = DigiBookingAppApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        mode = ApplicationModuleTest.BootstrapMode.ALL_DEPENDENCIES
+)
+class BookingOverlapBenchmark extends BaseIT {
+
+    private static final int ROOMS = 1_000;
+    private static final int PROBES = 2_000;
+    private static final LocalDate FIRST_CHECKIN = LocalDate.of(2020, 1, 1);
+    private static final String COUNT_QUERY = "SELECT COUNT(*) > 0 FROM bookings b WHERE b.room_id = ? "
+            + "AND b.status = ? AND b.checkin_date < ? AND b.checkout_date > ?";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compareOverlapProbes() {
+        final int bookings = Integer.getInteger("benchmark.bookings", 3_000_000);
+        final int staysPerRoom = bookings / ROOMS;
+        seed(staysPerRoom);
+        final List<UUID> rooms = jdbcTemplate.queryForList("SELECT id FROM rooms", UUID.class);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE bookings DROP CONSTRAINT ex_bookings_room_stay");
+            jdbcTemplate.execute("DROP INDEX ix_bookings_room_id_checkin_date");
+            report("COUNT, no index", run(rooms, staysPerRoom, this::countProbe));
+            report("EXISTS, no index", run(rooms, staysPerRoom, this::existsProbe));
+            status.setRollbackOnly();
+        });
+        report("COUNT, index", run(rooms, staysPerRoom, this::countProbe));
+        report("EXISTS, index", run(rooms, staysPerRoom, this::existsProbe));
+    }
+
+    /**
+     * Every room gets back-to-back two-night stays, a quarter of them cancelled, so the exclusion
+     * constraint holds and every probe has history to look through.
+     */
+    private void seed(final int staysPerRoom) {
+        jdbcTemplate.update("INSERT INTO users (keycloak_id, email, first_name, last_name, active, "
+                + "date_created, last_updated) VALUES (1, 'bench@invalid.io', 'Bench', 'Mark', TRUE, now(), now())");
+        jdbcTemplate.update("INSERT INTO rooms (id, room_number, room_type, capacity, price, amenities, active, "
+                + "date_created, last_updated) SELECT gen_random_uuid(), n, 'STANDARD', 2, 100, '', TRUE, now(), now() "
+                + "FROM generate_series(1, ?) n", ROOMS);
+        jdbcTemplate.update("INSERT INTO bookings (id, checkin_date, checkout_date, status, user_id, room_id, "
+                + "date_created, last_updated) SELECT gen_random_uuid(), ?::date + 3 * n, ?::date + 3 * n + 2, "
+                + "CASE WHEN n % 4 = 0 THEN 'CANCELLED' ELSE 'ACTIVE' END, 1, r.id, now(), now() "
+                + "FROM rooms r CROSS JOIN generate_series(0, ? - 1) n", FIRST_CHECKIN, FIRST_CHECKIN, staysPerRoom);
+        jdbcTemplate.execute("ANALYZE bookings");
+    }
+
+    private Duration[] run(final List<UUID> rooms, final int staysPerRoom, final Probe probe) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final Duration[] latencies = new Duration[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            final UUID roomId = rooms.get(random.nextInt(rooms.size()));
+            final LocalDate checkin = FIRST_CHECKIN.plusDays(random.nextInt(staysPerRoom * 3));
+            final LocalDate checkout = checkin.plusDays(1 + random.nextInt(3));
+            final long start = System.nanoTime();
+            probe.test(roomId, checkin, checkout);
+            latencies[i] = Duration.ofNanos(System.nanoTime() - start);
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private boolean countProbe(final UUID roomId, final LocalDate checkin, final LocalDate checkout) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(COUNT_QUERY, Boolean.class, roomId,
+                BookingStatus.ACTIVE.name(), checkout, checkin));
+    }
+
+    private boolean existsProbe(final UUID roomId, final LocalDate checkin, final LocalDate checkout) {
+        return bookingRepository.existsActiveOverlap(roomId, checkin, checkout, null);
+    }
+
+    private static void report(final String name, final Duration[] latencies) {
+        System.out.printf("%-18s p50 %6d us, p99 %6d us%n", name,
+                latencies[latencies.length / 2].toNanos() / 1_000,
+                latencies[latencies.length * 99 / 100].toNanos() / 1_000);
+    }
+
+    @FunctionalInterface
+    private interface Probe {
+
+        boolean test(UUID roomId, LocalDate checkin, LocalDate checkout);
+
+    }
+
+}
@@ -0,0 +1,53 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import digi.booking.digi_booking_app.DigiBookingAppApplication;
+import digi.booking.digi_booking_app.base.config.BaseIT;
+import digi.booking.digi_booking_app.base.config.CapturingStatementInspector;
+import digi.booking.digi_booking_app.base.config.QueryPlans;
+import java.time.LocalDate;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.modulith.test.ApplicationModuleTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+/**
+ * Guards the plan of the overlap probe run before every booking write: it has to stay an
+ * index-backed EXISTS on the gist index of the stay exclusion constraint, never a scan or a count.
+ */
+@ApplicationModuleTest(
+        classes = DigiBookingAppApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        mode = ApplicationModuleTest.BootstrapMode.ALL_DEPENDENCIES
+)
+class BookingOverlapPlanTest extends BaseIT {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void existsActiveOverlap_usesExclusionConstraintIndex() {
+        CapturingStatementInspector.clear();
+        bookingRepository.existsActiveOverlap(UUID.randomUUID(), LocalDate.of(2030, 1, 10),
+                LocalDate.of(2030, 1, 12), UUID.randomUUID());
+
+        final String query = CapturingStatementInspector.statements().getLast();
+        final String plan = QueryPlans.explain(jdbcTemplate, transactionTemplate, query);
+        assertThat(plan).as(query)
+                .contains("ex_bookings_room_stay")
+                .containsPattern("Index Cond: .*stay &&")
+                .doesNotContain("Seq Scan", "Aggregate");
+    }
+
+}
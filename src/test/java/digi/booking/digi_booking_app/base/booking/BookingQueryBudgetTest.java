@@ -0,0 +1,123 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import digi.booking.digi_booking_app.DigiBookingAppApplication;
+import digi.booking.digi_booking_app.base.BookingService;
+import digi.booking.digi_booking_app.base.config.BaseIT;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.modulith.test.ApplicationModuleTest;
+import org.springframework.test.context.jdbc.Sql;
+
+
+/**
+ * Fixes the number of SQL statements each booking write may issue, so a lookup sneaking back into
+ * the write path fails the build. Writes that publish a booking event also insert its event
+ * publication, which the asynchronous audit listener deletes once done; every test waits for that
+ * before counting, so the completion is always included.
+ */
+@ApplicationModuleTest(
+        classes = DigiBookingAppApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        mode = ApplicationModuleTest.BootstrapMode.ALL_DEPENDENCIES
+)
+class BookingQueryBudgetTest extends BaseIT {
+
+    private static final UUID BOOKING_ID = UUID.fromString("a9b7ba70-783b-317e-9998-dc4dd82eb3c5");
+    private static final UUID ROOM_ID = UUID.fromString("a92d0103-08a6-3379-9a3d-9c728ee74244");
+    private static final String PENDING_QUERY =
+            "SELECT count(*) FROM event_publication WHERE completion_date IS NULL";
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @Sql({"/data/roomData.sql", "/data/userData.sql"})
+    void create_staysWithinBudget() throws InterruptedException {
+        bookingService.create(bookingDTO(LocalDate.of(2030, 1, 10)));
+        awaitEventPublications();
+
+        // user, room, overlap check, insert, event publication and its completion
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+    }
+
+    @Test
+    @Sql({"/data/roomData.sql", "/data/userData.sql", "/data/bookingData.sql"})
+    void update_staysWithinBudget() throws InterruptedException {
+        bookingService.update(BOOKING_ID, bookingDTO(LocalDate.of(2030, 2, 10)));
+        awaitEventPublications();
+
+        // room of the booking, booking, user, room, overlap check, update, event publication and its completion
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(8);
+    }
+
+    @Test
+    @Sql({"/data/roomData.sql", "/data/userData.sql", "/data/bookingData.sql"})
+    void cancel_staysWithinBudget() throws InterruptedException {
+        bookingService.cancel(BOOKING_ID);
+        awaitEventPublications();
+
+        // room of the booking, booking, update, event publication and its completion
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+    }
+
+    @Test
+    @Sql({"/data/roomData.sql", "/data/userData.sql", "/data/bookingData.sql"})
+    void delete_staysWithinBudget() throws InterruptedException {
+        bookingService.delete(BOOKING_ID);
+        awaitEventPublications();
+
+        // room of the booking, booking, delete
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    /**
+     * Waits until the listeners completed every event publication. The check runs through JDBC, so
+     * it does not add to the Hibernate statement count.
+     */
+    private void awaitEventPublications() throws InterruptedException {
+        final long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (jdbcTemplate.queryForObject(PENDING_QUERY, Long.class) > 0) {
+            assertThat(System.nanoTime()).as("event publications completed in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Every test books its own dates, so no test depends on what another one left behind.
+     */
+    private static BookingDTO bookingDTO(final LocalDate checkin) {
+        final BookingDTO bookingDTO = new BookingDTO();
+        bookingDTO.setUser(1100L);
+        bookingDTO.setRoom(ROOM_ID);
+        bookingDTO.setStatus(BookingStatus.ACTIVE);
+        bookingDTO.setCheckinDate(checkin);
+        bookingDTO.setCheckoutDate(checkin.plusDays(2));
+        return bookingDTO;
+    }
+
+}
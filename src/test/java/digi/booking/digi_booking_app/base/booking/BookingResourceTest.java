@@ -1,6 +1,7 @@
 package digi.booking.digi_booking_app.base.booking;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import digi.booking.digi_booking_app.DigiBookingAppApplication;
 import digi.booking.digi_booking_app.base.config.BaseIT;
@@ -42,6 +43,30 @@ class BookingResourceTest extends BaseIT {
                     .body("_links.self.href", Matchers.endsWith("/api/v1/bookings?page=0&size=20&sort=id,asc"));
     }
 
+    @Test
+    @Sql("/data/roomData.sql")
+    void getRoomValues_unchanged_notModified() {
+        final String etag = RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(ADMIN))
+                    .accept(ContentType.JSON)
+                .when()
+                    .get("/api/v1/bookings/roomValues")
+                .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("size()", Matchers.equalTo(2))
+                    .extract().header(HttpHeaders.ETAG);
+        RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(ADMIN))
+                    .header(HttpHeaders.IF_NONE_MATCH, etag)
+                    .accept(ContentType.JSON)
+                .when()
+                    .get("/api/v1/bookings/roomValues")
+                .then()
+                    .statusCode(HttpStatus.NOT_MODIFIED.value());
+    }
+
     @Test
     @Sql({"/data/roomData.sql", "/data/userData.sql", "/data/bookingData.sql"})
     void getAllBookings_filtered() {
@@ -57,6 +82,111 @@ class BookingResourceTest extends BaseIT {
                     .body("_embedded.bookingDTOList.get(0).id", Matchers.equalTo("b8c37e33-defd-351c-b91e-1e03e51657da"));
     }
 
+    @Test
+    @Sql({"/data/roomData.sql", "/data/userData.sql", "/data/bookingData.sql"})
+    void exportBookings_csvFiltered() {
+        final String csv = RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(ADMIN))
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .when()
+                    .get("/api/v1/bookings/export?format=csv&status=ACTIVE&checkinFrom=2025-07-05")
+                .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentType(Matchers.startsWith("text/csv"))
+                    .extract().asString();
+        assertEquals("id,checkinDate,checkoutDate,status,user,room,lastUpdated",
+                csv.lines().findFirst().orElseThrow());
+        assertEquals(2, csv.lines().count());
+        assertTrue(csv.lines().skip(1).findFirst().orElseThrow()
+                .startsWith("b8c37e33-defd-351c-b91e-1e03e51657da,2025-07-05,2025-07-05,ACTIVE,1101,"));
+    }
+
+    @Test
+    @Sql({"/data/roomData.sql", "/data/userData.sql", "/data/bookingData.sql"})
+    void exportBookings_ndjson() {
+        final String ndjson = RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(ADMIN))
+                .when()
+                    .get("/api/v1/bookings/export")
+                .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .contentType(Matchers.startsWith("application/x-ndjson"))
+                    .extract().asString();
+        assertEquals(2, ndjson.lines().count());
+        assertTrue(ndjson.startsWith("{\"id\":\"a9b7ba70-783b-317e-9998-dc4dd82eb3c5\""));
+    }
+
+    @Test
+    @Sql({"/data/roomData.sql", "/data/userData.sql", "/data/bookingData.sql"})
+    void importBookings_ndjson() {
+        RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(ADMIN))
+                    .accept(ContentType.JSON)
+                    .contentType("application/x-ndjson")
+                    .body("""
+                            {"checkinDate":"2025-08-01","checkoutDate":"2025-08-03","status":"ACTIVE","user":1100,"room":"a92d0103-08a6-3379-9a3d-9c728ee74244"}
+                            {"checkinDate":"2025-08-02","checkoutDate":"2025-08-04","status":"ACTIVE","user":1100,"room":"a92d0103-08a6-3379-9a3d-9c728ee74244"}
+                            {"checkinDate":"2025-08-01","checkoutDate":"2025-08-03","status":"ACTIVE","user":1100,"room":"23de10ad-baa1-32ee-93f7-7f679fa1483a"}
+                            {"checkinDate":"2025-08-01","checkoutDate":"2025-08-03","user":1100,"room":"a92d0103-08a6-3379-9a3d-9c728ee74244"}
+                            """)
+                .when()
+                    .post("/api/v1/bookings/import")
+                .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("records", Matchers.equalTo(4))
+                    .body("imported", Matchers.equalTo(1))
+                    .body("errors.line", Matchers.contains(2, 3, 4))
+                    .body("errors.status", Matchers.contains("CONFLICT", "NOT_FOUND", "INVALID"));
+        assertEquals(3, bookingRepository.count());
+    }
+
+    @Test
+    @Sql({"/data/roomData.sql", "/data/userData.sql", "/data/bookingData.sql"})
+    void getAllBookings_withoutCount() {
+        RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(ADMIN))
+                    .accept(ContentType.JSON)
+                .when()
+                    .get("/api/v1/bookings?count=NONE&size=1")
+                .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("page.count", Matchers.equalTo("NONE"))
+                    .body("page.totalExact", Matchers.equalTo(false))
+                    .body("_links.next.href", Matchers.containsString("page=1"));
+    }
+
+    @Test
+    @Sql({"/data/roomData.sql", "/data/userData.sql", "/data/bookingData.sql"})
+    void scrollBookings_followsNextCursor() {
+        final String next = RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(ADMIN))
+                    .accept(ContentType.JSON)
+                .when()
+                    .get("/api/v1/bookings/scroll?size=1")
+                .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("_embedded.bookingDTOList.get(0).id", Matchers.equalTo("a9b7ba70-783b-317e-9998-dc4dd82eb3c5"))
+                    .body("_links.prev", Matchers.nullValue())
+                    .extract().path("_links.next.href");
+        RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(ADMIN))
+                    .accept(ContentType.JSON)
+                .when()
+                    .get(next)
+                .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("_embedded.bookingDTOList.get(0).id", Matchers.equalTo("b8c37e33-defd-351c-b91e-1e03e51657da"))
+                    .body("_links.next", Matchers.nullValue())
+                    .body("_links.prev.href", Matchers.containsString("before="));
+    }
+
     @Test
     void getAllBookings_unauthorized() {
         RestAssured
@@ -83,6 +213,47 @@ class BookingResourceTest extends BaseIT {
                     .statusCode(HttpStatus.OK.value());
     }
 
+    @Test
+    @Sql({"/data/roomData.sql", "/data/userData.sql", "/data/bookingData.sql"})
+    void getAllBookings_expanded() {
+        RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(ADMIN))
+                    .accept(ContentType.JSON)
+                .when()
+                    .get("/api/v1/bookings?expand=room,user")
+                .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("_embedded.bookingDTOList.get(0)._embedded.room.roomNumber", Matchers.notNullValue())
+                    .body("_embedded.bookingDTOList.get(0)._embedded.room._links.self.href", Matchers.notNullValue())
+                    .body("_embedded.bookingDTOList.get(0)._embedded.user.email", Matchers.notNullValue());
+    }
+
+    @Test
+    @Sql({"/data/roomData.sql", "/data/userData.sql", "/data/bookingData.sql"})
+    void getAllBookings_expandUserAsUser_unauthorized() {
+        RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(USER))
+                    .accept(ContentType.JSON)
+                .when()
+                    .get("/api/v1/bookings?expand=user")
+                .then()
+                    .statusCode(HttpStatus.UNAUTHORIZED.value());
+    }
+
+    @Test
+    void getAllBookings_unknownExpansion() {
+        RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(ADMIN))
+                    .accept(ContentType.JSON)
+                .when()
+                    .get("/api/v1/bookings?expand=invoice")
+                .then()
+                    .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
     @Test
     void getBooking_notFound() {
         RestAssured
@@ -112,6 +283,29 @@ class BookingResourceTest extends BaseIT {
         assertEquals(1, bookingRepository.count());
     }
 
+    @Test
+    @Sql({"/data/roomData.sql", "/data/userData.sql"})
+    void createBooking_publishesWriteTimerToPrometheus() {
+        RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(ADMIN))
+                    .contentType(ContentType.JSON)
+                    .body(readResource("/requests/bookingDTORequest.json"))
+                .when()
+                    .post("/api/v1/bookings")
+                .then()
+                    .statusCode(HttpStatus.CREATED.value());
+        RestAssured
+                .given()
+                .when()
+                    .get("/actuator/prometheus")
+                .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body(Matchers.containsString("booking_writes_seconds_bucket{application=\"digi-booking\","))
+                    .body(Matchers.containsString("outcome=\"created\""))
+                    .body(Matchers.containsString("booking_room_lock_wait_seconds_bucket"));
+    }
+
     @Test
     void createBooking_missingField() {
         RestAssured
@@ -1,6 +1,10 @@
 package digi.booking.digi_booking_app.base.booking;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -8,9 +12,15 @@ import digi.booking.digi_booking_app.base.BookingService;
 import digi.booking.digi_booking_app.base.RoomService;
 import digi.booking.digi_booking_app.base.UserService;
 import digi.booking.digi_booking_app.base.model.SimpleValue;
+import digi.booking.digi_booking_app.base.model.ValuesSnapshot;
+import digi.booking.digi_booking_app.base.security.UserRoles;
+import digi.booking.digi_booking_app.base.util.BulkImport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,6 +35,12 @@ import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
 
 @ExtendWith(MockitoExtension.class)
 class BookingResourceUnitTest {
@@ -39,6 +55,12 @@ class BookingResourceUnitTest {
     private UserService userService;
     @Mock
     private RoomService roomService;
+    @Mock
+    private IdempotencyStore idempotencyStore;
+    @Mock
+    private BookingExport bookingExport;
+    @Mock
+    private BulkImport bulkImport;
 
     private BookingResource bookingResource;
 
@@ -49,10 +71,30 @@ class BookingResourceUnitTest {
                 bookingAssembler,
                 pagedResourcesAssembler,
                 userService,
-                roomService
+                roomService,
+                idempotencyStore,
+                new BookingWriteQueue(bookingService, new BookingMetrics(new SimpleMeterRegistry()), "sync", 16, 50,
+                        new SimpleMeterRegistry()),
+                bookingExport,
+                bulkImport
         );
     }
 
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getAllBookings_expandUserAsUser_isDenied() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("user", null, UserRoles.USER));
+
+        assertThatThrownBy(() -> bookingResource.getAllBookings(null, null, List.of("room", "user"), null,
+                PageRequest.of(0, 20))).isInstanceOf(AuthorizationDeniedException.class);
+        verify(bookingService, never()).findAll(any(), any(), any(), any());
+    }
+
     @Test
     void getBooking_returnsEntityModel() {
         UUID id = UUID.randomUUID();
@@ -60,10 +102,12 @@ class BookingResourceUnitTest {
         bookingDTO.setId(id);
         EntityModel<BookingDTO> model = EntityModel.of(bookingDTO);
 
+        when(bookingService.getLastUpdated(id)).thenReturn(OffsetDateTime.parse("2026-10-18T10:15:30Z"));
         when(bookingService.get(id)).thenReturn(bookingDTO);
         when(bookingAssembler.toModel(bookingDTO)).thenReturn(model);
 
-        ResponseEntity<EntityModel<BookingDTO>> response = bookingResource.getBooking(id);
+        ResponseEntity<EntityModel<BookingDTO>> response = bookingResource.getBooking(id, null,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse()));
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(model);
@@ -80,7 +124,7 @@ class BookingResourceUnitTest {
         when(bookingService.create(bookingDTO)).thenReturn(createdId);
         when(bookingAssembler.toSimpleModel(createdId)).thenReturn(simpleModel);
 
-        ResponseEntity<EntityModel<SimpleValue<UUID>>> response = bookingResource.createBooking(bookingDTO);
+        ResponseEntity<EntityModel<SimpleValue<UUID>>> response = bookingResource.createBooking(null, bookingDTO).join();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
         assertThat(response.getBody()).isEqualTo(simpleModel);
@@ -88,6 +132,37 @@ class BookingResourceUnitTest {
         verify(bookingAssembler).toSimpleModel(createdId);
     }
 
+    @Test
+    void createBookings_allOrNothingRejected_returnsConflict() {
+        List<BookingDTO> bookingDTOs = List.of(new BookingDTO(), new BookingDTO());
+        List<BookingBatchResult> results = List.of(
+                new BookingBatchResult(0, BookingBatchStatus.NOT_CREATED, null, "rejected"),
+                new BookingBatchResult(1, BookingBatchStatus.CONFLICT, null, "taken"));
+
+        when(bookingService.createAll(bookingDTOs, BookingBatchMode.ALL_OR_NOTHING)).thenReturn(results);
+
+        ResponseEntity<List<BookingBatchResult>> response =
+                bookingResource.createBookings(BookingBatchMode.ALL_OR_NOTHING, bookingDTOs);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody()).isEqualTo(results);
+    }
+
+    @Test
+    void createBooking_withIdempotencyKey_usesStore() {
+        UUID createdId = UUID.randomUUID();
+        BookingDTO bookingDTO = new BookingDTO();
+        EntityModel<SimpleValue<UUID>> simpleModel = SimpleValue.entityModelOf(createdId);
+
+        when(idempotencyStore.execute(eq("key-1"), eq("create"), any(), eq(bookingDTO))).thenReturn(createdId);
+        when(bookingAssembler.toSimpleModel(createdId)).thenReturn(simpleModel);
+
+        ResponseEntity<EntityModel<SimpleValue<UUID>>> response = bookingResource.createBooking("key-1", bookingDTO).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        verify(bookingService, never()).create(any());
+    }
+
     @Test
     void updateBooking_returnsOk() {
         UUID id = UUID.randomUUID();
@@ -96,11 +171,11 @@ class BookingResourceUnitTest {
 
         when(bookingAssembler.toSimpleModel(id)).thenReturn(simpleModel);
 
-        ResponseEntity<EntityModel<SimpleValue<UUID>>> response = bookingResource.updateBooking(id, bookingDTO);
+        ResponseEntity<EntityModel<SimpleValue<UUID>>> response = bookingResource.updateBooking(id, null, null, bookingDTO).join();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(simpleModel);
-        verify(bookingService).update(id, bookingDTO);
+        verify(bookingService).update(id, bookingDTO, null);
         verify(bookingAssembler).toSimpleModel(id);
     }
 
@@ -108,7 +183,7 @@ class BookingResourceUnitTest {
     void cancelBooking_returnsNoContent() {
         UUID id = UUID.randomUUID();
 
-        ResponseEntity<Void> response = bookingResource.cancel(id);
+        ResponseEntity<Void> response = bookingResource.cancel(id).join();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
         verify(bookingService).cancel(id);
@@ -127,19 +202,20 @@ class BookingResourceUnitTest {
     @Test
     void getUserValues_returnsMap() {
         Map<Long, String> values = Map.of(1L, "User");
-        when(userService.getUserValues()).thenReturn(values);
+        when(userService.getUserValues()).thenReturn(new ValuesSnapshot<>(values, "abc"));
 
         ResponseEntity<Map<Long, String>> response = bookingResource.getUserValues();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(values);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"abc\"");
         verify(userService).getUserValues();
     }
 
     @Test
     void getRoomValues_returnsMap() {
         Map<UUID, String> values = Map.of(UUID.randomUUID(), "Room");
-        when(roomService.getRoomValues()).thenReturn(values);
+        when(roomService.getRoomValues()).thenReturn(new ValuesSnapshot<>(values, "abc"));
 
         ResponseEntity<Map<UUID, String>> response = bookingResource.getRoomValues();
 
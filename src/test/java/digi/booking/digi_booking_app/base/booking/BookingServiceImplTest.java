@@ -3,33 +3,62 @@ package digi.booking.digi_booking_app.base.booking;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import digi.booking.digi_booking_app.base.events.BeforeDeleteRoom;
+import digi.booking.digi_booking_app.base.events.BookingCancelled;
+import digi.booking.digi_booking_app.base.events.BookingCreated;
+import digi.booking.digi_booking_app.base.events.BookingUpdated;
+import digi.booking.digi_booking_app.base.exception.PreconditionFailedException;
 import digi.booking.digi_booking_app.base.exception.RoomNotAvailableException;
+import digi.booking.digi_booking_app.base.model.CountMode;
+import digi.booking.digi_booking_app.base.model.CountedPage;
+import digi.booking.digi_booking_app.base.model.Cursor;
+import digi.booking.digi_booking_app.base.model.CursorPage;
 import digi.booking.digi_booking_app.base.room.Room;
+import digi.booking.digi_booking_app.base.room.RoomOccupancyIndex;
 import digi.booking.digi_booking_app.base.room.RoomRepository;
 import digi.booking.digi_booking_app.base.user.User;
 import digi.booking.digi_booking_app.base.user.UserRepository;
+import digi.booking.digi_booking_app.base.util.EntityTags;
 import digi.booking.digi_booking_app.base.util.NotFoundException;
 import digi.booking.digi_booking_app.base.util.ReferencedException;
+import digi.booking.digi_booking_app.base.util.TableCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.Collections;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 class BookingServiceImplTest {
@@ -42,8 +71,19 @@ class BookingServiceImplTest {
     private RoomRepository roomRepository;
     @Mock
     private BookingMapper bookingMapper;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private RoomHoldRepository roomHoldRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private IdempotencyStore idempotencyStore;
+    @Mock
+    private ApplicationEventPublisher publisher;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
+    private RoomHoldRegistry roomHoldRegistry;
     private BookingServiceImpl bookingService;
 
     private Booking booking;
@@ -53,9 +93,20 @@ class BookingServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        RoomLockManager roomLockManager = new RoomLockManager(Duration.ofSeconds(1), Duration.ofMinutes(10), 8,
+                new SimpleMeterRegistry());
+        roomHoldRegistry = new RoomHoldRegistry(roomHoldRepository, Duration.ofMinutes(10), false);
+        bookingService = new BookingServiceImpl(bookingRepository, userRepository, roomRepository,
+                bookingMapper, roomLockManager, new RoomOccupancyIndex(roomRepository, bookingRepository),
+                new BookingWriteRetry(3, Duration.ZERO, Duration.ZERO, 1.0, 10, new SimpleMeterRegistry()),
+                roomHoldRegistry, new TableCounter(jdbcTemplate, new MockEnvironment(), Duration.ofSeconds(30)),
+                new BookingMetrics(meterRegistry), idempotencyStore, publisher, transactionManager);
+
         room = new Room();
         room.setId(UUID.randomUUID());
         room.setRoomNumber(42);
+        room.setRoomType("DELUXE");
         room.setActive(true);
 
         user = new User();
@@ -80,34 +131,138 @@ class BookingServiceImplTest {
     }
 
     @Test
-    void findAll_returnsPageOfBookings() {
+    void findAll_returnsProjectedPageWithoutMapping() {
         PageRequest pageable = PageRequest.of(0, 20);
-        Page<Booking> page = new PageImpl<>(List.of(booking), pageable, 1);
-        BookingDTO mappedDto = new BookingDTO();
-        when(bookingRepository.findAll(pageable)).thenReturn(page);
-        when(bookingMapper.updateBookingDTO(eq(booking), any(BookingDTO.class))).thenReturn(mappedDto);
+        when(bookingRepository.findDTOs(pageable)).thenReturn(new PageImpl<>(List.of(bookingDTO), pageable, 1));
 
         Page<BookingDTO> result = bookingService.findAll(null, pageable);
 
-        assertThat(result.getContent()).containsExactly(mappedDto);
-        verify(bookingRepository).findAll(pageable);
-        verify(bookingMapper).updateBookingDTO(eq(booking), any(BookingDTO.class));
+        assertThat(result.getContent()).containsExactly(bookingDTO);
+        verify(bookingRepository, never()).findAll(pageable);
+        verify(bookingMapper, never()).updateBookingDTO(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findAll_expand_fetchesRoomAndUserWithBookings() {
+        PageRequest pageable = PageRequest.of(0, 20);
+        when(bookingRepository.findBy(any(Specification.class), any()))
+                .thenReturn(new PageImpl<>(List.of(booking), pageable, 1));
+        when(bookingMapper.updateBookingDTO(eq(booking), any(BookingDTO.class))).thenReturn(bookingDTO);
+
+        Page<BookingDTO> result = bookingService.findAll(null, pageable, CountMode.EXACT,
+                BookingExpansion.parse(List.of("room", "user")));
+
+        assertThat(result.getContent()).singleElement().satisfies(expanded -> {
+            assertThat(expanded.getRoomSummary().roomNumber()).isEqualTo(42);
+            assertThat(expanded.getUserSummary().id()).isEqualTo(100L);
+        });
+        verify(bookingRepository, never()).findDTOs(pageable);
     }
 
     @Test
     void findAll_withFilter_usesRepositoryById() {
         PageRequest pageable = PageRequest.of(0, 20);
-        Page<Booking> page = new PageImpl<>(List.of(booking), pageable, 1);
+        when(bookingRepository.findDTOsById(booking.getId(), pageable))
+                .thenReturn(new PageImpl<>(List.of(bookingDTO), pageable, 1));
+
+        Page<BookingDTO> result = bookingService.findAll(booking.getId().toString(), pageable);
+
+        assertThat(result.getContent()).containsExactly(bookingDTO);
+        verify(bookingRepository).findDTOsById(booking.getId(), pageable);
+    }
+
+
+    @Test
+    void findAll_countNone_readsSliceWithoutCount() {
+        PageRequest pageable = PageRequest.of(0, 1);
+        when(bookingRepository.findDTOSlice(pageable)).thenReturn(new SliceImpl<>(List.of(bookingDTO), pageable, true));
+
+        Page<BookingDTO> result = bookingService.findAll(null, pageable, CountMode.NONE);
+
+        assertThat(result.hasNext()).isTrue();
+        assertThat(((CountedPage<BookingDTO>) result).getCountMode()).isEqualTo(CountMode.NONE);
+        verify(bookingRepository, never()).count();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void search_filter_runsOneSpecificationQuery() {
+        PageRequest pageable = PageRequest.of(0, 20);
+        BookingFilter bookingFilter = new BookingFilter();
+        bookingFilter.setStatus(BookingStatus.ACTIVE);
+        bookingFilter.setArrivingToday(true);
+        when(bookingRepository.findAll(any(Specification.class), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(booking), pageable, 1));
+        when(bookingMapper.updateBookingDTO(eq(booking), any(BookingDTO.class))).thenReturn(bookingDTO);
+
+        Page<BookingDTO> result = bookingService.search(bookingFilter, pageable);
+
+        assertThat(result.getContent()).containsExactly(bookingDTO);
+        assertThat(((CountedPage<BookingDTO>) result).getCountMode()).isEqualTo(CountMode.EXACT);
+        verify(bookingRepository, never()).findAll(pageable);
+    }
+
+    @Test
+    void findAll_countEstimated_usesPlannerEstimate() {
+        PageRequest pageable = PageRequest.of(0, 1);
+        when(bookingRepository.findDTOSlice(pageable)).thenReturn(new SliceImpl<>(List.of(bookingDTO), pageable, true));
+        when(jdbcTemplate.queryForObject(any(String.class), eq(Long.class), eq("bookings"))).thenReturn(5000L);
+
+        Page<BookingDTO> result = bookingService.findAll(null, pageable, CountMode.ESTIMATED);
+
+        assertThat(result.getTotalElements()).isEqualTo(5000L);
+        assertThat(((CountedPage<BookingDTO>) result).getCountMode()).isEqualTo(CountMode.ESTIMATED);
+        verify(bookingRepository, never()).count();
+    }
+
+    @Test
+    void findAll_countCached_countsOnceUntilWrite() {
+        PageRequest pageable = PageRequest.of(0, 1);
+        when(bookingRepository.findDTOSlice(pageable)).thenReturn(new SliceImpl<>(List.of(bookingDTO), pageable, true));
+        when(bookingRepository.count()).thenReturn(7L);
+
+        bookingService.findAll(null, pageable, CountMode.CACHED);
+        Page<BookingDTO> result = bookingService.findAll(null, pageable, CountMode.CACHED);
+
+        assertThat(result.getTotalElements()).isEqualTo(7L);
+        assertThat(((CountedPage<BookingDTO>) result).getCountMode()).isEqualTo(CountMode.CACHED);
+        verify(bookingRepository, times(1)).count();
+    }
+
+    @Test
+    void scroll_firstWindow_returnsNextCursorOnly() {
         BookingDTO mappedDto = new BookingDTO();
-        when(bookingRepository.findAllById(booking.getId(), pageable)).thenReturn(page);
+        when(bookingRepository.findAllBy(eq(ScrollPosition.keyset()), eq(Limit.of(1)), any(Sort.class)))
+                .thenReturn(Window.from(List.of(booking), ScrollPosition::offset, true));
         when(bookingMapper.updateBookingDTO(eq(booking), any(BookingDTO.class))).thenReturn(mappedDto);
 
-        Page<BookingDTO> result = bookingService.findAll(booking.getId().toString(), pageable);
+        CursorPage<BookingDTO> result = bookingService.scroll(null, null, 1);
 
         assertThat(result.getContent()).containsExactly(mappedDto);
-        verify(bookingRepository).findAllById(booking.getId(), pageable);
+        assertThat(result.getPrevious()).isNull();
+        assertThat(Cursor.decode(result.getNext()))
+                .isEqualTo(new Cursor(booking.getCheckinDate().toString(), booking.getId()));
+    }
+
+    @Test
+    void scroll_afterCursor_seeksFromCursorKeys() {
+        String after = Cursor.encode(booking.getCheckinDate(), booking.getId());
+        when(bookingRepository.findAllBy(any(ScrollPosition.class), eq(Limit.of(20)), any(Sort.class)))
+                .thenReturn(Window.from(List.of(), ScrollPosition::offset, false));
+
+        CursorPage<BookingDTO> result = bookingService.scroll(after, null, 20);
+
+        assertThat(result.getContent()).isEmpty();
+        verify(bookingRepository).findAllBy(eq(ScrollPosition.forward(Map.of(
+                "checkinDate", booking.getCheckinDate(), "id", booking.getId()))), eq(Limit.of(20)), any(Sort.class));
     }
 
+    @Test
+    void scroll_invalidCursor_throwsException() {
+        assertThatThrownBy(() -> bookingService.scroll("not-a-cursor", null, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
 
     @Test
     void get_returnsBooking() {
@@ -133,17 +288,56 @@ class BookingServiceImplTest {
     void create_persistsBookingWhenValid() {
         when(userRepository.findById(user.getKeycloakId())).thenReturn(Optional.of(user));
         when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
-        when(roomRepository.findByRoomNumber(room.getRoomNumber())).thenReturn(Optional.of(room));
-        when(bookingRepository.findOverlappingActiveBookings(room, bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate(), BookingStatus.ACTIVE, null))
-                .thenReturn(Collections.emptyList());
-        Booking savedBooking = new Booking();
-        savedBooking.setId(UUID.randomUUID());
-        when(bookingRepository.save(any(Booking.class))).thenReturn(savedBooking);
+        when(bookingRepository.existsActiveOverlap(room.getId(), bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate(), null))
+                .thenReturn(false);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+            Booking savedBooking = invocation.getArgument(0);
+            savedBooking.setId(UUID.randomUUID());
+            return savedBooking;
+        });
 
         UUID result = bookingService.create(bookingDTO);
 
-        assertThat(result).isEqualTo(savedBooking.getId());
         verify(bookingRepository).save(any(Booking.class));
+        ArgumentCaptor<BookingCreated> created = ArgumentCaptor.forClass(BookingCreated.class);
+        verify(publisher).publishEvent(created.capture());
+        assertThat(created.getValue().getId()).isEqualTo(result);
+        assertThat(created.getValue().getRoomId()).isEqualTo(room.getId());
+        assertThat(created.getValue().getStatus()).isEqualTo("ACTIVE");
+        assertThat(meterRegistry.get(BookingMetrics.WRITES).tag("operation", "create").tag("outcome", "created")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(BookingMetrics.OVERLAP_QUERY).tag("query", "single").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void create_withIdempotencyClaim_completesClaimInWrite() {
+        IdempotencyStore.Claim claim = new IdempotencyStore.Claim(":key-1", OffsetDateTime.now());
+        bookingDTO.setIdempotencyClaim(claim);
+        when(userRepository.findById(user.getKeycloakId())).thenReturn(Optional.of(user));
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        when(bookingRepository.existsActiveOverlap(room.getId(), bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate(), null))
+                .thenReturn(false);
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+
+        UUID result = bookingService.create(bookingDTO);
+
+        verify(idempotencyStore).complete(claim, result);
+    }
+
+    @Test
+    void create_resolvesUserAndRoomOnce() {
+        when(userRepository.findById(user.getKeycloakId())).thenReturn(Optional.of(user));
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        when(bookingRepository.existsActiveOverlap(room.getId(), bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate(), null))
+                .thenReturn(false);
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+
+        bookingService.create(bookingDTO);
+
+        verify(userRepository).findById(user.getKeycloakId());
+        verify(roomRepository).findById(room.getId());
+        verifyNoMoreInteractions(userRepository, roomRepository);
     }
 
     @Test
@@ -160,32 +354,260 @@ class BookingServiceImplTest {
     void create_overlappingBooking_throwsException() {
         when(userRepository.findById(user.getKeycloakId())).thenReturn(Optional.of(user));
         when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
-        when(roomRepository.findByRoomNumber(room.getRoomNumber())).thenReturn(Optional.of(room));
-        when(bookingRepository.findOverlappingActiveBookings(room, bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate(), BookingStatus.ACTIVE, null))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.existsActiveOverlap(room.getId(), bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate(), null))
+                .thenReturn(true);
+
+        assertThatThrownBy(() -> bookingService.create(bookingDTO))
+                .isInstanceOf(RoomNotAvailableException.class);
+        assertThat(meterRegistry.get(BookingMetrics.WRITES).tag("operation", "create").tag("outcome", "conflict")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(BookingMetrics.CONFLICTS).tag("room_type", "DELUXE").tag("reason", "overlap")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void create_exclusionConstraintViolation_throwsRoomNotAvailableException() {
+        when(userRepository.findById(user.getKeycloakId())).thenReturn(Optional.of(user));
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        when(bookingRepository.existsActiveOverlap(room.getId(), bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate(), null))
+                .thenReturn(false);
+        when(bookingRepository.save(any(Booking.class))).thenThrow(new DataIntegrityViolationException("conflicting key",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        assertThatThrownBy(() -> bookingService.create(bookingDTO))
+                .isInstanceOf(RoomNotAvailableException.class);
+    }
+
+    @Test
+    void create_roomHeldForOtherGuest_throwsRoomNotAvailableException() {
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        RoomHoldDTO hold = bookingService.hold(holdRequest(200L));
+        when(userRepository.findById(user.getKeycloakId())).thenReturn(Optional.of(user));
 
+        assertThat(hold.getToken()).isNotNull();
         assertThatThrownBy(() -> bookingService.create(bookingDTO))
                 .isInstanceOf(RoomNotAvailableException.class);
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void create_withHoldToken_convertsAndReleasesHold() {
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        RoomHoldDTO hold = bookingService.hold(holdRequest(user.getKeycloakId()));
+        when(userRepository.findById(user.getKeycloakId())).thenReturn(Optional.of(user));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        bookingDTO.setHoldToken(hold.getToken());
+
+        bookingService.create(bookingDTO);
+
+        verify(bookingRepository).save(any(Booking.class));
+        assertThat(roomHoldRegistry.get(hold.getToken())).isEmpty();
+    }
+
+    @Test
+    void hold_overlappingHold_throwsRoomNotAvailableException() {
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        bookingService.hold(holdRequest(200L));
+
+        assertThatThrownBy(() -> bookingService.hold(holdRequest(300L)))
+                .isInstanceOf(RoomNotAvailableException.class);
+    }
+
+    @Test
+    void createAll_bestEffort_insertsFreeItemsAndReportsConflicts() {
+        BookingDTO overlapping = batchItem(bookingDTO.getCheckinDate().plusDays(1), bookingDTO.getCheckoutDate().plusDays(1));
+        BookingDTO later = batchItem(bookingDTO.getCheckoutDate(), bookingDTO.getCheckoutDate().plusDays(3));
+        BookingDTO unknownRoom = batchItem(bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate());
+        unknownRoom.setRoom(UUID.randomUUID());
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+        when(roomRepository.findAllById(any())).thenReturn(List.of(room));
+        when(bookingRepository.findStaysOverlapping(any(), eq(bookingDTO.getCheckinDate()),
+                eq(later.getCheckoutDate()), eq(BookingStatus.ACTIVE))).thenReturn(List.of());
+        when(bookingRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Booking> saved = invocation.getArgument(0);
+            saved.forEach(created -> created.setId(UUID.randomUUID()));
+            return saved;
+        });
+
+        List<BookingBatchResult> results = bookingService.createAll(
+                List.of(bookingDTO, overlapping, later, unknownRoom), BookingBatchMode.BEST_EFFORT);
+
+        assertThat(results).extracting(BookingBatchResult::getStatus).containsExactly(
+                BookingBatchStatus.CREATED, BookingBatchStatus.CONFLICT,
+                BookingBatchStatus.CREATED, BookingBatchStatus.NOT_FOUND);
+        assertThat(results.get(0).getId()).isNotNull();
+        verify(bookingRepository).saveAll(argThat(saved -> ((List<?>) saved).size() == 2));
+        verify(publisher, times(2)).publishEvent(any(BookingCreated.class));
+        assertThat(meterRegistry.get(BookingMetrics.CONFLICTS).tag("room_type", "DELUXE").tag("reason", "batch")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void createAll_foreignHoldToken_reportsInvalidAndKeepsHold() {
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        RoomHoldDTO foreignHold = bookingService.hold(holdRequest(200L));
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+        when(roomRepository.findAllById(any())).thenReturn(List.of(room));
+        bookingDTO.setHoldToken(foreignHold.getToken());
+
+        List<BookingBatchResult> results = bookingService.createAll(List.of(bookingDTO), BookingBatchMode.BEST_EFFORT);
+
+        assertThat(results).extracting(BookingBatchResult::getStatus).containsExactly(BookingBatchStatus.INVALID);
+        assertThat(roomHoldRegistry.get(foreignHold.getToken())).isPresent();
+        verify(publisher, never()).publishEvent(any(BookingCreated.class));
+    }
+
+    @Test
+    void createAll_ownHoldToken_convertsAndReleasesHold() {
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        RoomHoldDTO hold = bookingService.hold(holdRequest(user.getKeycloakId()));
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+        when(roomRepository.findAllById(any())).thenReturn(List.of(room));
+        when(bookingRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Booking> saved = invocation.getArgument(0);
+            saved.forEach(created -> created.setId(UUID.randomUUID()));
+            return saved;
+        });
+        bookingDTO.setHoldToken(hold.getToken());
+
+        List<BookingBatchResult> results = bookingService.createAll(List.of(bookingDTO), BookingBatchMode.BEST_EFFORT);
+
+        assertThat(results).extracting(BookingBatchResult::getStatus).containsExactly(BookingBatchStatus.CREATED);
+        assertThat(roomHoldRegistry.get(hold.getToken())).isEmpty();
+    }
+
+    @Test
+    void createAll_allOrNothing_storedOverlapRejectsWholeBatch() {
+        BookingDTO later = batchItem(bookingDTO.getCheckoutDate(), bookingDTO.getCheckoutDate().plusDays(3));
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+        when(roomRepository.findAllById(any())).thenReturn(List.of(room));
+        when(bookingRepository.findStaysOverlapping(any(), any(), any(), eq(BookingStatus.ACTIVE)))
+                .thenReturn(List.of(new BookingStay(UUID.randomUUID(), room.getId(),
+                        later.getCheckinDate().plusDays(1), later.getCheckoutDate())));
+
+        List<BookingBatchResult> results = bookingService.createAll(
+                List.of(bookingDTO, later), BookingBatchMode.ALL_OR_NOTHING);
+
+        assertThat(results).extracting(BookingBatchResult::getStatus).containsExactly(
+                BookingBatchStatus.NOT_CREATED, BookingBatchStatus.CONFLICT);
+        verify(bookingRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void createAll_bestEffortRejectedByConstraint_createsItemsOneByOne() {
+        BookingDTO later = batchItem(bookingDTO.getCheckoutDate(), bookingDTO.getCheckoutDate().plusDays(3));
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+        when(roomRepository.findAllById(any())).thenReturn(List.of(room));
+        when(bookingRepository.saveAll(any())).thenThrow(new DataIntegrityViolationException("conflicting key",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+        when(userRepository.findById(user.getKeycloakId())).thenReturn(Optional.of(user));
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        when(bookingRepository.existsActiveOverlap(room.getId(), bookingDTO.getCheckinDate(),
+                bookingDTO.getCheckoutDate(), null)).thenReturn(false);
+        when(bookingRepository.existsActiveOverlap(room.getId(), later.getCheckinDate(),
+                later.getCheckoutDate(), null)).thenReturn(true);
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+
+        List<BookingBatchResult> results = bookingService.createAll(
+                List.of(bookingDTO, later), BookingBatchMode.BEST_EFFORT);
+
+        assertThat(results).extracting(BookingBatchResult::getStatus).containsExactly(
+                BookingBatchStatus.CREATED, BookingBatchStatus.CONFLICT);
+        assertThat(results.get(0).getId()).isEqualTo(booking.getId());
+        verify(publisher).publishEvent(any(BookingCreated.class));
+    }
+
+    @Test
+    void createAll_allOrNothingRejectedByConstraint_throwsRoomNotAvailableException() {
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+        when(roomRepository.findAllById(any())).thenReturn(List.of(room));
+        when(bookingRepository.saveAll(any())).thenThrow(new DataIntegrityViolationException("conflicting key",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        assertThatThrownBy(() -> bookingService.createAll(List.of(bookingDTO), BookingBatchMode.ALL_OR_NOTHING))
+                .isInstanceOf(RoomNotAvailableException.class);
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createAll_stayWithoutNightsInsideStoredStay_isCreated() {
+        LocalDate day = bookingDTO.getCheckinDate().plusDays(1);
+        BookingDTO noNights = batchItem(day, day);
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+        when(roomRepository.findAllById(any())).thenReturn(List.of(room));
+        when(bookingRepository.findStaysOverlapping(any(), any(), any(), eq(BookingStatus.ACTIVE)))
+                .thenReturn(List.of(new BookingStay(UUID.randomUUID(), room.getId(),
+                        bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate())));
+        when(bookingRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Booking> saved = invocation.getArgument(0);
+            saved.forEach(created -> created.setId(UUID.randomUUID()));
+            return saved;
+        });
+
+        List<BookingBatchResult> results = bookingService.createAll(List.of(noNights), BookingBatchMode.BEST_EFFORT);
+
+        assertThat(results).extracting(BookingBatchResult::getStatus).containsExactly(BookingBatchStatus.CREATED);
+    }
+
+    @Test
+    void createAll_invalidItem_reportedWithoutLookup() {
+        BookingDTO reversed = batchItem(bookingDTO.getCheckoutDate(), bookingDTO.getCheckinDate());
+
+        List<BookingBatchResult> results = bookingService.createAll(List.of(reversed), BookingBatchMode.BEST_EFFORT);
+
+        assertThat(results).singleElement().extracting(BookingBatchResult::getStatus)
+                .isEqualTo(BookingBatchStatus.INVALID);
+        verify(bookingRepository, never()).findStaysOverlapping(any(), any(), any(), any());
     }
 
     @Test
     void update_existingBooking_succeeds() {
+        when(bookingRepository.findRoomIdById(booking.getId())).thenReturn(Optional.of(room.getId()));
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
         when(userRepository.findById(user.getKeycloakId())).thenReturn(Optional.of(user));
         when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
-        when(roomRepository.findByRoomNumber(room.getRoomNumber())).thenReturn(Optional.of(room));
-        when(bookingRepository.findOverlappingActiveBookings(room, bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate(), BookingStatus.ACTIVE, booking.getId()))
-                .thenReturn(Collections.emptyList());
+        when(bookingRepository.existsActiveOverlap(room.getId(), bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate(), booking.getId()))
+                .thenReturn(false);
 
         bookingService.update(booking.getId(), bookingDTO);
 
         verify(bookingRepository).findById(booking.getId());
         verify(bookingRepository).save(booking);
+        verify(publisher).publishEvent(any(BookingUpdated.class));
+    }
+
+    @Test
+    void update_movedBeforeLocked_retriesWithCurrentRoom() {
+        when(bookingRepository.findRoomIdById(booking.getId()))
+                .thenReturn(Optional.of(UUID.randomUUID()), Optional.of(room.getId()));
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(userRepository.findById(user.getKeycloakId())).thenReturn(Optional.of(user));
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        when(bookingRepository.existsActiveOverlap(room.getId(), bookingDTO.getCheckinDate(), bookingDTO.getCheckoutDate(), booking.getId()))
+                .thenReturn(false);
+
+        bookingService.update(booking.getId(), bookingDTO);
+
+        verify(bookingRepository, times(2)).findRoomIdById(booking.getId());
+        verify(bookingRepository, times(2)).findById(booking.getId());
+        verify(bookingRepository).save(booking);
+    }
+
+    @Test
+    void update_staleIfMatch_throwsPreconditionFailed() {
+        booking.setLastUpdated(OffsetDateTime.parse("2026-10-18T10:15:30Z"));
+        when(bookingRepository.findRoomIdById(booking.getId())).thenReturn(Optional.of(room.getId()));
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+
+        assertThatThrownBy(() -> bookingService.update(booking.getId(), bookingDTO,
+                "\"" + EntityTags.of(booking.getLastUpdated().minusSeconds(1)) + "\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
     void update_notFound_throwsException() {
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.empty());
+        when(bookingRepository.findRoomIdById(booking.getId())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> bookingService.update(booking.getId(), bookingDTO))
                 .isInstanceOf(NotFoundException.class);
@@ -193,24 +615,29 @@ class BookingServiceImplTest {
 
     @Test
     void cancel_updatesStatusToCancelled() {
+        when(bookingRepository.findRoomIdById(booking.getId())).thenReturn(Optional.of(room.getId()));
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
 
         bookingService.cancel(booking.getId());
 
         assertThat(booking.getStatus()).isEqualTo(BookingStatus.CANCELLED);
         verify(bookingRepository).save(booking);
+        verify(publisher).publishEvent(any(BookingCancelled.class));
     }
 
     @Test
     void cancel_notFound_throwsException() {
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.empty());
+        when(bookingRepository.findRoomIdById(booking.getId())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> bookingService.cancel(booking.getId()))
                 .isInstanceOf(NotFoundException.class);
+        assertThat(meterRegistry.get(BookingMetrics.WRITES).tag("operation", "cancel").tag("outcome", "not_found")
+                .timer().count()).isEqualTo(1);
     }
 
     @Test
     void delete_removesBooking() {
+        when(bookingRepository.findRoomIdById(booking.getId())).thenReturn(Optional.of(room.getId()));
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
 
         bookingService.delete(booking.getId());
@@ -220,7 +647,7 @@ class BookingServiceImplTest {
 
     @Test
     void delete_notFound_throwsException() {
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.empty());
+        when(bookingRepository.findRoomIdById(booking.getId())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> bookingService.delete(booking.getId()))
                 .isInstanceOf(NotFoundException.class);
@@ -242,4 +669,24 @@ class BookingServiceImplTest {
 
         verify(bookingRepository).findFirstByRoomId(room.getId());
     }
-}
\ No newline at end of file
+
+    private RoomHoldDTO holdRequest(final Long userId) {
+        final RoomHoldDTO hold = new RoomHoldDTO();
+        hold.setRoom(room.getId());
+        hold.setUser(userId);
+        hold.setCheckinDate(bookingDTO.getCheckinDate());
+        hold.setCheckoutDate(bookingDTO.getCheckoutDate());
+        return hold;
+    }
+
+    private BookingDTO batchItem(final LocalDate checkin, final LocalDate checkout) {
+        BookingDTO item = new BookingDTO();
+        item.setRoom(room.getId());
+        item.setUser(user.getKeycloakId());
+        item.setStatus(BookingStatus.ACTIVE);
+        item.setCheckinDate(checkin);
+        item.setCheckoutDate(checkout);
+        return item;
+    }
+
+}
@@ -0,0 +1,131 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import digi.booking.digi_booking_app.base.BookingService;
+import digi.booking.digi_booking_app.base.exception.RoomNotAvailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BookingWriteQueueTest {
+
+    @Mock
+    private BookingService bookingService;
+
+    private BookingWriteQueue bookingWriteQueue;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UUID roomId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        bookingWriteQueue = new BookingWriteQueue(bookingService, new BookingMetrics(meterRegistry), "mailbox",
+                16, 50, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingWriteQueue.shutdown();
+    }
+
+    @Test
+    void create_queuedBehindRunningWrite_appliedAsOneBatch() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final UUID firstId = UUID.randomUUID();
+        final UUID secondId = UUID.randomUUID();
+        when(bookingService.create(any(BookingDTO.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return firstId;
+        });
+        when(bookingService.createAll(any(), any())).thenReturn(List.of(
+                new BookingBatchResult(0, BookingBatchStatus.CREATED, secondId, null),
+                new BookingBatchResult(1, BookingBatchStatus.CONFLICT, null, "Room 1 is not available")));
+
+        final CompletableFuture<UUID> first = bookingWriteQueue.create(item());
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        final CompletableFuture<UUID> second = bookingWriteQueue.create(item());
+        final CompletableFuture<UUID> third = bookingWriteQueue.create(item());
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(firstId);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(secondId);
+        assertThatThrownBy(() -> BookingWriteQueue.await(third))
+                .isInstanceOf(RoomNotAvailableException.class);
+        verify(bookingService).createAll(any(), any());
+    }
+
+    @Test
+    void create_batchItemInvalid_failsAsSingleCreateAndMetersBatchedItems() throws Exception {
+        final BookingDTO second = item();
+        final BookingDTO third = item();
+        final UUID thirdId = UUID.randomUUID();
+        when(bookingService.createAll(any(), any())).thenReturn(List.of(
+                new BookingBatchResult(0, BookingBatchStatus.INVALID, null, "User is inactive"),
+                new BookingBatchResult(1, BookingBatchStatus.CREATED, thirdId, null)));
+        when(bookingService.create(same(second))).thenThrow(new IllegalStateException("User is inactive"));
+
+        final CountDownLatch release = holdWorker();
+        final CompletableFuture<UUID> secondResult = bookingWriteQueue.create(second);
+        final CompletableFuture<UUID> thirdResult = bookingWriteQueue.create(third);
+        release.countDown();
+
+        assertThat(thirdResult.get(5, TimeUnit.SECONDS)).isEqualTo(thirdId);
+        assertThatThrownBy(() -> BookingWriteQueue.await(secondResult))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.get(BookingMetrics.WRITES).tag("operation", "create").tag("outcome", "created")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void update_failure_completesFutureExceptionally() {
+        final UUID id = UUID.randomUUID();
+        final BookingDTO bookingDTO = item();
+        doThrow(new RoomNotAvailableException("taken")).when(bookingService).update(id, bookingDTO, null);
+
+        assertThatThrownBy(() -> BookingWriteQueue.await(bookingWriteQueue.update(id, bookingDTO)))
+                .isInstanceOf(RoomNotAvailableException.class);
+    }
+
+    /**
+     * Starts the worker on a first create and holds it there until the returned latch is counted
+     * down, so the creates queued meanwhile are applied as one batch.
+     */
+    private CountDownLatch holdWorker() throws InterruptedException {
+        final BookingDTO first = item();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(bookingService.create(same(first))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return UUID.randomUUID();
+        });
+        bookingWriteQueue.create(first);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        return release;
+    }
+
+    private BookingDTO item() {
+        final BookingDTO bookingDTO = new BookingDTO();
+        bookingDTO.setRoom(roomId);
+        return bookingDTO;
+    }
+
+}
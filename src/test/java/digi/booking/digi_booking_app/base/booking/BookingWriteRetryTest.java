@@ -0,0 +1,82 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import digi.booking.digi_booking_app.base.exception.RoomBusyException;
+import digi.booking.digi_booking_app.base.exception.RoomNotAvailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+class BookingWriteRetryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BookingWriteRetry bookingWriteRetry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookingWriteRetry = new BookingWriteRetry(3, Duration.ofMillis(1), Duration.ofMillis(2), 1.0, 10, meterRegistry);
+    }
+
+    @Test
+    void execute_serializationFailure_retriesUntilSuccess() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = bookingWriteRetry.execute("create", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new CannotAcquireLockException("aborted", new SQLException("could not serialize access", "40001"));
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls).hasValue(3);
+        assertThat(meterRegistry.get("booking.write.retries").tag("cause", "serialization").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void execute_deadlock_exhaustsAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> bookingWriteRetry.execute("update", () -> {
+            calls.incrementAndGet();
+            throw new PessimisticLockingFailureException("deadlock", new SQLException("deadlock detected", "40P01"));
+        })).isInstanceOf(RoomBusyException.class);
+
+        assertThat(calls).hasValue(3);
+        assertThat(meterRegistry.get("booking.write.retry.exhausted").tag("cause", "deadlock").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_roomNotAvailable_isNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> bookingWriteRetry.execute("create", () -> {
+            calls.incrementAndGet();
+            throw new RoomNotAvailableException("taken");
+        })).isInstanceOf(RoomNotAvailableException.class);
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void execute_emptyBudget_stopsRetrying() {
+        BookingWriteRetry noBudget = new BookingWriteRetry(5, Duration.ZERO, Duration.ZERO, 0.0, 0, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> noBudget.execute("cancel", () -> {
+            calls.incrementAndGet();
+            throw new CannotAcquireLockException("aborted", new SQLException("could not serialize access", "40001"));
+        })).isInstanceOf(RoomBusyException.class);
+
+        assertThat(calls).hasValue(1);
+    }
+
+}
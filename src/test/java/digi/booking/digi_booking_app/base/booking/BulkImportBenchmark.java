@@ -0,0 +1,148 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import digi.booking.digi_booking_app.DigiBookingAppApplication;
+import digi.booking.digi_booking_app.base.BookingService;
+import digi.booking.digi_booking_app.base.RoomService;
+import digi.booking.digi_booking_app.base.config.BaseIT;
+import digi.booking.digi_booking_app.base.model.ImportError;
+import digi.booking.digi_booking_app.base.model.ImportResult;
+import digi.booking.digi_booking_app.base.room.RoomDTO;
+import digi.booking.digi_booking_app.base.util.BulkImport;
+import digi.booking.digi_booking_app.base.util.ExportFormat;
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.modulith.test.ApplicationModuleTest;
+
+
+/**
+ * Rows per second of creating rooms and bookings one request at a time against the bulk import
+ * of the same number of records. Excluded from the default build; run with
+ * {@code mvn test -Dtest.excludedGroups= -Dgroups=benchmark -Dtest=BulkImportBenchmark}.
+ */
+@Tag("benchmark")
+@ApplicationModuleTest(
+        classes = DigiBookingAppApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        mode = ApplicationModuleTest.BootstrapMode.ALL_DEPENDENCIES
+)
+class BulkImportBenchmark extends BaseIT {
+
+    private static final int RECORDS = 2_000;
+    private static final int ROOMS = 100;
+    private static final LocalDate FIRST_CHECKIN = LocalDate.of(2020, 1, 1);
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BulkImport bulkImport;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareRoomImport() throws Exception {
+        final long start = System.nanoTime();
+        for (int i = 0; i < RECORDS; i++) {
+            roomService.create(room(1_000 + i));
+        }
+        print("rooms one by one", RECORDS, Duration.ofNanos(System.nanoTime() - start));
+
+        final StringBuilder csv = new StringBuilder("roomNumber,roomType,capacity,price,amenities,active\n");
+        for (int i = 0; i < RECORDS; i++) {
+            csv.append(10_000 + i).append(",STANDARD,2,100.00,WiFi,true\n");
+        }
+        final ImportResult result = timed("rooms imported", () -> bulkImport.run("rooms", input(csv),
+                ExportFormat.CSV, RoomDTO.class, roomService::createAll));
+        assertThat(result.imported()).isEqualTo(RECORDS);
+    }
+
+    @Test
+    void compareBookingImport() throws Exception {
+        jdbcTemplate.update("INSERT INTO users (keycloak_id, email, first_name, last_name, active, "
+                + "date_created, last_updated) VALUES (1, 'bench@invalid.io', 'Bench', 'Mark', TRUE, now(), now())");
+        final List<UUID> rooms = jdbcTemplate.queryForList("INSERT INTO rooms (id, room_number, room_type, "
+                + "capacity, price, amenities, active, date_created, last_updated) SELECT gen_random_uuid(), n, "
+                + "'STANDARD', 2, 100, '', TRUE, now(), now() FROM generate_series(1, ?) n RETURNING id",
+                UUID.class, ROOMS);
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < RECORDS; i++) {
+            bookingService.create(booking(rooms, i));
+        }
+        print("bookings one by one", RECORDS, Duration.ofNanos(System.nanoTime() - start));
+
+        final StringBuilder ndjson = new StringBuilder();
+        for (int i = RECORDS; i < 2 * RECORDS; i++) {
+            final BookingDTO booking = booking(rooms, i);
+            ndjson.append("{\"checkinDate\":\"").append(booking.getCheckinDate())
+                    .append("\",\"checkoutDate\":\"").append(booking.getCheckoutDate())
+                    .append("\",\"status\":\"ACTIVE\",\"user\":1,\"room\":\"").append(booking.getRoom())
+                    .append("\"}\n");
+        }
+        final ImportResult result = timed("bookings imported", () -> bulkImport.run("bookings", input(ndjson),
+                ExportFormat.NDJSON, BookingDTO.class, chunk -> bookingService
+                        .createAll(chunk, BookingBatchMode.BEST_EFFORT).stream()
+                        .filter(item -> item.getStatus() != BookingBatchStatus.CREATED)
+                        .map(item -> new ImportError(item.getIndex(), item.getStatus().name(), item.getMessage()))
+                        .toList()));
+        assertThat(result.imported()).isEqualTo(RECORDS);
+    }
+
+    private static RoomDTO room(final int roomNumber) {
+        return new RoomDTO(null, roomNumber, "STANDARD", 2, new BigDecimal("100.00"), "WiFi", true, null);
+    }
+
+    /**
+     * Back-to-back two-night stays, spread over the rooms.
+     */
+    private static BookingDTO booking(final List<UUID> rooms, final int index) {
+        final LocalDate checkin = FIRST_CHECKIN.plusDays(3L * (index / rooms.size()));
+        final BookingDTO booking = new BookingDTO();
+        booking.setCheckinDate(checkin);
+        booking.setCheckoutDate(checkin.plusDays(2));
+        booking.setStatus(BookingStatus.ACTIVE);
+        booking.setUser(1L);
+        booking.setRoom(rooms.get(index % rooms.size()));
+        return booking;
+    }
+
+    private static ImportResult timed(final String name, final ImportCall call) throws Exception {
+        final long start = System.nanoTime();
+        final ImportResult result = call.run();
+        print(name, result.imported(), Duration.ofNanos(System.nanoTime() - start));
+        return result;
+    }
+
+    private static void print(final String name, final long rows, final Duration elapsed) {
+        System.out.printf("%-20s %6d rows in %6d ms, %7.0f rows/s%n", name, rows, elapsed.toMillis(),
+                rows * 1_000.0 / Math.max(1, elapsed.toMillis()));
+    }
+
+    private static ByteArrayInputStream input(final CharSequence content) {
+        return new ByteArrayInputStream(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @FunctionalInterface
+    private interface ImportCall {
+
+        ImportResult run() throws Exception;
+
+    }
+
+}
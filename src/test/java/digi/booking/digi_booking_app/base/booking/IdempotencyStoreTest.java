@@ -0,0 +1,165 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digi.booking.digi_booking_app.base.exception.IdempotencyKeyMismatchException;
+import digi.booking.digi_booking_app.base.exception.IdempotencyKeyPendingException;
+import digi.booking.digi_booking_app.base.exception.RoomBusyException;
+import digi.booking.digi_booking_app.base.exception.RoomNotAvailableException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore(idempotencyKeyRepository, new ObjectMapper(),
+                Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofSeconds(1), 100);
+    }
+
+    @Test
+    void execute_sameKeyTwice_replaysWithoutWriting() {
+        when(idempotencyKeyRepository.insertIfAbsent(anyString(), eq("create"), anyString(), any(), any())).thenReturn(1);
+        UUID createdId = UUID.randomUUID();
+        AtomicInteger writes = new AtomicInteger();
+
+        UUID first = idempotencyStore.execute("key-1", "create", claim -> {
+            writes.incrementAndGet();
+            return createdId;
+        }, "body");
+        UUID second = idempotencyStore.execute("key-1", "create", claim -> UUID.randomUUID(), "body");
+
+        assertThat(first).isEqualTo(createdId);
+        assertThat(second).isEqualTo(createdId);
+        assertThat(writes).hasValue(1);
+        verify(idempotencyKeyRepository, never()).deletePending(anyString(), any());
+    }
+
+    @Test
+    void execute_sameKeyDifferentRequest_throwsMismatch() {
+        when(idempotencyKeyRepository.insertIfAbsent(anyString(), eq("create"), anyString(), any(), any())).thenReturn(1);
+        idempotencyStore.execute("key-1", "create", claim -> UUID.randomUUID(), "body");
+
+        assertThatThrownBy(() -> idempotencyStore.execute("key-1", "create", claim -> UUID.randomUUID(), "other body"))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+    }
+
+    @Test
+    void execute_keyCompletedOnOtherNode_returnsStoredId() {
+        IdempotencyKey stored = storedKey(UUID.randomUUID());
+        when(idempotencyKeyRepository.insertIfAbsent(anyString(), eq("create"), anyString(), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findById(":key-1")).thenReturn(Optional.of(stored));
+
+        UUID result = idempotencyStore.execute("key-1", "create", claim -> {
+            throw new IllegalStateException("must not write");
+        }, "body");
+
+        assertThat(result).isEqualTo(stored.getResourceId());
+    }
+
+    @Test
+    void execute_keyPendingOnOtherNode_throwsPending() {
+        IdempotencyKey stored = storedKey(null);
+        when(idempotencyKeyRepository.insertIfAbsent(anyString(), eq("create"), anyString(), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findById(":key-1")).thenReturn(Optional.of(stored));
+
+        assertThatThrownBy(() -> idempotencyStore.execute("key-1", "create", claim -> UUID.randomUUID(), "body"))
+                .isInstanceOf(IdempotencyKeyPendingException.class);
+    }
+
+    @Test
+    void execute_keyLeftPendingByStoppedNode_takesOverKey() {
+        IdempotencyKey stored = storedKey(null);
+        stored.setDateCreated(OffsetDateTime.now().minusMinutes(30));
+        when(idempotencyKeyRepository.insertIfAbsent(anyString(), eq("create"), anyString(), any(), any()))
+                .thenReturn(0, 1);
+        when(idempotencyKeyRepository.findById(":key-1")).thenReturn(Optional.of(stored));
+        UUID createdId = UUID.randomUUID();
+
+        UUID result = idempotencyStore.execute("key-1", "create", claim -> createdId, "body");
+
+        assertThat(result).isEqualTo(createdId);
+        verify(idempotencyKeyRepository).deletePending(":key-1", stored.getDateCreated());
+        verify(idempotencyKeyRepository, never()).deleteClaim(anyString(), any());
+    }
+
+    @Test
+    void execute_writeFailsAfterCommit_returnsCommittedId() {
+        when(idempotencyKeyRepository.insertIfAbsent(anyString(), eq("create"), anyString(), any(), any())).thenReturn(1);
+        UUID createdId = UUID.randomUUID();
+        AtomicReference<IdempotencyStore.Claim> claimed = new AtomicReference<>();
+
+        UUID result = idempotencyStore.execute("key-1", "create", claim -> {
+            claimed.set(claim);
+            IdempotencyKey stored = storedKey(createdId);
+            stored.setDateCreated(claim.claimedAt());
+            when(idempotencyKeyRepository.findById(":key-1")).thenReturn(Optional.of(stored));
+            throw new IllegalStateException("failed after commit");
+        }, "body");
+
+        assertThat(result).isEqualTo(createdId);
+        verify(idempotencyKeyRepository).deletePending(":key-1", claimed.get().claimedAt());
+        assertThat(idempotencyStore.execute("key-1", "create", claim -> UUID.randomUUID(), "body"))
+                .isEqualTo(createdId);
+    }
+
+    @Test
+    void complete_keyTakenOver_throwsRoomBusy() {
+        IdempotencyStore.Claim claim = new IdempotencyStore.Claim(":key-1", OffsetDateTime.now());
+        when(idempotencyKeyRepository.complete(eq(":key-1"), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> idempotencyStore.complete(claim, UUID.randomUUID()))
+                .isInstanceOf(RoomBusyException.class);
+    }
+
+    @Test
+    void execute_writeFails_releasesKey() {
+        when(idempotencyKeyRepository.insertIfAbsent(anyString(), eq("create"), anyString(), any(), any())).thenReturn(1);
+        when(idempotencyKeyRepository.deletePending(eq(":key-1"), any())).thenReturn(1);
+
+        assertThatThrownBy(() -> idempotencyStore.execute("key-1", "create", claim -> {
+            throw new RoomNotAvailableException("taken");
+        }, "body")).isInstanceOf(RoomNotAvailableException.class);
+        UUID retried = idempotencyStore.execute("key-1", "create", claim -> UUID.randomUUID(), "body");
+
+        assertThat(retried).isNotNull();
+        verify(idempotencyKeyRepository).deletePending(eq(":key-1"), any());
+        verify(idempotencyKeyRepository, times(2)).insertIfAbsent(anyString(), eq("create"), anyString(), any(), any());
+    }
+
+    private IdempotencyKey storedKey(final UUID resourceId) {
+        IdempotencyKey stored = new IdempotencyKey();
+        stored.setKey(":key-1");
+        stored.setOperation("create");
+        stored.setResourceId(resourceId);
+        stored.setDateCreated(OffsetDateTime.now());
+        stored.setExpiresAt(OffsetDateTime.now().plusHours(1));
+        stored.setFingerprint(idempotencyStore.fingerprint("create", "body"));
+        return stored;
+    }
+
+}
@@ -0,0 +1,103 @@
+package digi.booking.digi_booking_app.base.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import digi.booking.digi_booking_app.base.exception.RoomBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RoomLockManagerTest {
+
+    private RoomLockManager roomLockManager;
+
+    @BeforeEach
+    void setUp() {
+        roomLockManager = new RoomLockManager(Duration.ofMillis(200), Duration.ZERO, 8, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void withRoomLocks_differentRooms_runInParallel() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> roomLockManager.runWithRoomLocks(List.of(first), () -> {
+            holding.countDown();
+            await(release);
+        }));
+        holding.await();
+
+        String result = roomLockManager.withRoomLocks(List.of(second), () -> "done");
+
+        assertThat(result).isEqualTo("done");
+        release.countDown();
+        holder.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void withRoomLocks_sameRoomBusy_timesOut() throws Exception {
+        UUID roomId = UUID.randomUUID();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> roomLockManager.runWithRoomLocks(List.of(roomId), () -> {
+            holding.countDown();
+            await(release);
+        }));
+        holding.await();
+
+        assertThatThrownBy(() -> roomLockManager.withRoomLocks(List.of(roomId), () -> "never"))
+                .isInstanceOf(RoomBusyException.class);
+        release.countDown();
+        holder.get(1, TimeUnit.SECONDS);
+
+        RoomLockManager.RoomLockStats stats = roomLockManager.getStats(roomId);
+        assertThat(stats.acquisitions()).isEqualTo(1);
+        assertThat(stats.contended()).isEqualTo(1);
+        assertThat(stats.rejected()).isEqualTo(1);
+        assertThat(stats.totalWaitMillis()).isGreaterThanOrEqualTo(150);
+    }
+
+    @Test
+    void withRoomLocks_releasesLocksWhenActionFails() {
+        UUID roomId = UUID.randomUUID();
+
+        assertThatThrownBy(() -> roomLockManager.runWithRoomLocks(List.of(roomId), () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(roomLockManager.getStats(roomId).locked()).isFalse();
+    }
+
+    @Test
+    void evictIdle_removesReleasedLocksAndKeepsHeldOnes() {
+        UUID released = UUID.randomUUID();
+        UUID held = UUID.randomUUID();
+        roomLockManager.runWithRoomLocks(List.of(released), () -> { });
+
+        roomLockManager.runWithRoomLocks(List.of(held), () -> {
+            roomLockManager.evictIdle();
+
+            assertThat(roomLockManager.getStats(released)).isNull();
+            assertThat(roomLockManager.getStats(held).locked()).isTrue();
+        });
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -1,14 +1,19 @@
 package digi.booking.digi_booking_app.base.config;
 
 import dasniko.testcontainers.keycloak.KeycloakContainer;
+import digi.booking.digi_booking_app.base.booking.RoomHoldRegistry;
+import digi.booking.digi_booking_app.base.room.RoomOccupancyIndex;
 import io.restassured.RestAssured;
 import io.restassured.common.mapper.TypeRef;
 import io.restassured.http.ContentType;
 import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.test.context.ActiveProfiles;
@@ -48,6 +53,15 @@ public abstract class BaseIT {
     @LocalServerPort
     public int serverPort;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    @Autowired
+    private RoomHoldRegistry roomHoldRegistry;
+
     private final HashMap<String, String> bookingApiSecurityTokens = new HashMap<>();
 
     @PostConstruct
@@ -57,6 +71,19 @@ public abstract class BaseIT {
         RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
     }
 
+    @BeforeEach
+    public void evictSecondLevelCache() {
+        // test data is reset with plain SQL, which the second-level cache does not see
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @BeforeEach
+    public void reloadInMemoryIndexes() {
+        // the same goes for the occupancy index and the holds, which are reloaded from the data of this test
+        roomOccupancyIndex.warmUp();
+        roomHoldRegistry.clear();
+    }
+
     @DynamicPropertySource
     public static void setDynamicProperties(final DynamicPropertyRegistry registry) {
         registry.add("spring.security.oauth2.resourceserver.jwt.jwk-set-uri",
@@ -0,0 +1,30 @@
+package digi.booking.digi_booking_app.base.config;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+
+/**
+ * Records every SQL statement Hibernate prepares, so tests can look at the queries behind a
+ * service call. Registered through application-it.properties.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(final String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    public static void clear() {
+        statements.clear();
+    }
+
+}
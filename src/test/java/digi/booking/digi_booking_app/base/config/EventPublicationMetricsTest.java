@@ -0,0 +1,54 @@
+package digi.booking.digi_booking_app.base.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Timestamp;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class EventPublicationMetricsTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EventPublicationMetrics eventPublicationMetrics;
+
+    @BeforeEach
+    void setUp() {
+        eventPublicationMetrics = new EventPublicationMetrics(jdbcTemplate);
+        eventPublicationMetrics.bindTo(meterRegistry);
+    }
+
+    @Test
+    void scrape_readsCachedValuesWithoutQuery() {
+        assertThat(meterRegistry.get("booking.events.pending").gauge().value()).isZero();
+        assertThat(meterRegistry.get("booking.events.oldest-pending-age").gauge().value()).isZero();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void refresh_updatesGauges() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(3L);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Timestamp.class)))
+                .thenReturn(Timestamp.from(Instant.now().minusSeconds(60)));
+
+        eventPublicationMetrics.refresh();
+
+        assertThat(meterRegistry.get("booking.events.pending").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("booking.events.oldest-pending-age").gauge().value())
+                .isGreaterThanOrEqualTo(60);
+    }
+
+}
@@ -0,0 +1,36 @@
+package digi.booking.digi_booking_app.base.config;
+
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+/**
+ * Explains SQL as captured from Hibernate. Placeholders become numbered parameters for
+ * EXPLAIN (GENERIC_PLAN), and sequential scans are switched off inside the transaction, so the
+ * planner only falls back to a seq scan when no index matches the predicates at all.
+ */
+public final class QueryPlans {
+
+    private QueryPlans() {
+    }
+
+    public static String explain(final JdbcTemplate jdbcTemplate, final TransactionTemplate transactionTemplate,
+            final String query) {
+        final StringBuilder sql = new StringBuilder("EXPLAIN (GENERIC_PLAN) ");
+        int parameter = 0;
+        for (final char c : query.toCharArray()) {
+            if (c == '?') {
+                sql.append('$').append(++parameter);
+            } else {
+                sql.append(c);
+            }
+        }
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            final List<String> plan = jdbcTemplate.queryForList(sql.toString(), String.class);
+            return String.join("\n", plan);
+        });
+    }
+
+}
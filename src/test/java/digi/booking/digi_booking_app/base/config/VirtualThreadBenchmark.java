@@ -0,0 +1,151 @@
+package digi.booking.digi_booking_app.base.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Compares request handling on a bounded platform-thread pool with virtual threads, in front of a
+ * simulated 10-connection pool whose queries take a few milliseconds. Excluded from the default
+ * build; run with {@code mvn test -Dtest.excludedGroups= -Dgroups=benchmark}.
+ */
+@Tag("benchmark")
+class VirtualThreadBenchmark {
+
+    private static final int POOL_SIZE = 10;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int REQUESTS = 5_000;
+    private static final Duration QUERY_TIME = Duration.ofMillis(5);
+    private static final Duration CONNECTION_TIMEOUT = Duration.ofMillis(500);
+
+    @Test
+    void compareThreadModels() throws Exception {
+        final Result platform = run("platform threads", Executors.newFixedThreadPool(PLATFORM_THREADS),
+                SimulatedPool::new);
+        final Result virtual = run("virtual threads", Executors.newVirtualThreadPerTaskExecutor(),
+                SimulatedPool::new);
+        final Result limited = run("virtual threads + limiter", Executors.newVirtualThreadPerTaskExecutor(),
+                () -> new ConnectionLimitingDataSource(new SimulatedPool(), POOL_SIZE, Duration.ofSeconds(60)));
+
+        System.out.println(platform);
+        System.out.println(virtual);
+        System.out.println(limited);
+        assertThat(limited.failed()).isZero();
+    }
+
+    private static Result run(final String name, final ExecutorService executor,
+            final Supplier<DataSource> dataSources) throws Exception {
+        final DataSource dataSource = dataSources.get();
+        final LongAdder failed = new LongAdder();
+        final long start = System.nanoTime();
+        try (executor) {
+            for (int request = 0; request < REQUESTS; request++) {
+                executor.execute(() -> {
+                    try (Connection connection = dataSource.getConnection()) {
+                        connection.isValid(0);
+                    } catch (final SQLException sqlException) {
+                        failed.increment();
+                    }
+                });
+            }
+        }
+        return new Result(name, failed.sum(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private record Result(String name, long failed, Duration elapsed) {
+
+        @Override
+        public String toString() {
+            return String.format("%-26s %6d requests in %5d ms, %5.0f req/s, %4d timed out", name, REQUESTS,
+                    elapsed.toMillis(), REQUESTS * 1000.0 / elapsed.toMillis(), failed);
+        }
+
+    }
+
+    /**
+     * Hands out up to {@link #POOL_SIZE} connections and gives up after the connection timeout,
+     * like Hikari. Every connection spends {@link #QUERY_TIME} in its one query.
+     */
+    private static final class SimulatedPool implements DataSource {
+
+        private final Semaphore connections = new Semaphore(POOL_SIZE, true);
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            try {
+                if (!connections.tryAcquire(CONNECTION_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS)) {
+                    throw new SQLTransientConnectionException("Connection is not available");
+                }
+            } catch (final InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted", interruptedException);
+            }
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "isValid" -> Thread.sleep(QUERY_TIME);
+                            case "close" -> connections.release();
+                            default -> {
+                            }
+                        }
+                        return method.getReturnType() == boolean.class ? Boolean.TRUE : null;
+                    });
+        }
+
+        @Override
+        public Connection getConnection(final String username, final String password) throws SQLException {
+            return getConnection();
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return null;
+        }
+
+        @Override
+        public void setLogWriter(final PrintWriter out) {
+        }
+
+        @Override
+        public void setLoginTimeout(final int seconds) {
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return 0;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+
+        @Override
+        public <T> T unwrap(final Class<T> iface) throws SQLException {
+            throw new SQLException("Not a wrapper");
+        }
+
+        @Override
+        public boolean isWrapperFor(final Class<?> iface) {
+            return false;
+        }
+
+    }
+
+}
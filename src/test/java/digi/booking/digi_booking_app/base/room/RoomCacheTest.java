@@ -0,0 +1,97 @@
+package digi.booking.digi_booking_app.base.room;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import digi.booking.digi_booking_app.DigiBookingAppApplication;
+import digi.booking.digi_booking_app.base.RoomService;
+import digi.booking.digi_booking_app.base.config.BaseIT;
+import digi.booking.digi_booking_app.base.util.NotFoundException;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.modulith.test.ApplicationModuleTest;
+import org.springframework.test.context.jdbc.Sql;
+
+
+/**
+ * Rooms are served from the second-level cache once loaded, and room writes through the service
+ * are visible on the next read.
+ */
+@ApplicationModuleTest(
+        classes = DigiBookingAppApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        mode = ApplicationModuleTest.BootstrapMode.ALL_DEPENDENCIES
+)
+class RoomCacheTest extends BaseIT {
+
+    private static final UUID ROOM_ID = UUID.fromString("a92d0103-08a6-3379-9a3d-9c728ee74244");
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @Sql("/data/roomData.sql")
+    void get_secondRead_servedFromCache() {
+        roomService.get(ROOM_ID);
+        final long statements = statistics.getPrepareStatementCount();
+        roomService.get(ROOM_ID);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    @Sql("/data/roomData.sql")
+    void findByRoomNumber_secondRead_servedFromCache() {
+        assertThat(roomRepository.findByRoomNumber(92)).map(Room::getId).contains(ROOM_ID);
+        final long statements = statistics.getPrepareStatementCount();
+        assertThat(roomRepository.findByRoomNumber(92)).map(Room::getId).contains(ROOM_ID);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getNaturalIdCacheHitCount()).isPositive();
+    }
+
+    @Test
+    @Sql("/data/roomData.sql")
+    void update_cachedRoom_nextReadSeesChange() {
+        final RoomDTO roomDTO = roomService.get(ROOM_ID);
+        roomDTO.setRoomNumber(192);
+        roomDTO.setPrice(roomDTO.getPrice().add(roomDTO.getPrice()));
+        roomService.update(ROOM_ID, roomDTO);
+
+        assertThat(roomService.get(ROOM_ID).getRoomNumber()).isEqualTo(192);
+        assertThat(roomRepository.findByRoomNumber(192)).isPresent();
+        assertThat(roomRepository.findByRoomNumber(92)).isEmpty();
+    }
+
+    @Test
+    @Sql("/data/roomData.sql")
+    void delete_cachedRoom_nextReadNotFound() {
+        roomService.get(ROOM_ID);
+        roomService.delete(ROOM_ID);
+
+        assertThatThrownBy(() -> roomService.get(ROOM_ID)).isInstanceOf(NotFoundException.class);
+        assertThat(roomRepository.findByRoomNumber(92)).isEmpty();
+    }
+
+}
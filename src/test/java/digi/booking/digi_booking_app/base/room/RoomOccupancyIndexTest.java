@@ -0,0 +1,111 @@
+package digi.booking.digi_booking_app.base.room;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import digi.booking.digi_booking_app.base.booking.BookingRepository;
+import digi.booking.digi_booking_app.base.booking.BookingStatus;
+import digi.booking.digi_booking_app.base.booking.BookingStay;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RoomOccupancyIndexTest {
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    private final LocalDate today = LocalDate.now();
+    private Room single;
+    private Room suite;
+    private Room closed;
+
+    @BeforeEach
+    void setUp() {
+        single = room(102, "Single", 1, true);
+        suite = room(101, "Suite", 4, true);
+        closed = room(100, "Suite", 4, false);
+        roomOccupancyIndex = new RoomOccupancyIndex(roomRepository, bookingRepository);
+        when(roomRepository.findAll()).thenReturn(List.of(single, suite, closed));
+    }
+
+    @Test
+    void findAvailable_skipsOccupiedAndInactiveRoomsOrderedByNumber() {
+        when(bookingRepository.findStaysEndingAfter(today, BookingStatus.ACTIVE)).thenReturn(List.of(
+                new BookingStay(UUID.randomUUID(), suite.getId(), today.plusDays(3), today.plusDays(5))));
+        roomOccupancyIndex.warmUp();
+
+        assertThat(roomOccupancyIndex.findAvailable(today.plusDays(1), today.plusDays(3), null, null))
+                .containsExactly(suite.getId(), single.getId());
+        assertThat(roomOccupancyIndex.findAvailable(today.plusDays(4), today.plusDays(6), null, null))
+                .containsExactly(single.getId());
+        assertThat(roomOccupancyIndex.findAvailable(today.plusDays(1), today.plusDays(2), 2, "suite"))
+                .containsExactly(suite.getId());
+    }
+
+    @Test
+    void putStay_movesBookingBetweenRooms() {
+        when(bookingRepository.findStaysEndingAfter(today, BookingStatus.ACTIVE)).thenReturn(List.of());
+        roomOccupancyIndex.warmUp();
+        UUID bookingId = UUID.randomUUID();
+
+        roomOccupancyIndex.putStay(bookingId, suite.getId(), today.plusDays(1), today.plusDays(2));
+        roomOccupancyIndex.putStay(bookingId, single.getId(), today.plusDays(1), today.plusDays(2));
+
+        assertThat(roomOccupancyIndex.findAvailable(today.plusDays(1), today.plusDays(2), null, null))
+                .containsExactly(suite.getId());
+
+        roomOccupancyIndex.removeStay(bookingId);
+
+        assertThat(roomOccupancyIndex.findAvailable(today.plusDays(1), today.plusDays(2), null, null))
+                .containsExactly(suite.getId(), single.getId());
+    }
+
+    @Test
+    void refresh_picksUpStaysWrittenElsewhere() {
+        UUID cancelledElsewhere = UUID.randomUUID();
+        when(bookingRepository.findStaysEndingAfter(today, BookingStatus.ACTIVE)).thenReturn(List.of(
+                new BookingStay(cancelledElsewhere, suite.getId(), today.minusDays(2), today.plusDays(2))));
+        roomOccupancyIndex.warmUp();
+        when(bookingRepository.findStaysEndingAfter(today, BookingStatus.ACTIVE)).thenReturn(List.of(
+                new BookingStay(UUID.randomUUID(), single.getId(), today, today.plusDays(2))));
+
+        roomOccupancyIndex.refresh();
+
+        assertThat(roomOccupancyIndex.findAvailable(today, today.plusDays(2), null, null))
+                .containsExactly(suite.getId());
+    }
+
+    @Test
+    void removeRoom_excludesRoomFromSearch() {
+        when(bookingRepository.findStaysEndingAfter(today, BookingStatus.ACTIVE)).thenReturn(List.of());
+        roomOccupancyIndex.warmUp();
+
+        roomOccupancyIndex.removeRoom(suite.getId());
+
+        assertThat(roomOccupancyIndex.findAvailable(today, today.plusDays(1), null, null))
+                .containsExactly(single.getId());
+    }
+
+    private static Room room(final int number, final String type, final int capacity, final boolean active) {
+        Room room = new Room();
+        room.setId(UUID.randomUUID());
+        room.setRoomNumber(number);
+        room.setRoomType(type);
+        room.setCapacity(capacity);
+        room.setActive(active);
+        return room;
+    }
+
+}
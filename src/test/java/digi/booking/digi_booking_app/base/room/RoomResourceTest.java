@@ -72,6 +72,96 @@ public class RoomResourceTest extends BaseIT {
                     .body("_links.self.href", Matchers.endsWith("/api/v1/rooms/a92d0103-08a6-3379-9a3d-9c728ee74244"));
     }
 
+    @Test
+    @Sql("/data/roomData.sql")
+    void getRoom_unchanged_notModified() {
+        final String etag = RestAssured
+                .given()
+                    .accept(ContentType.JSON)
+                .when()
+                    .get("/api/v1/rooms/a92d0103-08a6-3379-9a3d-9c728ee74244")
+                .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .extract().header(HttpHeaders.ETAG);
+        RestAssured
+                .given()
+                    .accept(ContentType.JSON)
+                    .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .when()
+                    .get("/api/v1/rooms/a92d0103-08a6-3379-9a3d-9c728ee74244")
+                .then()
+                    .statusCode(HttpStatus.NOT_MODIFIED.value());
+    }
+
+    @Test
+    @Sql("/data/roomData.sql")
+    void updateRoom_staleIfMatch_preconditionFailed() {
+        RestAssured
+                .given()
+                    .accept(ContentType.JSON)
+                    .contentType(ContentType.JSON)
+                    .header(HttpHeaders.IF_MATCH, "\"stale\"")
+                    .body(readResource("/requests/roomDTORequest.json"))
+                .when()
+                    .put("/api/v1/rooms/a92d0103-08a6-3379-9a3d-9c728ee74244")
+                .then()
+                    .statusCode(HttpStatus.PRECONDITION_FAILED.value())
+                    .body("code", Matchers.equalTo("PRECONDITION_FAILED"));
+    }
+
+    @Test
+    @Sql({"/data/roomData.sql", "/data/userData.sql", "/data/bookingData.sql"})
+    void getCalendar_success() {
+        RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(USER))
+                    .accept(ContentType.JSON)
+                .when()
+                    .get("/api/v1/rooms/calendar?from=2025-07-01&to=2025-07-31")
+                .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("from", Matchers.equalTo("2025-07-01"))
+                    .body("rooms.size()", Matchers.equalTo(2));
+    }
+
+    @Test
+    @Sql("/data/roomData.sql")
+    void exportRooms_ndjson() {
+        final String ndjson = RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(USER))
+                .when()
+                    .get("/api/v1/rooms/export?format=ndjson")
+                .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .contentType(Matchers.startsWith("application/x-ndjson"))
+                    .extract().asString();
+        assertEquals(2, ndjson.lines().count());
+    }
+
+    @Test
+    void exportRooms_unknownFormat() {
+        RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(USER))
+                .when()
+                    .get("/api/v1/rooms/export?format=xml")
+                .then()
+                    .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    void getCalendar_invalidRange() {
+        RestAssured
+                .given()
+                    .header(HttpHeaders.AUTHORIZATION, bookingApiSecurityToken(USER))
+                    .accept(ContentType.JSON)
+                .when()
+                    .get("/api/v1/rooms/calendar?from=2025-07-31&to=2025-07-01")
+                .then()
+                    .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
     @Test
     void getRoom_notFound() {
         RestAssured
@@ -98,6 +188,28 @@ public class RoomResourceTest extends BaseIT {
         assertEquals(1, roomRepository.count());
     }
 
+    @Test
+    @Sql("/data/roomData.sql")
+    void importRooms_csv() {
+        RestAssured
+                .given()
+                    .accept(ContentType.JSON)
+                    .contentType("text/csv")
+                    .body("roomNumber,roomType,capacity,price,amenities,active\n"
+                            + "92,Double,2,80.00,WiFi,true\n"
+                            + "94,Double,2,80.00,\"WiFi, TV\",true\n"
+                            + "95,Double,,80.00,WiFi,true\n")
+                .when()
+                    .post("/api/v1/rooms/import")
+                .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("records", Matchers.equalTo(3))
+                    .body("imported", Matchers.equalTo(1))
+                    .body("errors.line", Matchers.contains(2, 4))
+                    .body("errors.status", Matchers.contains("CONFLICT", "INVALID"));
+        assertEquals(3, roomRepository.count());
+    }
+
     @Test
     void createRoom_missingField() {
         RestAssured
@@ -1,12 +1,24 @@
 package digi.booking.digi_booking_app.base.room;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import digi.booking.digi_booking_app.base.RoomService;
 import digi.booking.digi_booking_app.base.model.SimpleValue;
+import digi.booking.digi_booking_app.base.util.BulkImport;
+import digi.booking.digi_booking_app.base.util.EntityTags;
+import digi.booking.digi_booking_app.base.util.ExportFormat;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,8 +26,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @ExtendWith(MockitoExtension.class)
 class RoomResourceUnitTest {
@@ -26,12 +43,20 @@ class RoomResourceUnitTest {
     private RoomAssembler roomAssembler;
     @Mock
     private PagedResourcesAssembler<RoomDTO> pagedResourcesAssembler;
+    @Mock
+    private RoomCalendar roomCalendar;
+    @Mock
+    private RoomExport roomExport;
+    @Mock
+    private BulkImport bulkImport;
 
     private RoomResource roomResource;
+    private final OffsetDateTime lastUpdated = OffsetDateTime.parse("2026-10-18T10:15:30.123456Z");
 
     @BeforeEach
     void setUp() {
-        roomResource = new RoomResource(roomService, roomAssembler, pagedResourcesAssembler);
+        roomResource = new RoomResource(roomService, roomAssembler, pagedResourcesAssembler, roomCalendar,
+                roomExport, bulkImport);
     }
 
     @Test
@@ -41,10 +66,11 @@ class RoomResourceUnitTest {
         roomDTO.setId(id);
         EntityModel<RoomDTO> roomModel = EntityModel.of(roomDTO);
 
+        when(roomService.getLastUpdated(id)).thenReturn(lastUpdated);
         when(roomService.get(id)).thenReturn(roomDTO);
         when(roomAssembler.toModel(roomDTO)).thenReturn(roomModel);
 
-        ResponseEntity<EntityModel<RoomDTO>> response = roomResource.getRoom(id);
+        ResponseEntity<EntityModel<RoomDTO>> response = roomResource.getRoom(id, webRequest(null));
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(roomModel);
@@ -52,6 +78,19 @@ class RoomResourceUnitTest {
         verify(roomAssembler).toModel(roomDTO);
     }
 
+    @Test
+    void getRoom_currentETag_notModifiedWithoutLoading() {
+        UUID id = UUID.randomUUID();
+        when(roomService.getLastUpdated(id)).thenReturn(lastUpdated);
+        ServletWebRequest webRequest = webRequest("\"" + EntityTags.of(lastUpdated) + "\"");
+
+        ResponseEntity<EntityModel<RoomDTO>> response = roomResource.getRoom(id, webRequest);
+
+        assertThat(response).isNull();
+        assertThat(webRequest.getResponse().getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        verify(roomService, never()).get(id);
+    }
+
     @Test
     void createRoom_returnsCreated() {
         UUID createdId = UUID.randomUUID();
@@ -77,11 +116,11 @@ class RoomResourceUnitTest {
 
         when(roomAssembler.toSimpleModel(id)).thenReturn(simpleModel);
 
-        ResponseEntity<EntityModel<SimpleValue<UUID>>> response = roomResource.updateRoom(id, roomDTO);
+        ResponseEntity<EntityModel<SimpleValue<UUID>>> response = roomResource.updateRoom(id, null, roomDTO);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(simpleModel);
-        verify(roomService).update(id, roomDTO);
+        verify(roomService).update(id, roomDTO, null);
         verify(roomAssembler).toSimpleModel(id);
     }
 
@@ -94,4 +133,49 @@ class RoomResourceUnitTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
         verify(roomService).delete(id);
     }
+
+    @Test
+    void exportRooms_gzipsWhenAccepted() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write("{\"roomNumber\":101}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(roomExport).write(any(), any());
+
+        ResponseEntity<StreamingResponseBody> response = roomResource.exportRooms("csv", "gzip, deflate");
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        response.getBody().writeTo(body);
+
+        assertThat(response.getHeaders().getContentType()).isEqualTo(ExportFormat.CSV.getMediaType());
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).contains("rooms.csv");
+        try (GZIPInputStream unzipped = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+            assertThat(new String(unzipped.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("{\"roomNumber\":101}\n");
+        }
+        verify(roomExport).write(any(), any());
+    }
+
+    @Test
+    void exportRooms_plainWhenGzipRefused() {
+        ResponseEntity<StreamingResponseBody> response = roomResource.exportRooms("csv", "gzip;q=0, *;q=0.5");
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    @Test
+    void exportRooms_plainWithoutAcceptEncoding() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = roomResource.exportRooms(null, null);
+        response.getBody().writeTo(new ByteArrayOutputStream());
+
+        assertThat(response.getHeaders().getContentType()).isEqualTo(ExportFormat.NDJSON.getMediaType());
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        verify(roomExport).write(any(), any());
+    }
+
+    private static ServletWebRequest webRequest(final String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/rooms");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
 }
\ No newline at end of file
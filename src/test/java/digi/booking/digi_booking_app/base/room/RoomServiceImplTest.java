@@ -4,14 +4,27 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import digi.booking.digi_booking_app.base.events.BeforeDeleteRoom;
+import digi.booking.digi_booking_app.base.events.RoomDeleted;
+import digi.booking.digi_booking_app.base.events.RoomSaved;
+import digi.booking.digi_booking_app.base.exception.PreconditionFailedException;
+import digi.booking.digi_booking_app.base.exception.RoomNumberTakenException;
+import digi.booking.digi_booking_app.base.model.Cursor;
+import digi.booking.digi_booking_app.base.model.CursorPage;
+import digi.booking.digi_booking_app.base.model.ImportError;
+import digi.booking.digi_booking_app.base.util.EntityTags;
 import digi.booking.digi_booking_app.base.util.NotFoundException;
+import digi.booking.digi_booking_app.base.util.TableCounter;
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,11 +33,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @ExtendWith(MockitoExtension.class)
 class RoomServiceImplTest {
@@ -35,6 +58,13 @@ class RoomServiceImplTest {
     private ApplicationEventPublisher publisher;
     @Mock
     private RoomMapper roomMapper;
+    @Mock
+    private RoomOccupancyIndex roomOccupancyIndex;
+    @Mock
+    private RoomValuesCache roomValuesCache;
+
+    @Spy
+    private TableCounter tableCounter = new TableCounter(null, new MockEnvironment(), Duration.ofSeconds(30));
 
     @InjectMocks
     private RoomServiceImpl roomService;
@@ -64,35 +94,45 @@ class RoomServiceImplTest {
     }
 
     @Test
-    void findAll_returnsAllRooms() {
+    void findAll_returnsProjectedRoomsWithoutMapping() {
         PageRequest pageable = PageRequest.of(0, 20);
-        Page<Room> page = new PageImpl<>(List.of(room), pageable, 1);
-        RoomDTO mappedDto = new RoomDTO();
-        when(roomRepository.findAll(pageable)).thenReturn(page);
-        when(roomMapper.updateRoomDTO(eq(room), any(RoomDTO.class))).thenReturn(mappedDto);
+        when(roomRepository.findDTOs(pageable)).thenReturn(new PageImpl<>(List.of(roomDTO), pageable, 1));
 
         Page<RoomDTO> result = roomService.findAll(null, pageable);
 
-        assertThat(result.getContent()).containsExactly(mappedDto);
-        verify(roomRepository).findAll(pageable);
-        verify(roomMapper).updateRoomDTO(eq(room), any(RoomDTO.class));
+        assertThat(result.getContent()).containsExactly(roomDTO);
+        verify(roomRepository, never()).findAll(pageable);
+        verify(roomMapper, never()).updateRoomDTO(any(), any());
     }
 
     @Test
     void findAll_withFilter_parsesUuidAndDelegates() {
         PageRequest pageable = PageRequest.of(0, 20);
-        Page<Room> page = new PageImpl<>(List.of(room), pageable, 1);
+        when(roomRepository.findDTOsById(room.getId(), pageable))
+                .thenReturn(new PageImpl<>(List.of(roomDTO), pageable, 1));
+
+        Page<RoomDTO> result = roomService.findAll(room.getId().toString(), pageable);
+
+        assertThat(result.getContent()).containsExactly(roomDTO);
+        verify(roomRepository).findDTOsById(room.getId(), pageable);
+    }
+
+
+    @Test
+    void scroll_beforeCursor_returnsNeighbourCursors() {
         RoomDTO mappedDto = new RoomDTO();
-        when(roomRepository.findAllById(room.getId(), pageable)).thenReturn(page);
+        String before = Cursor.encode(102, UUID.randomUUID());
+        when(roomRepository.findAllBy(any(ScrollPosition.class), eq(Limit.of(20)), any(Sort.class)))
+                .thenReturn(Window.from(List.of(room), ScrollPosition::offset, false));
         when(roomMapper.updateRoomDTO(eq(room), any(RoomDTO.class))).thenReturn(mappedDto);
 
-        Page<RoomDTO> result = roomService.findAll(room.getId().toString(), pageable);
+        CursorPage<RoomDTO> result = roomService.scroll(null, before, 20);
 
         assertThat(result.getContent()).containsExactly(mappedDto);
-        verify(roomRepository).findAllById(room.getId(), pageable);
+        assertThat(result.getPrevious()).isNull();
+        assertThat(Cursor.decode(result.getNext())).isEqualTo(new Cursor("101", room.getId()));
     }
 
-
     @Test
     void get_returnsRoom() {
         when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
@@ -114,16 +154,113 @@ class RoomServiceImplTest {
     }
 
 
+    @Test
+    void createAll_skipsTakenRoomNumbers() {
+        RoomDTO newRoom = new RoomDTO();
+        newRoom.setRoomNumber(102);
+        RoomDTO duplicate = new RoomDTO();
+        duplicate.setRoomNumber(102);
+        when(roomRepository.findRoomNumbersIn(List.of(101, 102, 102))).thenReturn(List.of(101));
+        when(roomRepository.saveAllAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<ImportError> skipped = roomService.createAll(List.of(roomDTO, newRoom, duplicate));
+
+        assertThat(skipped).extracting(ImportError::line).containsExactly(0L, 2L);
+        assertThat(skipped).extracting(ImportError::status).containsOnly("CONFLICT");
+        verify(roomMapper).updateRoom(eq(newRoom), any(Room.class));
+        verify(roomOccupancyIndex, times(1)).putRoom(any(Room.class));
+        verify(publisher, times(1)).publishEvent(any(RoomSaved.class));
+    }
+
+    @Test
+    void create_roomNumberTaken_throwsRoomNumberTakenException() {
+        when(roomRepository.save(any(Room.class))).thenThrow(new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint \"uq_rooms_room_number\"", "23505")));
+
+        assertThatThrownBy(() -> roomService.create(roomDTO))
+                .isInstanceOf(RoomNumberTakenException.class)
+                .hasMessage("Room 101 exists");
+        verify(roomOccupancyIndex, never()).putRoom(any(Room.class));
+    }
+
+    @Test
+    void createAll_roomNumberTakenConcurrently_throwsRoomNumberTakenException() {
+        RoomDTO newRoom = new RoomDTO();
+        newRoom.setRoomNumber(102);
+        when(roomRepository.findRoomNumbersIn(List.of(102))).thenReturn(List.of());
+        when(roomRepository.saveAllAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint \"uq_rooms_room_number\"", "23505")));
+
+        assertThatThrownBy(() -> roomService.createAll(List.of(newRoom)))
+                .isInstanceOf(RoomNumberTakenException.class);
+    }
+
+    @Test
+    void createAll_inTransaction_indexesRoomsAfterCommit() {
+        RoomDTO newRoom = new RoomDTO();
+        newRoom.setRoomNumber(102);
+        when(roomRepository.findRoomNumbersIn(List.of(102))).thenReturn(List.of());
+        when(roomRepository.saveAllAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            roomService.createAll(List.of(newRoom));
+
+            verify(roomOccupancyIndex, never()).putRoom(any(Room.class));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(roomOccupancyIndex).putRoom(any(Room.class));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void update_existingRoom_savesUpdatedRoom() {
         when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
         when(roomMapper.updateRoom(roomDTO, room)).thenReturn(room);
+        when(roomRepository.saveAndFlush(room)).thenReturn(room);
 
         roomService.update(room.getId(), roomDTO);
 
         verify(roomRepository).findById(room.getId());
         verify(roomMapper).updateRoom(roomDTO, room);
-        verify(roomRepository).save(room);
+        verify(roomRepository).saveAndFlush(room);
+        verify(publisher).publishEvent(any(RoomSaved.class));
+    }
+
+    @Test
+    void update_currentIfMatch_saves() {
+        room.setLastUpdated(OffsetDateTime.parse("2026-10-18T10:15:30.123456Z"));
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        when(roomMapper.updateRoom(roomDTO, room)).thenReturn(room);
+        when(roomRepository.saveAndFlush(room)).thenReturn(room);
+
+        roomService.update(room.getId(), roomDTO, "\"" + EntityTags.of(room.getLastUpdated()) + "\"");
+
+        verify(roomRepository).saveAndFlush(room);
+    }
+
+    @Test
+    void update_changedConcurrently_throwsPreconditionFailed() {
+        room.setLastUpdated(OffsetDateTime.parse("2026-10-18T10:15:30.123456Z"));
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        when(roomMapper.updateRoom(roomDTO, room)).thenReturn(room);
+        when(roomRepository.saveAndFlush(room))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Room.class, room.getId()));
+
+        assertThatThrownBy(() -> roomService.update(room.getId(), roomDTO,
+                "\"" + EntityTags.of(room.getLastUpdated()) + "\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        verify(publisher, never()).publishEvent(any(RoomSaved.class));
+    }
+
+    @Test
+    void update_staleIfMatch_throwsPreconditionFailed() {
+        room.setLastUpdated(OffsetDateTime.parse("2026-10-18T10:15:30.123456Z"));
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+
+        assertThatThrownBy(() -> roomService.update(room.getId(), roomDTO, "\"stale\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        verify(roomRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -137,13 +274,13 @@ class RoomServiceImplTest {
     @Test
     void delete_existingRoom_publishesEventAndDeletes() {
         when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
-        doNothing().when(publisher).publishEvent(any(BeforeDeleteRoom.class));
 
         roomService.delete(room.getId());
 
         verify(roomRepository).findById(room.getId());
         verify(publisher).publishEvent(any(BeforeDeleteRoom.class));
         verify(roomRepository).delete(room);
+        verify(publisher).publishEvent(any(RoomDeleted.class));
     }
 
     @Test
@@ -156,4 +293,30 @@ class RoomServiceImplTest {
         verify(roomRepository, never()).delete(any());
     }
 
-}
\ No newline at end of file
+    @Test
+    void findAvailable_loadsOnlyRequestedPageInIndexOrder() {
+        LocalDate checkin = LocalDate.now().plusDays(1);
+        LocalDate checkout = checkin.plusDays(2);
+        UUID otherId = UUID.randomUUID();
+        PageRequest pageable = PageRequest.of(0, 1);
+        RoomDTO mappedDto = new RoomDTO();
+        when(roomOccupancyIndex.findAvailable(checkin, checkout, 2, "Deluxe")).thenReturn(List.of(room.getId(), otherId));
+        when(roomRepository.findAllById(List.of(room.getId()))).thenReturn(List.of(room));
+        when(roomMapper.updateRoomDTO(eq(room), any(RoomDTO.class))).thenReturn(mappedDto);
+
+        Page<RoomDTO> result = roomService.findAvailable(checkin, checkout, 2, "Deluxe", pageable);
+
+        assertThat(result.getContent()).containsExactly(mappedDto);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void findAvailable_checkoutNotAfterCheckin_throwsException() {
+        LocalDate checkin = LocalDate.now().plusDays(1);
+
+        assertThatThrownBy(() -> roomService.findAvailable(checkin, checkin, null, null, PageRequest.of(0, 20)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(roomOccupancyIndex, never()).findAvailable(any(), any(), any(), any());
+    }
+
+}
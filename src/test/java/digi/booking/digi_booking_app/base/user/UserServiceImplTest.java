@@ -1,18 +1,21 @@
 package digi.booking.digi_booking_app.base.user;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import digi.booking.digi_booking_app.base.events.UserDeleted;
+import digi.booking.digi_booking_app.base.events.UserSaved;
+import digi.booking.digi_booking_app.base.model.ValuesSnapshot;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Sort;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceImplTest {
@@ -20,25 +23,52 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    private UserValuesCache userValuesCache;
     private UserServiceImpl userService;
 
-    private User user;
-
     @BeforeEach
     void setUp() {
-        user = new User();
-        user.setKeycloakId(101L);
-        user.setEmail("user@example.com");
+        userValuesCache = new UserValuesCache(userRepository, Duration.ofMinutes(5));
+        userService = new UserServiceImpl(userValuesCache);
     }
 
     @Test
     void getUserValues_returnsSortedMap() {
-        when(userRepository.findAll(Sort.by("keycloakId"))).thenReturn(List.of(user));
+        when(userRepository.findAllValues()).thenReturn(List.of(new UserValue(102L, "b@example.com"),
+                new UserValue(101L, "a@example.com")));
+
+        ValuesSnapshot<Long> result = userService.getUserValues();
+
+        assertThat(result.values()).containsExactly(
+                entry(101L, "a@example.com"),
+                entry(102L, "b@example.com"));
+        assertThat(result.etag()).isNotBlank();
+    }
+
+    @Test
+    void getUserValues_unchanged_servedFromSnapshot() {
+        when(userRepository.findAllValues()).thenReturn(List.of(new UserValue(101L, "a@example.com")));
 
-        Map<Long, String> result = userService.getUserValues();
+        ValuesSnapshot<Long> first = userService.getUserValues();
+        ValuesSnapshot<Long> second = userService.getUserValues();
 
-        assertThat(result).containsEntry(user.getKeycloakId(), user.getEmail());
-        verify(userRepository).findAll(Sort.by("keycloakId"));
+        assertThat(second).isSameAs(first);
+        verify(userRepository, times(1)).findAllValues();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUserValues_afterEvents_appliesChangesWithoutReload() {
+        when(userRepository.findAllValues()).thenReturn(List.of(new UserValue(101L, "a@example.com")));
+        ValuesSnapshot<Long> before = userService.getUserValues();
+
+        userValuesCache.onUserSaved(new UserSaved(103L, "c@example.com"));
+        userValuesCache.onUserDeleted(new UserDeleted(101L));
+        ValuesSnapshot<Long> after = userService.getUserValues();
+
+        assertThat(after.values()).containsOnlyKeys(103L);
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        assertThat(before.values()).containsOnlyKeys(101L);
+        verify(userRepository, times(1)).findAllValues();
+    }
+
+}
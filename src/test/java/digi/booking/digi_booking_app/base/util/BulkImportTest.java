@@ -0,0 +1,86 @@
+package digi.booking.digi_booking_app.base.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import digi.booking.digi_booking_app.base.model.ImportError;
+import digi.booking.digi_booking_app.base.model.ImportResult;
+import jakarta.validation.Validation;
+import jakarta.validation.constraints.NotNull;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BulkImportTest {
+
+    private final List<List<Integer>> chunks = new ArrayList<>();
+
+    @Test
+    void csv_reportsFailedLinesAndWritesChunks() throws Exception {
+        String csv = """
+                number,name,day\r
+                1,"Suite, ""sea"" view",2025-07-01\r
+                x,Broken,2025-07-01\r
+                ,Missing,\r
+                2,"Two
+                lines",\r
+                3,Three,2025-07-03\r
+                """;
+
+        ImportResult result = bulkImport(1_000).run("items", input(csv), ExportFormat.CSV, Item.class, this::write);
+
+        assertThat(chunks).containsExactly(List.of(1, 2), List.of(3));
+        assertThat(result.records()).isEqualTo(5);
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.failed()).isEqualTo(3);
+        assertThat(result.errors()).extracting(ImportError::line).containsExactly(3L, 4L, 5L);
+        assertThat(result.errors()).extracting(ImportError::status).containsExactly("INVALID", "INVALID", "CONFLICT");
+        assertThat(result.errors().get(1).message()).isEqualTo("number must not be null");
+    }
+
+    @Test
+    void ndjson_skipsBlankLinesAndLimitsReportedErrors() throws Exception {
+        String ndjson = """
+                {"number":1,"name":"One"}
+
+                {"number":
+                {"name":"No number"}
+                {"number":3,"day":"2025-07-03"}
+                """;
+
+        ImportResult result = bulkImport(1).run("items", input(ndjson), ExportFormat.NDJSON, Item.class, this::write);
+
+        assertThat(chunks).containsExactly(List.of(1, 3));
+        assertThat(result.records()).isEqualTo(4);
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.failed()).isEqualTo(2);
+        assertThat(result.errors()).extracting(ImportError::line).containsExactly(3L);
+    }
+
+    private List<ImportError> write(final List<Item> chunk) {
+        chunks.add(chunk.stream().map(Item::number).toList());
+        List<ImportError> rejected = new ArrayList<>();
+        for (int index = 0; index < chunk.size(); index++) {
+            if (chunk.get(index).number() == 2) {
+                rejected.add(new ImportError(index, "CONFLICT", "Taken"));
+            }
+        }
+        return rejected;
+    }
+
+    private static BulkImport bulkImport(final int maxErrors) {
+        return new BulkImport(JsonMapper.builder().findAndAddModules().build(),
+                Validation.buildDefaultValidatorFactory().getValidator(), 2, maxErrors);
+    }
+
+    private static ByteArrayInputStream input(final String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    record Item(@NotNull Integer number, String name, LocalDate day) {
+    }
+
+}
@@ -0,0 +1,55 @@
+package digi.booking.digi_booking_app.base.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class ExportFormatTest {
+
+    private static final List<String> COLUMNS = List.of("id", "checkinDate", "price", "amenities", "active");
+    private static final UUID ID = UUID.fromString("a96e0a04-d20f-4b3a-9f7b-1d2e3c4b5a60");
+
+    @Test
+    void ndjson_writesOneObjectPerLine() throws Exception {
+        assertThat(write(ExportFormat.NDJSON)).isEqualTo(
+                "{\"id\":\"" + ID + "\",\"checkinDate\":\"2025-07-01\",\"price\":120.50,"
+                        + "\"amenities\":\"Wifi, \\\"Sea\\\" view\",\"active\":true}\n"
+                        + "{\"id\":\"" + ID + "\",\"checkinDate\":null,\"price\":null,\"amenities\":null,"
+                        + "\"active\":null}\n");
+    }
+
+    @Test
+    void csv_quotesFieldsWithSeparators() throws Exception {
+        assertThat(write(ExportFormat.CSV)).isEqualTo(
+                "id,checkinDate,price,amenities,active\r\n"
+                        + ID + ",2025-07-01,120.50,\"Wifi, \"\"Sea\"\" view\",true\r\n"
+                        + ID + ",,,,\r\n");
+    }
+
+    @Test
+    void parse_defaultsToNdjson() {
+        assertThat(ExportFormat.parse(null)).isEqualTo(ExportFormat.NDJSON);
+        assertThat(ExportFormat.parse("CSV")).isEqualTo(ExportFormat.CSV);
+        assertThatThrownBy(() -> ExportFormat.parse("xml"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("xml");
+    }
+
+    private static String write(final ExportFormat format) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ExportFormat.RowWriter writer = format.open(outputStream, COLUMNS)) {
+            writer.write(new Object[] {ID, LocalDate.of(2025, 7, 1), new BigDecimal("120.50"),
+                    "Wifi, \"Sea\" view", Boolean.TRUE});
+            writer.write(new Object[] {ID, null, null, null, null});
+        }
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+}